@@ -1,19 +1,32 @@
 package com.controlepresenca.controller;
 
 import com.controlepresenca.dto.AlunoDTO;
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.service.AlunoService;
+import com.controlepresenca.service.ListagemJsonStreaming;
+import com.controlepresenca.service.VersoesAgregados;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Controller REST para gerenciar Alunos
  * 
+ * As listagens são paginadas: aceitam "pagina" (a partir de 0), "tamanho" (limitado ao máximo
+ * configurado), "ordenacao" (nome, matricula, dataCadastro, totalPresencas ou turma, com ",desc"
+ * opcional) e "total=false" para dispensar a contagem. A lista completa só é devolvida com todos=true
+ * 
+ * Listagens e busca por ID trazem ETag (versão dos alunos) e aceitam If-None-Match (304)
+ * 
  * Endpoints:
  * GET /alunos - Lista todos os alunos ativos
  * GET /alunos/{id} - Busca aluno por ID
@@ -31,50 +44,82 @@ public class AlunoController {
     @Autowired
     private AlunoService alunoService;
 
+    @Autowired
+    private VersoesAgregados versoes;
+
+    @Autowired
+    private ListagemJsonStreaming listagemJsonStreaming;
+
     /**
      * Lista todos os alunos ativos
      */
     @GetMapping
-    public ResponseEntity<List<AlunoDTO>> listarAlunos() {
-        try {
-            List<AlunoDTO> alunos = alunoService.listarAlunosAtivos();
-            return ResponseEntity.ok(alunos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarAlunos(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, alunoService::listarAlunosAtivos,
+                () -> alunoService.listarAlunosPaginados(null, true, pagina, tamanho, ordenacao, total));
     }
 
     /**
      * Lista todos os alunos (incluindo inativos)
+     *
+     * Com stream=true, a lista completa é escrita item a item enquanto é lida do banco
      */
     @GetMapping("/todos")
-    public ResponseEntity<List<AlunoDTO>> listarTodosAlunos() {
-        try {
-            List<AlunoDTO> alunos = alunoService.listarTodosAlunos();
-            return ResponseEntity.ok(alunos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarTodosAlunos(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            @RequestParam(defaultValue = "false") boolean stream,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
+        }
+        if (stream) {
+            StreamingResponseBody body = saida -> listagemJsonStreaming.escrever(alunoService::streamTodosAlunos, saida);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         }
+        return listar(todos, alunoService::listarTodosAlunos,
+                () -> alunoService.listarAlunosPaginados(null, false, pagina, tamanho, ordenacao, total));
     }
 
     /**
      * Lista alunos por turma
      */
     @GetMapping("/turma/{turmaId}")
-    public ResponseEntity<List<AlunoDTO>> listarAlunosPorTurma(@PathVariable Long turmaId) {
-        try {
-            List<AlunoDTO> alunos = alunoService.listarAlunosPorTurma(turmaId);
-            return ResponseEntity.ok(alunos);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarAlunosPorTurma(
+            @PathVariable Long turmaId,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, () -> alunoService.listarAlunosPorTurma(turmaId),
+                () -> alunoService.listarAlunosPaginados(turmaId, true, pagina, tamanho, ordenacao, total));
     }
 
     /**
      * Busca aluno por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<AlunoDTO> buscarAlunoPorId(@PathVariable Long id) {
+    public ResponseEntity<AlunoDTO> buscarAlunoPorId(@PathVariable Long id, WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
+        }
         try {
             Optional<AlunoDTO> aluno = alunoService.buscarPorId(id);
             return aluno.map(ResponseEntity::ok)
@@ -204,5 +249,27 @@ public class AlunoController {
                                 .body("Erro interno do servidor");
         }
     }
-}
 
+    /**
+     * Responde com uma página ou, quando solicitado explicitamente com todos=true, com a lista completa
+     */
+    private ResponseEntity<?> listar(boolean todos,
+                                     Supplier<List<AlunoDTO>> listaCompleta,
+                                     Supplier<PaginaDTO<AlunoDTO>> pagina) {
+        try {
+            return ResponseEntity.ok(todos ? listaCompleta.get() : pagina.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Verifica If-None-Match contra a versão atual dos alunos, sem consultar o banco; quando a
+     * versão mudou, a ETag atual segue na resposta
+     */
+    private boolean naoModificado(WebRequest requisicao) {
+        return requisicao.checkNotModified(versoes.etag(VersoesAgregados.Agregado.ALUNOS));
+    }
+}
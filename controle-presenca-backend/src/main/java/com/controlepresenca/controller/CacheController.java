@@ -0,0 +1,47 @@
+package com.controlepresenca.controller;
+
+import com.controlepresenca.dto.EstatisticasCacheDTO;
+import com.controlepresenca.service.CacheReferencias;
+import com.controlepresenca.service.CacheSegundoNivel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller REST para acompanhamento dos caches da aplicação
+ *
+ * Endpoints:
+ * GET /api/caches/referencias - Acertos e falhas do cache de turmas e mentores
+ * GET /api/caches/hibernate   - Acertos e falhas das regiões do cache de segundo nível
+ */
+@RestController
+@RequestMapping("/api/caches")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    /**
+     * Estatísticas do cache de turmas e mentores usado nas escritas
+     * GET /api/caches/referencias
+     */
+    @GetMapping("/referencias")
+    public ResponseEntity<List<EstatisticasCacheDTO>> estatisticasReferencias() {
+        return ResponseEntity.ok(cacheReferencias.obterEstatisticas());
+    }
+
+    /**
+     * Estatísticas das regiões de entidade e de consulta do Hibernate
+     * GET /api/caches/hibernate
+     */
+    @GetMapping("/hibernate")
+    public ResponseEntity<List<EstatisticasCacheDTO>> estatisticasHibernate() {
+        return ResponseEntity.ok(cacheSegundoNivel.obterEstatisticas());
+    }
+}
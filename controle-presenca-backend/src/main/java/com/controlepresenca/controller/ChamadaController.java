@@ -6,8 +6,10 @@ import com.controlepresenca.service.ChamadaService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -115,6 +117,33 @@ public class ChamadaController {
         }
     }
     
+    /**
+     * Exportar os registros de presença/falta das chamadas em NDJSON, com os dados da chamada,
+     * da turma e do aluno em cada linha, em ordem de ID
+     * GET /api/chamadas/exportacao?dataInicio=2024-01-01&dataFim=2024-01-31&afterId=1000
+     * 
+     * O conteúdo é gerado enquanto é enviado. É um retrato dos registros do período, não um
+     * feed de alterações: afterId (ID da última linha recebida) apenas retoma uma transferência
+     * interrompida, e presenças alteradas ou registros gravados depois dela só aparecem ao
+     * exportar o período de novo
+     */
+    @GetMapping("/exportacao")
+    public ResponseEntity<StreamingResponseBody> exportarRegistrosNdjson(
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) Long afterId) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        StreamingResponseBody body = saida ->
+                chamadaService.escreverExportacaoNdjson(turmaId, dataInicio, dataFim, afterId, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+    
     /**
      * Buscar chamada por turma e data
      * GET /api/chamadas/turma/{turmaId}/data/{data}
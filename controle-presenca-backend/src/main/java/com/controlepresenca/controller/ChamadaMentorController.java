@@ -3,11 +3,14 @@ package com.controlepresenca.controller;
 import com.controlepresenca.dto.ChamadaMentorDTO;
 import com.controlepresenca.dto.CriarChamadaMentorDTO;
 import com.controlepresenca.service.ChamadaMentorService;
+import com.controlepresenca.service.ListagemJsonStreaming;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,6 +27,9 @@ public class ChamadaMentorController {
     @Autowired
     private ChamadaMentorService chamadaMentorService;
     
+    @Autowired
+    private ListagemJsonStreaming listagemJsonStreaming;
+    
     /**
      * Criar nova chamada de mentor
      * POST /api/chamadas-mentores
@@ -43,9 +49,15 @@ public class ChamadaMentorController {
     /**
      * Listar todas as chamadas de mentor
      * GET /api/chamadas-mentores
+     * 
+     * Com stream=true, a lista é escrita item a item enquanto é lida do banco
      */
     @GetMapping
-    public ResponseEntity<List<ChamadaMentorDTO>> listarTodas() {
+    public ResponseEntity<?> listarTodas(@RequestParam(defaultValue = "false") boolean stream) {
+        if (stream) {
+            StreamingResponseBody body = saida -> listagemJsonStreaming.escrever(chamadaMentorService::streamTodas, saida);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        }
         try {
             List<ChamadaMentorDTO> chamadas = chamadaMentorService.listarTodas();
             return ResponseEntity.ok(chamadas);
@@ -0,0 +1,35 @@
+package com.controlepresenca.controller;
+
+import com.controlepresenca.dto.DashboardResumoDTO;
+import com.controlepresenca.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Controller REST do dashboard
+ *
+ * Endpoints:
+ * GET /dashboard/resumo - Totais, presenças do dia, dados dos gráficos por turma e estatísticas de mentores
+ */
+@RestController
+@RequestMapping("/dashboard")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    /**
+     * Resumo exibido no dashboard, calculado no servidor
+     */
+    @GetMapping("/resumo")
+    public ResponseEntity<DashboardResumoDTO> obterResumo() {
+        try {
+            return ResponseEntity.ok(dashboardService.obterResumo());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.controlepresenca.controller;
 
 import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.service.MentorService;
+import com.controlepresenca.service.VersoesAgregados;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Controller REST para operações relacionadas a Mentores
+ * 
+ * As listagens são paginadas: aceitam "pagina" (a partir de 0), "tamanho" (limitado ao máximo
+ * configurado), "ordenacao" (nome, email, tipoMentor ou dataCadastro, com ",desc" opcional)
+ * e "total=false" para dispensar a contagem. A lista completa só é devolvida com todos=true.
+ * Listagens e busca por ID trazem ETag (versão dos mentores) e aceitam If-None-Match (304)
  */
 @RestController
 @RequestMapping("/api/mentores")
@@ -19,19 +28,27 @@ public class MentorController {
     
     @Autowired
     private MentorService mentorService;
+
+    @Autowired
+    private VersoesAgregados versoes;
     
     /**
      * Listar todos os mentores
      * GET /api/mentores
      */
     @GetMapping
-    public ResponseEntity<List<MentorDTO>> listarTodos() {
-        try {
-            List<MentorDTO> mentores = mentorService.listarTodos();
-            return ResponseEntity.ok(mentores);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarTodos(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, mentorService::listarTodos,
+                () -> mentorService.listarPaginados(null, false, pagina, tamanho, ordenacao, total));
     }
     
     /**
@@ -39,13 +56,18 @@ public class MentorController {
      * GET /api/mentores/ativos
      */
     @GetMapping("/ativos")
-    public ResponseEntity<List<MentorDTO>> listarAtivos() {
-        try {
-            List<MentorDTO> mentores = mentorService.listarAtivos();
-            return ResponseEntity.ok(mentores);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarAtivos(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, mentorService::listarAtivos,
+                () -> mentorService.listarPaginados(null, true, pagina, tamanho, ordenacao, total));
     }
     
     /**
@@ -53,15 +75,19 @@ public class MentorController {
      * GET /api/mentores/tipo/{tipo}
      */
     @GetMapping("/tipo/{tipo}")
-    public ResponseEntity<List<MentorDTO>> listarPorTipo(@PathVariable String tipo) {
-        try {
-            List<MentorDTO> mentores = mentorService.listarPorTipo(tipo);
-            return ResponseEntity.ok(mentores);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarPorTipo(
+            @PathVariable String tipo,
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, () -> mentorService.listarPorTipo(tipo),
+                () -> mentorService.listarPaginados(tipo, true, pagina, tamanho, ordenacao, total));
     }
     
     /**
@@ -69,7 +95,10 @@ public class MentorController {
      * GET /api/mentores/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<MentorDTO> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<MentorDTO> buscarPorId(@PathVariable Long id, WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
+        }
         try {
             MentorDTO mentor = mentorService.buscarPorId(id);
             return ResponseEntity.ok(mentor);
@@ -187,5 +216,27 @@ public class MentorController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
+    
+    /**
+     * Responde com uma página ou, quando solicitado explicitamente com todos=true, com a lista completa
+     */
+    private ResponseEntity<?> listar(boolean todos,
+                                     Supplier<List<MentorDTO>> listaCompleta,
+                                     Supplier<PaginaDTO<MentorDTO>> pagina) {
+        try {
+            return ResponseEntity.ok(todos ? listaCompleta.get() : pagina.get());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 
+    /**
+     * Verifica If-None-Match contra a versão atual dos mentores, sem consultar o banco; quando a
+     * versão mudou, a ETag atual segue na resposta
+     */
+    private boolean naoModificado(WebRequest requisicao) {
+        return requisicao.checkNotModified(versoes.etag(VersoesAgregados.Agregado.MENTORES));
+    }
+}
@@ -1,21 +1,30 @@
 package com.controlepresenca.controller;
 
+import com.controlepresenca.dto.PaginaCursorDTO;
 import com.controlepresenca.dto.PresencaDTO;
+import com.controlepresenca.service.ListagemJsonStreaming;
 import com.controlepresenca.service.PresencaService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Controller REST para gerenciar Presenças
  * 
+ * As listagens são paginadas por cursor, da presença mais recente para a mais antiga:
+ * aceitam "cursor" (token opaco devolvido em proximoCursor) e "tamanho" (limitado ao máximo
+ * configurado). A lista completa só é devolvida com o parâmetro explícito todos=true
+ * 
  * Endpoints:
  * GET /presencas - Lista todas as presenças
  * GET /presencas/{id} - Busca presença por ID
@@ -34,87 +43,94 @@ public class PresencaController {
     @Autowired
     private PresencaService presencaService;
 
+    @Autowired
+    private ListagemJsonStreaming listagemJsonStreaming;
+
     /**
      * Lista todas as presenças
      */
     @GetMapping
-    public ResponseEntity<List<PresencaDTO>> listarPresencas() {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarTodasPresencas();
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<?> listarPresencas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, presencaService::listarTodasPresencas,
+                () -> presencaService.listarPresencasPaginadas(null, null, null, null, cursor, tamanho));
     }
 
     /**
      * Lista presenças por turma
      */
     @GetMapping("/turma/{turmaId}")
-    public ResponseEntity<List<PresencaDTO>> listarPresencasPorTurma(@PathVariable Long turmaId) {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarPresencasPorTurma(turmaId);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<?> listarPresencasPorTurma(
+            @PathVariable Long turmaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, () -> presencaService.listarPresencasPorTurma(turmaId),
+                () -> presencaService.listarPresencasPaginadas(turmaId, null, null, null, cursor, tamanho));
     }
 
     /**
      * Lista presenças por aluno
      */
     @GetMapping("/aluno/{alunoId}")
-    public ResponseEntity<List<PresencaDTO>> listarPresencasPorAluno(@PathVariable Long alunoId) {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarPresencasPorAluno(alunoId);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<?> listarPresencasPorAluno(
+            @PathVariable Long alunoId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, () -> presencaService.listarPresencasPorAluno(alunoId),
+                () -> presencaService.listarPresencasPaginadas(null, alunoId, null, null, cursor, tamanho));
     }
 
     /**
      * Lista presenças por data
      */
     @GetMapping("/data/{data}")
-    public ResponseEntity<List<PresencaDTO>> listarPresencasPorData(
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarPresencasPorData(data);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<?> listarPresencasPorData(
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, () -> presencaService.listarPresencasPorData(data),
+                () -> presencaService.listarPresencasPaginadas(null, null, data, data, cursor, tamanho));
     }
 
     /**
      * Lista presenças por turma e data
      */
     @GetMapping("/turma/{turmaId}/data/{data}")
-    public ResponseEntity<List<PresencaDTO>> listarPresencasPorTurmaEData(
+    public ResponseEntity<?> listarPresencasPorTurmaEData(
             @PathVariable Long turmaId,
-            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarPresencasPorTurmaEData(turmaId, data);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, () -> presencaService.listarPresencasPorTurmaEData(turmaId, data),
+                () -> presencaService.listarPresencasPaginadas(turmaId, null, data, data, cursor, tamanho));
     }
 
     /**
      * Lista presenças por período
+     * 
+     * Com stream=true, a lista completa é escrita item a item enquanto é lida do banco
      */
     @GetMapping("/periodo")
-    public ResponseEntity<List<PresencaDTO>> listarPresencasPorPeriodo(
+    public ResponseEntity<?> listarPresencasPorPeriodo(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        try {
-            List<PresencaDTO> presencas = presencaService.listarPresencasPorPeriodo(dataInicio, dataFim);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos,
+            @RequestParam(defaultValue = "false") boolean stream) {
+        if (stream) {
+            StreamingResponseBody body = saida -> listagemJsonStreaming.escrever(
+                    () -> presencaService.streamPresencasPorPeriodo(dataInicio, dataFim), saida);
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
         }
+        return listar(todos, () -> presencaService.listarPresencasPorPeriodo(dataInicio, dataFim),
+                () -> presencaService.listarPresencasPaginadas(null, null, dataInicio, dataFim, cursor, tamanho));
     }
 
     /**
@@ -203,16 +219,15 @@ public class PresencaController {
      * Gera relatório de presenças
      */
     @GetMapping("/relatorio")
-    public ResponseEntity<List<PresencaDTO>> gerarRelatorio(
+    public ResponseEntity<?> gerarRelatorio(
             @RequestParam(required = false) Long turmaId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        try {
-            List<PresencaDTO> presencas = presencaService.gerarRelatorio(turmaId, dataInicio, dataFim);
-            return ResponseEntity.ok(presencas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(defaultValue = "false") boolean todos) {
+        return listar(todos, () -> presencaService.gerarRelatorio(turmaId, dataInicio, dataFim),
+                () -> presencaService.listarPresencasPaginadas(turmaId, null, dataInicio, dataFim, cursor, tamanho));
     }
 
     /**
@@ -240,5 +255,19 @@ public class PresencaController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
 
+    /**
+     * Responde com uma página por cursor ou, quando solicitado explicitamente com todos=true, com a lista completa
+     */
+    private ResponseEntity<?> listar(boolean todos,
+                                     Supplier<List<PresencaDTO>> listaCompleta,
+                                     Supplier<PaginaCursorDTO<PresencaDTO>> pagina) {
+        try {
+            return ResponseEntity.ok(todos ? listaCompleta.get() : pagina.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
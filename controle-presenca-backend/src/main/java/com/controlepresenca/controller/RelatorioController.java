@@ -1,28 +1,37 @@
 package com.controlepresenca.controller;
 
+import com.controlepresenca.service.RelatorioPacoteService;
 import com.controlepresenca.service.RelatorioService;
+import com.controlepresenca.service.RelatorioService.FormatoRelatorio;
+import com.controlepresenca.service.RelatorioService.TipoRelatorio;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Controller REST para geração de relatórios
- * 
- * Endpoints para exportar dados em formato CSV e Excel:
+ *
+ * Os arquivos são gerados enquanto são enviados ao cliente, sem montar o conteúdo em memória;
+ * relatórios repetidos com os mesmos parâmetros são servidos do cache de relatórios
+ *
+ * Endpoints para exportar dados em formato CSV, Excel e Parquet:
  * GET /relatorios/presencas/csv - Exporta presenças em CSV
  * GET /relatorios/presencas/excel - Exporta presenças em Excel
+ * GET /relatorios/presencas/parquet - Exporta presenças em Parquet
+ * GET /relatorios/chamadas/parquet - Exporta os registros de chamadas (aluno a aluno) em Parquet
+ * GET /relatorios/participacoes-mentores/parquet - Exporta as participações de mentores em Parquet
  * GET /relatorios/alunos/csv - Exporta alunos em CSV
  * GET /relatorios/alunos/excel - Exporta alunos em Excel
  * GET /relatorios/turmas/csv - Exporta turmas em CSV
  * GET /relatorios/turmas/excel - Exporta turmas em Excel
+ * GET /relatorios/pacote - Exporta todos os relatórios (CSV e Excel) em um único ZIP
  */
 @RestController
 @RequestMapping("/relatorios")
@@ -32,184 +41,162 @@ public class RelatorioController {
     @Autowired
     private RelatorioService relatorioService;
 
+    @Autowired
+    private RelatorioPacoteService relatorioPacoteService;
+
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     /**
      * Exporta relatório de presenças em formato CSV
      */
     @GetMapping("/presencas/csv")
-    public ResponseEntity<?> exportarPresencasCSV(
+    public ResponseEntity<StreamingResponseBody> exportarPresencasCSV(
             @RequestParam(required = false) Long turmaId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        try {
-            String csvContent = relatorioService.gerarRelatorioPresencasCSV(turmaId, dataInicio, dataFim);
-            
-            String filename = "relatorio-presencas";
-            if (dataInicio != null && dataFim != null) {
-                filename += "_" + dataInicio.format(dateFormatter) + "_" + dataFim.format(dateFormatter);
-            }
-            filename += ".csv";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório CSV: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
-        }
+        return exportar(TipoRelatorio.PRESENCAS, FormatoRelatorio.CSV, turmaId, dataInicio, dataFim,
+                nomePeriodo(TipoRelatorio.PRESENCAS, dataInicio, dataFim));
     }
 
     /**
      * Exporta relatório de presenças em formato Excel
      */
     @GetMapping("/presencas/excel")
-    public ResponseEntity<?> exportarPresencasExcel(
+    public ResponseEntity<StreamingResponseBody> exportarPresencasExcel(
             @RequestParam(required = false) Long turmaId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
-        try {
-            byte[] excelContent = relatorioService.gerarRelatorioPresencasExcel(turmaId, dataInicio, dataFim);
-            
-            String filename = "relatorio-presencas";
-            if (dataInicio != null && dataFim != null) {
-                filename += "_" + dataInicio.format(dateFormatter) + "_" + dataFim.format(dateFormatter);
-            }
-            filename += ".xlsx";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório Excel: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
-        }
+        return exportar(TipoRelatorio.PRESENCAS, FormatoRelatorio.EXCEL, turmaId, dataInicio, dataFim,
+                nomePeriodo(TipoRelatorio.PRESENCAS, dataInicio, dataFim));
+    }
+
+    /**
+     * Exporta relatório de presenças em formato Parquet, para ferramentas de análise
+     */
+    @GetMapping("/presencas/parquet")
+    public ResponseEntity<StreamingResponseBody> exportarPresencasParquet(
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(TipoRelatorio.PRESENCAS, FormatoRelatorio.PARQUET, turmaId, dataInicio, dataFim,
+                nomePeriodo(TipoRelatorio.PRESENCAS, dataInicio, dataFim));
+    }
+
+    /**
+     * Exporta os registros de chamadas, um por aluno em cada chamada, em formato Parquet
+     */
+    @GetMapping("/chamadas/parquet")
+    public ResponseEntity<StreamingResponseBody> exportarChamadasParquet(
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(TipoRelatorio.CHAMADAS, FormatoRelatorio.PARQUET, turmaId, dataInicio, dataFim,
+                nomePeriodo(TipoRelatorio.CHAMADAS, dataInicio, dataFim));
+    }
+
+    /**
+     * Exporta as participações de mentores nas chamadas em formato Parquet
+     */
+    @GetMapping("/participacoes-mentores/parquet")
+    public ResponseEntity<StreamingResponseBody> exportarParticipacoesMentoresParquet(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        return exportar(TipoRelatorio.PARTICIPACOES_MENTORES, FormatoRelatorio.PARQUET, null, dataInicio, dataFim,
+                nomePeriodo(TipoRelatorio.PARTICIPACOES_MENTORES, dataInicio, dataFim));
     }
 
     /**
      * Exporta relatório de alunos em formato CSV
      */
     @GetMapping("/alunos/csv")
-    public ResponseEntity<?> exportarAlunosCSV(@RequestParam(required = false) Long turmaId) {
-        try {
-            String csvContent = relatorioService.gerarRelatorioAlunosCSV(turmaId);
-            
-            String filename = "relatorio-alunos";
-            if (turmaId != null) {
-                filename += "_turma-" + turmaId;
-            }
-            filename += ".csv";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório CSV: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
-        }
+    public ResponseEntity<StreamingResponseBody> exportarAlunosCSV(@RequestParam(required = false) Long turmaId) {
+        return exportar(TipoRelatorio.ALUNOS, FormatoRelatorio.CSV, turmaId, null, null, nomeAlunos(turmaId));
     }
 
     /**
      * Exporta relatório de alunos em formato Excel
      */
     @GetMapping("/alunos/excel")
-    public ResponseEntity<?> exportarAlunosExcel(@RequestParam(required = false) Long turmaId) {
-        try {
-            byte[] excelContent = relatorioService.gerarRelatorioAlunosExcel(turmaId);
-            
-            String filename = "relatorio-alunos";
-            if (turmaId != null) {
-                filename += "_turma-" + turmaId;
-            }
-            filename += ".xlsx";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório Excel: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
-        }
+    public ResponseEntity<StreamingResponseBody> exportarAlunosExcel(@RequestParam(required = false) Long turmaId) {
+        return exportar(TipoRelatorio.ALUNOS, FormatoRelatorio.EXCEL, turmaId, null, null, nomeAlunos(turmaId));
     }
 
     /**
      * Exporta relatório de turmas em formato CSV
      */
     @GetMapping("/turmas/csv")
-    public ResponseEntity<?> exportarTurmasCSV() {
-        try {
-            String csvContent = relatorioService.gerarRelatorioTurmasCSV();
-            
-            String filename = "relatorio-turmas.csv";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório CSV: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
-        }
+    public ResponseEntity<StreamingResponseBody> exportarTurmasCSV() {
+        return exportar(TipoRelatorio.TURMAS, FormatoRelatorio.CSV, null, null, null, "relatorio-turmas");
     }
 
     /**
      * Exporta relatório de turmas em formato Excel
      */
     @GetMapping("/turmas/excel")
-    public ResponseEntity<?> exportarTurmasExcel() {
-        try {
-            byte[] excelContent = relatorioService.gerarRelatorioTurmasExcel();
-            
-            String filename = "relatorio-turmas.xlsx";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
-            headers.setContentDispositionFormData("attachment", filename);
-
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(excelContent);
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro ao gerar relatório Excel: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Erro interno do servidor");
+    public ResponseEntity<StreamingResponseBody> exportarTurmasExcel() {
+        return exportar(TipoRelatorio.TURMAS, FormatoRelatorio.EXCEL, null, null, null, "relatorio-turmas");
+    }
+
+    /**
+     * Exporta turmas, alunos, presenças, chamadas e chamadas de mentores, em CSV e Excel, em um
+     * único arquivo ZIP
+     * 
+     * Os relatórios são gerados em paralelo e cada arquivo entra no ZIP assim que fica pronto;
+     * turma e período filtram os relatórios que os utilizam
+     */
+    @GetMapping("/pacote")
+    public ResponseEntity<StreamingResponseBody> exportarPacote(
+            @RequestParam(required = false) Long turmaId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim) {
+        if (dataInicio != null && dataFim != null && dataInicio.isAfter(dataFim)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String nomeArquivo = "relatorios";
+        if (dataInicio != null && dataFim != null) {
+            nomeArquivo += "_" + dataInicio.format(dateFormatter) + "_" + dataFim.format(dateFormatter);
         }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", nomeArquivo + ".zip");
+
+        StreamingResponseBody body = saida ->
+                relatorioPacoteService.escreverPacote(turmaId, dataInicio, dataFim, saida);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
+    /**
+     * Monta a resposta de download, com o relatório escrito diretamente no corpo
+     */
+    private ResponseEntity<StreamingResponseBody> exportar(TipoRelatorio tipo, FormatoRelatorio formato, Long turmaId,
+                                                           LocalDate dataInicio, LocalDate dataFim, String nomeArquivo) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(formato.getContentType()));
+        headers.setContentDispositionFormData("attachment", nomeArquivo + "." + formato.getExtensao());
+
+        StreamingResponseBody body = saida ->
+                relatorioService.escreverRelatorio(tipo, formato, turmaId, dataInicio, dataFim, saida);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
     }
-}
 
+    private String nomePeriodo(TipoRelatorio tipo, LocalDate dataInicio, LocalDate dataFim) {
+        String filename = tipo.getPrefixoArquivo();
+        if (dataInicio != null && dataFim != null) {
+            filename += "_" + dataInicio.format(dateFormatter) + "_" + dataFim.format(dateFormatter);
+        }
+        return filename;
+    }
+
+    private String nomeAlunos(Long turmaId) {
+        String filename = "relatorio-alunos";
+        if (turmaId != null) {
+            filename += "_turma-" + turmaId;
+        }
+        return filename;
+    }
+}
@@ -0,0 +1,97 @@
+package com.controlepresenca.controller;
+
+import com.controlepresenca.dto.RelatorioJobDTO;
+import com.controlepresenca.dto.SolicitacaoRelatorioDTO;
+import com.controlepresenca.service.RelatorioJobService;
+import com.controlepresenca.service.RelatorioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Controller REST para geração assíncrona de relatórios
+ * 
+ * Endpoints:
+ * POST /relatorios/jobs - Solicita a geração de um relatório e retorna o job (202)
+ * GET /relatorios/jobs/{id} - Consulta a situação do job
+ * GET /relatorios/jobs/{id}/arquivo - Baixa o arquivo gerado (aceita o cabeçalho Range)
+ */
+@RestController
+@RequestMapping("/relatorios/jobs")
+@CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+public class RelatorioJobController {
+
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
+    /**
+     * Solicita a geração de um relatório
+     */
+    @PostMapping
+    public ResponseEntity<?> solicitar(@RequestBody SolicitacaoRelatorioDTO solicitacao) {
+        try {
+            RelatorioJobDTO job = relatorioJobService.solicitar(solicitacao);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/relatorios/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Erro interno do servidor");
+        }
+    }
+
+    /**
+     * Consulta a situação de um job
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<RelatorioJobDTO> buscar(@PathVariable String id) {
+        return relatorioJobService.buscar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Baixa o arquivo de um job concluído
+     * 
+     * Requisições com cabeçalho Range recebem 206 com o trecho solicitado, permitindo
+     * retomar downloads interrompidos
+     */
+    @GetMapping("/{id}/arquivo")
+    public ResponseEntity<?> baixar(@PathVariable String id) {
+        Optional<RelatorioJobDTO> job = relatorioJobService.buscar(id);
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        Optional<Path> arquivo = relatorioJobService.buscarArquivo(id);
+        if (arquivo.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Relatório ainda não disponível. Situação: " + job.get().getStatus());
+        }
+
+        RelatorioService.FormatoRelatorio formato = RelatorioService.FormatoRelatorio.valueOf(job.get().getFormato());
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(formato.getContentType()));
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(job.get().getNomeArquivo(), StandardCharsets.UTF_8)
+                .build());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(arquivo.get()));
+    }
+}
@@ -1,19 +1,30 @@
 package com.controlepresenca.controller;
 
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.dto.TurmaDTO;
 import com.controlepresenca.service.TurmaService;
+import com.controlepresenca.service.VersoesAgregados;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Controller REST para gerenciar Turmas
  * 
+ * As listagens são paginadas: aceitam "pagina" (a partir de 0), "tamanho" (limitado ao máximo
+ * configurado), "ordenacao" (nome, codigo, dataCriacao, totalAlunos ou totalPresencas, com ",desc"
+ * opcional) e "total=false" para dispensar a contagem. A lista completa só é devolvida com todos=true
+ * 
+ * Listagens e busca por ID devolvem ETag com a versão das turmas; If-None-Match com a ETag
+ * atual é respondido com 304
+ * 
  * Endpoints:
  * GET /turmas - Lista todas as turmas ativas
  * GET /turmas/{id} - Busca turma por ID
@@ -30,37 +41,53 @@ public class TurmaController {
     @Autowired
     private TurmaService turmaService;
 
+    @Autowired
+    private VersoesAgregados versoes;
+
     /**
      * Lista todas as turmas ativas
      */
     @GetMapping
-    public ResponseEntity<List<TurmaDTO>> listarTurmas() {
-        try {
-            List<TurmaDTO> turmas = turmaService.listarTurmasAtivas();
-            return ResponseEntity.ok(turmas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarTurmas(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, turmaService::listarTurmasAtivas,
+                () -> turmaService.listarTurmasPaginadas(true, pagina, tamanho, ordenacao, total));
     }
 
     /**
      * Lista todas as turmas (incluindo inativas)
      */
     @GetMapping("/todas")
-    public ResponseEntity<List<TurmaDTO>> listarTodasTurmas() {
-        try {
-            List<TurmaDTO> turmas = turmaService.listarTodasTurmas();
-            return ResponseEntity.ok(turmas);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public ResponseEntity<?> listarTodasTurmas(
+            @RequestParam(required = false) Integer pagina,
+            @RequestParam(required = false) Integer tamanho,
+            @RequestParam(required = false) String ordenacao,
+            @RequestParam(defaultValue = "true") boolean total,
+            @RequestParam(defaultValue = "false") boolean todos,
+            WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
         }
+        return listar(todos, turmaService::listarTodasTurmas,
+                () -> turmaService.listarTurmasPaginadas(false, pagina, tamanho, ordenacao, total));
     }
 
     /**
      * Busca turma por ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<TurmaDTO> buscarTurmaPorId(@PathVariable Long id) {
+    public ResponseEntity<TurmaDTO> buscarTurmaPorId(@PathVariable Long id, WebRequest requisicao) {
+        if (naoModificado(requisicao)) {
+            return null;
+        }
         try {
             Optional<TurmaDTO> turma = turmaService.buscarPorId(id);
             return turma.map(ResponseEntity::ok)
@@ -161,5 +188,27 @@ public class TurmaController {
                                 .body("Erro interno do servidor");
         }
     }
-}
 
+    /**
+     * Responde com uma página ou, quando solicitado explicitamente com todos=true, com a lista completa
+     */
+    private ResponseEntity<?> listar(boolean todos,
+                                     Supplier<List<TurmaDTO>> listaCompleta,
+                                     Supplier<PaginaDTO<TurmaDTO>> pagina) {
+        try {
+            return ResponseEntity.ok(todos ? listaCompleta.get() : pagina.get());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Verifica If-None-Match contra a versão atual das turmas, sem consultar o banco; quando a
+     * versão mudou, a ETag atual segue na resposta
+     */
+    private boolean naoModificado(WebRequest requisicao) {
+        return requisicao.checkNotModified(versoes.etag(VersoesAgregados.Agregado.TURMAS));
+    }
+}
@@ -0,0 +1,132 @@
+package com.controlepresenca.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO de um registro de ChamadaAluno na exportação NDJSON, já com os dados da chamada,
+ * da turma e do aluno
+ */
+public class ChamadaAlunoExportacaoDTO {
+
+    private Long id;
+    private Long chamadaId;
+    private LocalDate dataChamada;
+    private Long turmaId;
+    private String turmaNome;
+    private String turmaCodigo;
+    private Long alunoId;
+    private String alunoNome;
+    private String alunoMatricula;
+    private Boolean presente;
+    private LocalDateTime dataRegistro;
+
+    // Construtor padrão
+    public ChamadaAlunoExportacaoDTO() {}
+
+    // Construtor usado pela consulta de exportação
+    public ChamadaAlunoExportacaoDTO(Long id, Long chamadaId, LocalDate dataChamada, Long turmaId,
+                                     String turmaNome, String turmaCodigo, Long alunoId, String alunoNome,
+                                     String alunoMatricula, Boolean presente, LocalDateTime dataRegistro) {
+        this.id = id;
+        this.chamadaId = chamadaId;
+        this.dataChamada = dataChamada;
+        this.turmaId = turmaId;
+        this.turmaNome = turmaNome;
+        this.turmaCodigo = turmaCodigo;
+        this.alunoId = alunoId;
+        this.alunoNome = alunoNome;
+        this.alunoMatricula = alunoMatricula;
+        this.presente = presente;
+        this.dataRegistro = dataRegistro;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChamadaId() {
+        return chamadaId;
+    }
+
+    public void setChamadaId(Long chamadaId) {
+        this.chamadaId = chamadaId;
+    }
+
+    public LocalDate getDataChamada() {
+        return dataChamada;
+    }
+
+    public void setDataChamada(LocalDate dataChamada) {
+        this.dataChamada = dataChamada;
+    }
+
+    public Long getTurmaId() {
+        return turmaId;
+    }
+
+    public void setTurmaId(Long turmaId) {
+        this.turmaId = turmaId;
+    }
+
+    public String getTurmaNome() {
+        return turmaNome;
+    }
+
+    public void setTurmaNome(String turmaNome) {
+        this.turmaNome = turmaNome;
+    }
+
+    public String getTurmaCodigo() {
+        return turmaCodigo;
+    }
+
+    public void setTurmaCodigo(String turmaCodigo) {
+        this.turmaCodigo = turmaCodigo;
+    }
+
+    public Long getAlunoId() {
+        return alunoId;
+    }
+
+    public void setAlunoId(Long alunoId) {
+        this.alunoId = alunoId;
+    }
+
+    public String getAlunoNome() {
+        return alunoNome;
+    }
+
+    public void setAlunoNome(String alunoNome) {
+        this.alunoNome = alunoNome;
+    }
+
+    public String getAlunoMatricula() {
+        return alunoMatricula;
+    }
+
+    public void setAlunoMatricula(String alunoMatricula) {
+        this.alunoMatricula = alunoMatricula;
+    }
+
+    public Boolean getPresente() {
+        return presente;
+    }
+
+    public void setPresente(Boolean presente) {
+        this.presente = presente;
+    }
+
+    public LocalDateTime getDataRegistro() {
+        return dataRegistro;
+    }
+
+    public void setDataRegistro(LocalDateTime dataRegistro) {
+        this.dataRegistro = dataRegistro;
+    }
+}
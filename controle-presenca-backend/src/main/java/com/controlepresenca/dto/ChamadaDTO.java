@@ -36,6 +36,16 @@ public class ChamadaDTO {
         this.dataCriacao = dataCriacao;
     }
     
+    // Construtor para consultas de resumo (totais agregados, sem lista de alunos)
+    public ChamadaDTO(Long id, Long turmaId, String turmaNome, String turmaCodigo, 
+                      LocalDate dataChamada, String observacoes, LocalDateTime dataCriacao,
+                      Integer totalPresentes, Integer totalFaltas) {
+        this(id, turmaId, turmaNome, turmaCodigo, dataChamada, observacoes, dataCriacao);
+        this.totalPresentes = totalPresentes;
+        this.totalFaltas = totalFaltas;
+        this.totalAlunos = this.totalPresentes + this.totalFaltas;
+    }
+    
     // Getters e Setters
     public Long getId() {
         return id;
@@ -30,6 +30,15 @@ public class ChamadaMentorDTO {
         this.dataCriacao = dataCriacao;
     }
     
+    // Construtor para consultas de resumo (totais agregados, sem lista de participantes)
+    public ChamadaMentorDTO(Long id, LocalDate dataChamada, String observacoes, LocalDateTime dataCriacao,
+                            Integer totalPresentes, Integer totalAusentes) {
+        this(id, dataChamada, observacoes, dataCriacao);
+        this.totalPresentes = totalPresentes;
+        this.totalAusentes = totalAusentes;
+        this.totalMentores = totalPresentes + totalAusentes;
+    }
+    
     // Construtor a partir da entidade
     public ChamadaMentorDTO(ChamadaMentor chamadaMentor) {
         this.id = chamadaMentor.getId();
@@ -0,0 +1,83 @@
+package com.controlepresenca.dto;
+
+import com.controlepresenca.service.ChamadaMentorService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * DTO com os números exibidos no dashboard
+ *
+ * Totais de turmas ativas, alunos ativos e presenças, presenças do dia, contadores por turma
+ * ativa para os gráficos e estatísticas das chamadas de mentores
+ */
+public class DashboardResumoDTO {
+
+    private LocalDate data;
+    private long totalTurmas;
+    private long totalAlunos;
+    private long totalPresencas;
+    private long presencasHoje;
+    private List<GraficoTurmaDTO> turmas;
+    private ChamadaMentorService.ChamadaMentorEstatisticasDTO chamadasMentores;
+
+    // Construtor padrão
+    public DashboardResumoDTO() {}
+
+    // Getters e Setters
+    public LocalDate getData() {
+        return data;
+    }
+
+    public void setData(LocalDate data) {
+        this.data = data;
+    }
+
+    public long getTotalTurmas() {
+        return totalTurmas;
+    }
+
+    public void setTotalTurmas(long totalTurmas) {
+        this.totalTurmas = totalTurmas;
+    }
+
+    public long getTotalAlunos() {
+        return totalAlunos;
+    }
+
+    public void setTotalAlunos(long totalAlunos) {
+        this.totalAlunos = totalAlunos;
+    }
+
+    public long getTotalPresencas() {
+        return totalPresencas;
+    }
+
+    public void setTotalPresencas(long totalPresencas) {
+        this.totalPresencas = totalPresencas;
+    }
+
+    public long getPresencasHoje() {
+        return presencasHoje;
+    }
+
+    public void setPresencasHoje(long presencasHoje) {
+        this.presencasHoje = presencasHoje;
+    }
+
+    public List<GraficoTurmaDTO> getTurmas() {
+        return turmas;
+    }
+
+    public void setTurmas(List<GraficoTurmaDTO> turmas) {
+        this.turmas = turmas;
+    }
+
+    public ChamadaMentorService.ChamadaMentorEstatisticasDTO getChamadasMentores() {
+        return chamadasMentores;
+    }
+
+    public void setChamadasMentores(ChamadaMentorService.ChamadaMentorEstatisticasDTO chamadasMentores) {
+        this.chamadasMentores = chamadasMentores;
+    }
+}
@@ -0,0 +1,90 @@
+package com.controlepresenca.dto;
+
+/**
+ * DTO com os acertos, falhas e a ocupação de uma região de cache
+ */
+public class EstatisticasCacheDTO {
+
+    private String regiao;
+    private long entradas;
+    private long acertos;
+    private long falhas;
+    private long expiradas;
+    private long gravacoes;
+
+    // Construtor padrão
+    public EstatisticasCacheDTO() {}
+
+    // Construtor com parâmetros
+    public EstatisticasCacheDTO(String regiao, long entradas, long acertos, long falhas, long expiradas) {
+        this.regiao = regiao;
+        this.entradas = entradas;
+        this.acertos = acertos;
+        this.falhas = falhas;
+        this.expiradas = expiradas;
+    }
+
+    // Construtor com parâmetros, incluindo as gravações no cache
+    public EstatisticasCacheDTO(String regiao, long entradas, long acertos, long falhas, long expiradas,
+                                long gravacoes) {
+        this(regiao, entradas, acertos, falhas, expiradas);
+        this.gravacoes = gravacoes;
+    }
+
+    /**
+     * Fração das buscas atendidas pelo cache (0 quando ainda não houve buscas)
+     */
+    public double getTaxaAcerto() {
+        long buscas = acertos + falhas;
+        return buscas == 0 ? 0 : (double) acertos / buscas;
+    }
+
+    // Getters e Setters
+    public String getRegiao() {
+        return regiao;
+    }
+
+    public void setRegiao(String regiao) {
+        this.regiao = regiao;
+    }
+
+    public long getEntradas() {
+        return entradas;
+    }
+
+    public void setEntradas(long entradas) {
+        this.entradas = entradas;
+    }
+
+    public long getAcertos() {
+        return acertos;
+    }
+
+    public void setAcertos(long acertos) {
+        this.acertos = acertos;
+    }
+
+    public long getFalhas() {
+        return falhas;
+    }
+
+    public void setFalhas(long falhas) {
+        this.falhas = falhas;
+    }
+
+    public long getExpiradas() {
+        return expiradas;
+    }
+
+    public void setExpiradas(long expiradas) {
+        this.expiradas = expiradas;
+    }
+
+    public long getGravacoes() {
+        return gravacoes;
+    }
+
+    public void setGravacoes(long gravacoes) {
+        this.gravacoes = gravacoes;
+    }
+}
@@ -0,0 +1,66 @@
+package com.controlepresenca.dto;
+
+/**
+ * DTO com os contadores de uma turma usados nos gráficos do dashboard
+ */
+public class GraficoTurmaDTO {
+
+    private Long id;
+    private String nome;
+    private Boolean ativa;
+    private Integer totalAlunos;
+    private Integer totalPresencas;
+
+    // Construtor padrão
+    public GraficoTurmaDTO() {}
+
+    // Construtor usado pela consulta do resumo
+    public GraficoTurmaDTO(Long id, String nome, Boolean ativa, Integer totalAlunos, Integer totalPresencas) {
+        this.id = id;
+        this.nome = nome;
+        this.ativa = ativa;
+        this.totalAlunos = totalAlunos;
+        this.totalPresencas = totalPresencas;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public void setNome(String nome) {
+        this.nome = nome;
+    }
+
+    public Boolean getAtiva() {
+        return ativa;
+    }
+
+    public void setAtiva(Boolean ativa) {
+        this.ativa = ativa;
+    }
+
+    public Integer getTotalAlunos() {
+        return totalAlunos;
+    }
+
+    public void setTotalAlunos(Integer totalAlunos) {
+        this.totalAlunos = totalAlunos;
+    }
+
+    public Integer getTotalPresencas() {
+        return totalPresencas;
+    }
+
+    public void setTotalPresencas(Integer totalPresencas) {
+        this.totalPresencas = totalPresencas;
+    }
+}
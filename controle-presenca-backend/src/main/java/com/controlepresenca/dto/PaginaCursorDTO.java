@@ -0,0 +1,71 @@
+package com.controlepresenca.dto;
+
+import java.util.List;
+
+/**
+ * DTO para uma página de resultados paginados por cursor
+ *
+ * O campo proximoCursor é opaco para o cliente e deve ser reenviado no parâmetro "cursor"
+ * para obter a página seguinte; fica nulo na última página
+ */
+public class PaginaCursorDTO<T> {
+
+    private List<T> itens;
+    private String proximoCursor;
+    private Integer tamanho;
+    private Boolean temMais;
+
+    // Construtor padrão
+    public PaginaCursorDTO() {}
+
+    // Construtor com parâmetros
+    public PaginaCursorDTO(List<T> itens, String proximoCursor, Integer tamanho) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+        this.tamanho = tamanho;
+        this.temMais = proximoCursor != null;
+    }
+
+    // Getters e Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    public Integer getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(Integer tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public Boolean getTemMais() {
+        return temMais;
+    }
+
+    public void setTemMais(Boolean temMais) {
+        this.temMais = temMais;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaCursorDTO{" +
+                "itens=" + (itens != null ? itens.size() : 0) +
+                ", proximoCursor='" + proximoCursor + '\'' +
+                ", tamanho=" + tamanho +
+                ", temMais=" + temMais +
+                '}';
+    }
+}
@@ -0,0 +1,95 @@
+package com.controlepresenca.dto;
+
+import java.util.List;
+
+/**
+ * DTO para uma página de resultados paginados por número de página
+ *
+ * Os campos totalItens e totalPaginas só são preenchidos quando a contagem é solicitada;
+ * sem ela, temMais indica se existe uma página seguinte
+ */
+public class PaginaDTO<T> {
+
+    private List<T> itens;
+    private Integer pagina;
+    private Integer tamanho;
+    private Boolean temMais;
+    private Long totalItens;
+    private Integer totalPaginas;
+
+    // Construtor padrão
+    public PaginaDTO() {}
+
+    // Construtor com parâmetros
+    public PaginaDTO(List<T> itens, Integer pagina, Integer tamanho, Boolean temMais, Long totalItens) {
+        this.itens = itens;
+        this.pagina = pagina;
+        this.tamanho = tamanho;
+        this.temMais = temMais;
+        this.totalItens = totalItens;
+        if (totalItens != null && tamanho != null && tamanho > 0) {
+            this.totalPaginas = (int) ((totalItens + tamanho - 1) / tamanho);
+        }
+    }
+
+    // Getters e Setters
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public Integer getPagina() {
+        return pagina;
+    }
+
+    public void setPagina(Integer pagina) {
+        this.pagina = pagina;
+    }
+
+    public Integer getTamanho() {
+        return tamanho;
+    }
+
+    public void setTamanho(Integer tamanho) {
+        this.tamanho = tamanho;
+    }
+
+    public Boolean getTemMais() {
+        return temMais;
+    }
+
+    public void setTemMais(Boolean temMais) {
+        this.temMais = temMais;
+    }
+
+    public Long getTotalItens() {
+        return totalItens;
+    }
+
+    public void setTotalItens(Long totalItens) {
+        this.totalItens = totalItens;
+    }
+
+    public Integer getTotalPaginas() {
+        return totalPaginas;
+    }
+
+    public void setTotalPaginas(Integer totalPaginas) {
+        this.totalPaginas = totalPaginas;
+    }
+
+    @Override
+    public String toString() {
+        return "PaginaDTO{" +
+                "itens=" + (itens != null ? itens.size() : 0) +
+                ", pagina=" + pagina +
+                ", tamanho=" + tamanho +
+                ", temMais=" + temMais +
+                ", totalItens=" + totalItens +
+                ", totalPaginas=" + totalPaginas +
+                '}';
+    }
+}
@@ -0,0 +1,91 @@
+package com.controlepresenca.dto;
+
+import com.controlepresenca.entity.Mentor;
+import java.time.LocalDate;
+
+/**
+ * DTO de uma participação de mentor na exportação de relatórios, já com os dados da chamada
+ * e do mentor
+ */
+public class ParticipacaoMentorExportacaoDTO {
+
+    private Long id;
+    private Long chamadaMentorId;
+    private LocalDate dataChamada;
+    private Long mentorId;
+    private String mentorNome;
+    private String mentorTipo;
+    private Boolean presente;
+
+    // Construtor padrão
+    public ParticipacaoMentorExportacaoDTO() {}
+
+    // Construtor usado pela consulta de exportação
+    public ParticipacaoMentorExportacaoDTO(Long id, Long chamadaMentorId, LocalDate dataChamada, Long mentorId,
+                                           String mentorNome, Mentor.TipoMentor mentorTipo, Boolean presente) {
+        this.id = id;
+        this.chamadaMentorId = chamadaMentorId;
+        this.dataChamada = dataChamada;
+        this.mentorId = mentorId;
+        this.mentorNome = mentorNome;
+        this.mentorTipo = mentorTipo != null ? mentorTipo.name() : null;
+        this.presente = presente;
+    }
+
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getChamadaMentorId() {
+        return chamadaMentorId;
+    }
+
+    public void setChamadaMentorId(Long chamadaMentorId) {
+        this.chamadaMentorId = chamadaMentorId;
+    }
+
+    public LocalDate getDataChamada() {
+        return dataChamada;
+    }
+
+    public void setDataChamada(LocalDate dataChamada) {
+        this.dataChamada = dataChamada;
+    }
+
+    public Long getMentorId() {
+        return mentorId;
+    }
+
+    public void setMentorId(Long mentorId) {
+        this.mentorId = mentorId;
+    }
+
+    public String getMentorNome() {
+        return mentorNome;
+    }
+
+    public void setMentorNome(String mentorNome) {
+        this.mentorNome = mentorNome;
+    }
+
+    public String getMentorTipo() {
+        return mentorTipo;
+    }
+
+    public void setMentorTipo(String mentorTipo) {
+        this.mentorTipo = mentorTipo;
+    }
+
+    public Boolean getPresente() {
+        return presente;
+    }
+
+    public void setPresente(Boolean presente) {
+        this.presente = presente;
+    }
+}
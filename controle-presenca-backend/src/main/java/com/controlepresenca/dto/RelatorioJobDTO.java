@@ -0,0 +1,137 @@
+package com.controlepresenca.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO com a situação de um job de geração de relatório
+ * 
+ * status: PENDENTE, EXECUTANDO, CONCLUIDO ou ERRO. Quando CONCLUIDO, o arquivo pode ser
+ * baixado em /relatorios/jobs/{id}/arquivo
+ */
+public class RelatorioJobDTO {
+    
+    private String id;
+    private String tipo;
+    private String formato;
+    private Long turmaId;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    private String status;
+    private LocalDateTime dataSolicitacao;
+    private LocalDateTime dataConclusao;
+    private String nomeArquivo;
+    private Long tamanhoBytes;
+    private String erro;
+    
+    // Construtor padrão
+    public RelatorioJobDTO() {}
+    
+    // Getters e Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+    
+    public String getFormato() {
+        return formato;
+    }
+    
+    public void setFormato(String formato) {
+        this.formato = formato;
+    }
+    
+    public Long getTurmaId() {
+        return turmaId;
+    }
+    
+    public void setTurmaId(Long turmaId) {
+        this.turmaId = turmaId;
+    }
+    
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+    
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+    
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+    
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public LocalDateTime getDataSolicitacao() {
+        return dataSolicitacao;
+    }
+    
+    public void setDataSolicitacao(LocalDateTime dataSolicitacao) {
+        this.dataSolicitacao = dataSolicitacao;
+    }
+    
+    public LocalDateTime getDataConclusao() {
+        return dataConclusao;
+    }
+    
+    public void setDataConclusao(LocalDateTime dataConclusao) {
+        this.dataConclusao = dataConclusao;
+    }
+    
+    public String getNomeArquivo() {
+        return nomeArquivo;
+    }
+    
+    public void setNomeArquivo(String nomeArquivo) {
+        this.nomeArquivo = nomeArquivo;
+    }
+    
+    public Long getTamanhoBytes() {
+        return tamanhoBytes;
+    }
+    
+    public void setTamanhoBytes(Long tamanhoBytes) {
+        this.tamanhoBytes = tamanhoBytes;
+    }
+    
+    public String getErro() {
+        return erro;
+    }
+    
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+    
+    @Override
+    public String toString() {
+        return "RelatorioJobDTO{" +
+                "id='" + id + '\'' +
+                ", tipo='" + tipo + '\'' +
+                ", formato='" + formato + '\'' +
+                ", status='" + status + '\'' +
+                ", tamanhoBytes=" + tamanhoBytes +
+                '}';
+    }
+}
@@ -0,0 +1,83 @@
+package com.controlepresenca.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO para solicitação de geração assíncrona de relatório
+ * 
+ * tipo: PRESENCAS, ALUNOS, TURMAS, CHAMADAS ou PARTICIPACOES_MENTORES; formato: CSV, EXCEL ou
+ * PARQUET (chamadas e participações de mentores apenas em PARQUET). turmaId e o período são
+ * opcionais e só se aplicam aos tipos que os utilizam
+ */
+public class SolicitacaoRelatorioDTO {
+    
+    private String tipo;
+    private String formato;
+    private Long turmaId;
+    private LocalDate dataInicio;
+    private LocalDate dataFim;
+    
+    // Construtor padrão
+    public SolicitacaoRelatorioDTO() {}
+    
+    // Construtor com parâmetros
+    public SolicitacaoRelatorioDTO(String tipo, String formato, Long turmaId, LocalDate dataInicio, LocalDate dataFim) {
+        this.tipo = tipo;
+        this.formato = formato;
+        this.turmaId = turmaId;
+        this.dataInicio = dataInicio;
+        this.dataFim = dataFim;
+    }
+    
+    // Getters e Setters
+    public String getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+    
+    public String getFormato() {
+        return formato;
+    }
+    
+    public void setFormato(String formato) {
+        this.formato = formato;
+    }
+    
+    public Long getTurmaId() {
+        return turmaId;
+    }
+    
+    public void setTurmaId(Long turmaId) {
+        this.turmaId = turmaId;
+    }
+    
+    public LocalDate getDataInicio() {
+        return dataInicio;
+    }
+    
+    public void setDataInicio(LocalDate dataInicio) {
+        this.dataInicio = dataInicio;
+    }
+    
+    public LocalDate getDataFim() {
+        return dataFim;
+    }
+    
+    public void setDataFim(LocalDate dataFim) {
+        this.dataFim = dataFim;
+    }
+    
+    @Override
+    public String toString() {
+        return "SolicitacaoRelatorioDTO{" +
+                "tipo='" + tipo + '\'' +
+                ", formato='" + formato + '\'' +
+                ", turmaId=" + turmaId +
+                ", dataInicio=" + dataInicio +
+                ", dataFim=" + dataFim +
+                '}';
+    }
+}
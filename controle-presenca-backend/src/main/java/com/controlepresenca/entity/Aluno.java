@@ -1,6 +1,7 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -47,6 +48,11 @@ public class Aluno {
     @Column(nullable = false)
     private Boolean ativo = true;
 
+    // Contador desnormalizado, mantido apenas por atualizações em lote dos repositórios
+    @ColumnDefault("0")
+    @Column(name = "total_presencas", nullable = false, insertable = false, updatable = false)
+    private Integer totalPresencas = 0;
+
     // Relacionamento Many-to-One com Turma
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "turma_id", nullable = false)
@@ -122,6 +128,10 @@ public class Aluno {
         this.ativo = ativo;
     }
 
+    public Integer getTotalPresencas() {
+        return totalPresencas;
+    }
+
     public Turma getTurma() {
         return turma;
     }
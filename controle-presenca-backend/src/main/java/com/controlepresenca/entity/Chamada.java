@@ -1,6 +1,7 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -14,8 +15,10 @@ import java.util.List;
        uniqueConstraints = @UniqueConstraint(columnNames = {"turma_id", "data_chamada"}))
 public class Chamada {
     
+    // Sequência com otimizador pooled: os IDs são reservados em blocos, permitindo inserções em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chamadas_id_seq")
+    @SequenceGenerator(name = "chamadas_id_seq", sequenceName = "chamadas_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +34,15 @@ public class Chamada {
     @Column(name = "data_criacao", nullable = false)
     private LocalDateTime dataCriacao;
     
+    // Contadores desnormalizados, mantidos apenas por atualizações em lote dos repositórios
+    @ColumnDefault("0")
+    @Column(name = "total_presentes", nullable = false, insertable = false, updatable = false)
+    private Integer totalPresentes = 0;
+    
+    @ColumnDefault("0")
+    @Column(name = "total_faltas", nullable = false, insertable = false, updatable = false)
+    private Integer totalFaltas = 0;
+    
     @OneToMany(mappedBy = "chamada", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ChamadaAluno> chamadaAlunos;
     
@@ -88,6 +100,14 @@ public class Chamada {
         this.dataCriacao = dataCriacao;
     }
     
+    public Integer getTotalPresentes() {
+        return totalPresentes;
+    }
+    
+    public Integer getTotalFaltas() {
+        return totalFaltas;
+    }
+    
     public List<ChamadaAluno> getChamadaAlunos() {
         return chamadaAlunos;
     }
@@ -1,6 +1,8 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 import java.time.LocalDateTime;
 
 /**
@@ -11,8 +13,10 @@ import java.time.LocalDateTime;
        uniqueConstraints = @UniqueConstraint(columnNames = {"chamada_id", "aluno_id"}))
 public class ChamadaAluno {
     
+    // Sequência com otimizador pooled: os IDs são reservados em blocos, permitindo inserções em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chamada_alunos_id_seq")
+    @SequenceGenerator(name = "chamada_alunos_id_seq", sequenceName = "chamada_alunos_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -21,6 +25,7 @@ public class ChamadaAluno {
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "aluno_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
     private Aluno aluno;
     
     @Column(name = "presente", nullable = false)
@@ -1,6 +1,7 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +27,15 @@ public class ChamadaMentor {
     @Column(name = "data_criacao", nullable = false)
     private LocalDateTime dataCriacao;
     
+    // Contadores desnormalizados, mantidos apenas por atualizações em lote dos repositórios
+    @ColumnDefault("0")
+    @Column(name = "total_presentes", nullable = false, insertable = false, updatable = false)
+    private Integer totalPresentes = 0;
+    
+    @ColumnDefault("0")
+    @Column(name = "total_ausentes", nullable = false, insertable = false, updatable = false)
+    private Integer totalAusentes = 0;
+    
     @OneToMany(mappedBy = "chamadaMentor", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ChamadaMentorParticipante> participantes;
     
@@ -74,6 +84,14 @@ public class ChamadaMentor {
         this.dataCriacao = dataCriacao;
     }
     
+    public Integer getTotalPresentes() {
+        return totalPresentes;
+    }
+    
+    public Integer getTotalAusentes() {
+        return totalAusentes;
+    }
+    
     public List<ChamadaMentorParticipante> getParticipantes() {
         return participantes;
     }
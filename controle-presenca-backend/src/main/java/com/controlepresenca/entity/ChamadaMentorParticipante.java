@@ -11,8 +11,10 @@ import java.time.LocalDateTime;
        uniqueConstraints = @UniqueConstraint(columnNames = {"chamada_mentor_id", "mentor_id"}))
 public class ChamadaMentorParticipante {
     
+    // Sequência com otimizador pooled: os IDs são reservados em blocos, permitindo inserções em lote
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chamada_mentores_participantes_id_seq")
+    @SequenceGenerator(name = "chamada_mentores_participantes_id_seq", sequenceName = "chamada_mentores_participantes_id_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
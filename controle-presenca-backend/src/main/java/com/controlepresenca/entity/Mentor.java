@@ -1,13 +1,18 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 /**
- * Entidade que representa um Mentor do YouX Lab
+ * Entidade que representa um Mentor do YouX Lab.
+ * Mantida no cache de segundo nível (região definida em ehcache.xml)
  */
 @Entity
 @Table(name = "mentores")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Mentor {
     
     @Id
@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "presencas", 
-       uniqueConstraints = @UniqueConstraint(columnNames = {"aluno_id", "data_presenca"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"aluno_id", "data_presenca"}),
+       indexes = {
+           // Índices da paginação por cursor em (data, hora, id), geral e por turma
+           @Index(name = "idx_presencas_data_hora_id", columnList = "data_presenca DESC, hora_presenca DESC, id DESC"),
+           @Index(name = "idx_presencas_turma_data_hora_id", columnList = "turma_id, data_presenca DESC, hora_presenca DESC, id DESC")
+       })
 public class Presenca {
 
     @Id
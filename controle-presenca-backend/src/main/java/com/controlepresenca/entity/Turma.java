@@ -1,6 +1,9 @@
 package com.controlepresenca.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
@@ -12,10 +15,13 @@ import java.util.List;
 /**
  * Entidade que representa uma Turma no sistema
  * 
- * Uma turma pode ter vários alunos associados e registros de presença
+ * Uma turma pode ter vários alunos associados e registros de presença.
+ * Mantida no cache de segundo nível (região definida em ehcache.xml)
  */
 @Entity
 @Table(name = "turmas")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Turma {
 
     @Id
@@ -41,6 +47,15 @@ public class Turma {
     @Column(nullable = false)
     private Boolean ativa = true;
 
+    // Contadores desnormalizados, mantidos apenas por atualizações em lote dos repositórios
+    @ColumnDefault("0")
+    @Column(name = "total_alunos", nullable = false, insertable = false, updatable = false)
+    private Integer totalAlunos = 0;
+
+    @ColumnDefault("0")
+    @Column(name = "total_presencas", nullable = false, insertable = false, updatable = false)
+    private Integer totalPresencas = 0;
+
     // Relacionamento One-to-Many com Aluno
     @OneToMany(mappedBy = "turma", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference("turma-alunos")
@@ -113,6 +128,14 @@ public class Turma {
         this.ativa = ativa;
     }
 
+    public Integer getTotalAlunos() {
+        return totalAlunos;
+    }
+
+    public Integer getTotalPresencas() {
+        return totalPresencas;
+    }
+
     public List<Aluno> getAlunos() {
         return alunos;
     }
@@ -1,13 +1,23 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.AlunoDTO;
 import com.controlepresenca.entity.Aluno;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para a entidade Aluno
@@ -78,6 +88,96 @@ public interface AlunoRepository extends JpaRepository<Aluno, Long> {
     @Query("SELECT COUNT(p) FROM Presenca p WHERE p.aluno.id = :alunoId")
     Long countPresencasByAlunoId(@Param("alunoId") Long alunoId);
 
+    /**
+     * Lista alunos já convertidos em DTO, com dados da turma e total de presenças
+     * (contador desnormalizado) em uma única consulta
+     *
+     * Filtros opcionais: turmaId e nome podem ser nulos; apenasAtivos restringe aos alunos ativos
+     */
+    @Query("SELECT new com.controlepresenca.dto.AlunoDTO(" +
+           "a.id, a.nome, a.matricula, a.email, t.id, t.nome, t.codigo, a.dataCadastro, a.ativo, a.totalPresencas) " +
+           "FROM Aluno a " +
+           "JOIN a.turma t " +
+           "WHERE (:apenasAtivos = false OR a.ativo = true) " +
+           "AND (:turmaId IS NULL OR t.id = :turmaId) " +
+           "AND (:nome IS NULL OR LOWER(a.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) " +
+           "ORDER BY a.nome")
+    List<AlunoDTO> findResumoAlunos(@Param("turmaId") Long turmaId,
+                                    @Param("nome") String nome,
+                                    @Param("apenasAtivos") boolean apenasAtivos);
+
+    /**
+     * Mesma listagem de findResumoAlunos como fluxo de DTOs, lido por cursor do banco
+     *
+     * Deve ser consumido dentro de uma transação e fechado ao final
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.controlepresenca.dto.AlunoDTO(" +
+           "a.id, a.nome, a.matricula, a.email, t.id, t.nome, t.codigo, a.dataCadastro, a.ativo, a.totalPresencas) " +
+           "FROM Aluno a " +
+           "JOIN a.turma t " +
+           "WHERE (:apenasAtivos = false OR a.ativo = true) " +
+           "AND (:turmaId IS NULL OR t.id = :turmaId) " +
+           "ORDER BY a.nome, a.id")
+    Stream<AlunoDTO> streamResumoAlunos(@Param("turmaId") Long turmaId,
+                                        @Param("apenasAtivos") boolean apenasAtivos);
+
+    /**
+     * Página de alunos já convertidos em DTO; a ordenação vem do Pageable
+     *
+     * Retorna uma fatia (consulta tamanho + 1 linhas) para não executar contagem implícita
+     */
+    @Query("SELECT new com.controlepresenca.dto.AlunoDTO(" +
+           "a.id, a.nome, a.matricula, a.email, t.id, t.nome, t.codigo, a.dataCadastro, a.ativo, a.totalPresencas) " +
+           "FROM Aluno a " +
+           "JOIN a.turma t " +
+           "WHERE (:apenasAtivos = false OR a.ativo = true) " +
+           "AND (:turmaId IS NULL OR t.id = :turmaId)")
+    Slice<AlunoDTO> findPaginaAlunos(@Param("turmaId") Long turmaId,
+                                     @Param("apenasAtivos") boolean apenasAtivos,
+                                     Pageable pageable);
+
+    /**
+     * Conta os alunos da listagem paginada, sem junção com a turma
+     */
+    @Query("SELECT COUNT(a.id) FROM Aluno a " +
+           "WHERE (:apenasAtivos = false OR a.ativo = true) " +
+           "AND (:turmaId IS NULL OR a.turma.id = :turmaId)")
+    long contarAlunos(@Param("turmaId") Long turmaId, @Param("apenasAtivos") boolean apenasAtivos);
+
+    /**
+     * Soma um delta ao contador de presenças do aluno
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Aluno a SET a.totalPresencas = a.totalPresencas + :delta WHERE a.id = :alunoId")
+    int incrementarTotalPresencas(@Param("alunoId") Long alunoId, @Param("delta") int delta);
+
+    /**
+     * Busca, em ordem de ID, alunos cujo contador de presenças diverge da contagem real
+     */
+    @Query("SELECT a.id FROM Aluno a " +
+           "WHERE a.id > :ultimoId " +
+           "AND a.totalPresencas <> (SELECT COUNT(p.id) FROM Presenca p WHERE p.aluno = a) " +
+           "ORDER BY a.id")
+    List<Long> findIdsComContadoresDivergentes(@Param("ultimoId") Long ultimoId, Pageable lote);
+
+    /**
+     * Recalcula o contador de presenças dos alunos informados
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Aluno a " +
+           "SET a.totalPresencas = (SELECT COUNT(p.id) FROM Presenca p WHERE p.aluno = a) " +
+           "WHERE a.id IN :ids")
+    int recalcularContadores(@Param("ids") List<Long> ids);
+
+    /**
+     * Busca, em uma única consulta, os alunos informados que pertencem à turma
+     */
+    @Query("SELECT a FROM Aluno a WHERE a.turma.id = :turmaId AND a.id IN :ids")
+    List<Aluno> findByTurmaIdAndIdIn(@Param("turmaId") Long turmaId, @Param("ids") Collection<Long> ids);
+
     /**
      * Busca alunos com informações da turma
      */
@@ -1,14 +1,22 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.ChamadaAlunoExportacaoDTO;
 import com.controlepresenca.entity.ChamadaAluno;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para operações de banco de dados da entidade ChamadaAluno
@@ -116,6 +124,57 @@ public interface ChamadaAlunoRepository extends JpaRepository<ChamadaAluno, Long
            "ORDER BY ca.aluno.nome")
     List<Object[]> findEstatisticasByTurma(@Param("turmaId") Long turmaId);
     
+    /**
+     * Chamadas em que o aluno tem registro (ID, turma e data da chamada)
+     */
+    @Query("SELECT c.id, c.turma.id, c.dataChamada FROM ChamadaAluno ca " +
+           "JOIN ca.chamada c " +
+           "WHERE ca.aluno.id = :alunoId")
+    List<Object[]> findChamadasByAlunoId(@Param("alunoId") Long alunoId);
+    
+    /**
+     * Buscar o status atual (ID do aluno e presença) de todos os registros de uma chamada
+     */
+    @Query("SELECT ca.aluno.id, ca.presente FROM ChamadaAluno ca WHERE ca.chamada.id = :chamadaId")
+    List<Object[]> findStatusByChamadaId(@Param("chamadaId") Long chamadaId);
+    
+    /**
+     * Atualizar em lote a presença dos alunos informados em uma chamada
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChamadaAluno ca SET ca.presente = :presente " +
+           "WHERE ca.chamada.id = :chamadaId AND ca.aluno.id IN :alunoIds")
+    int atualizarPresenca(@Param("chamadaId") Long chamadaId,
+                          @Param("alunoIds") Collection<Long> alunoIds,
+                          @Param("presente") boolean presente);
+    
+    /**
+     * Registros com os dados da chamada, turma e aluno para a exportação NDJSON, lidos por
+     * cursor em ordem de ID a partir do ID informado
+     * 
+     * O ID não acompanha a ordem de gravação (os IDs são reservados em blocos e as transações
+     * terminam em qualquer ordem) nem muda quando a presença é alterada, por isso serve apenas
+     * para continuar a leitura de um mesmo retrato dos dados, não para buscar alterações
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.controlepresenca.dto.ChamadaAlunoExportacaoDTO(" +
+           "ca.id, c.id, c.dataChamada, t.id, t.nome, t.codigo, a.id, a.nome, a.matricula, " +
+           "ca.presente, ca.dataRegistro) " +
+           "FROM ChamadaAluno ca " +
+           "JOIN ca.chamada c " +
+           "JOIN c.turma t " +
+           "JOIN ca.aluno a " +
+           "WHERE ca.id > :afterId " +
+           "AND (:turmaId IS NULL OR t.id = :turmaId) " +
+           "AND (:dataInicio IS NULL OR c.dataChamada >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR c.dataChamada <= :dataFim) " +
+           "ORDER BY ca.id")
+    Stream<ChamadaAlunoExportacaoDTO> streamExportacao(@Param("afterId") Long afterId,
+                                                      @Param("turmaId") Long turmaId,
+                                                      @Param("dataInicio") LocalDate dataInicio,
+                                                      @Param("dataFim") LocalDate dataFim);
+    
     /**
      * Verificar se um aluno já tem registro em uma chamada
      */
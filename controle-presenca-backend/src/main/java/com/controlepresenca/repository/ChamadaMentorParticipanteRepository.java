@@ -1,15 +1,23 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.ParticipacaoMentorExportacaoDTO;
 import com.controlepresenca.entity.ChamadaMentorParticipante;
 import com.controlepresenca.entity.Mentor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para operações de banco de dados da entidade ChamadaMentorParticipante
@@ -27,6 +35,33 @@ public interface ChamadaMentorParticipanteRepository extends JpaRepository<Chama
      */
     boolean existsByChamadaMentorIdAndMentorId(Long chamadaMentorId, Long mentorId);
     
+    /**
+     * Buscar o status atual (ID do mentor e presença) de todas as participações de uma chamada
+     */
+    @Query("SELECT cmp.mentor.id, cmp.presente FROM ChamadaMentorParticipante cmp WHERE cmp.chamadaMentor.id = :chamadaMentorId")
+    List<Object[]> findStatusByChamadaMentorId(@Param("chamadaMentorId") Long chamadaMentorId);
+    
+    /**
+     * Atualizar em lote a presença dos mentores informados em uma chamada
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChamadaMentorParticipante cmp SET cmp.presente = :presente " +
+           "WHERE cmp.chamadaMentor.id = :chamadaMentorId AND cmp.mentor.id IN :mentorIds")
+    int atualizarPresenca(@Param("chamadaMentorId") Long chamadaMentorId,
+                          @Param("mentorIds") Collection<Long> mentorIds,
+                          @Param("presente") boolean presente);
+    
+    /**
+     * Remover em lote as participações dos mentores informados em uma chamada
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ChamadaMentorParticipante cmp " +
+           "WHERE cmp.chamadaMentor.id = :chamadaMentorId AND cmp.mentor.id IN :mentorIds")
+    int removerPorMentores(@Param("chamadaMentorId") Long chamadaMentorId,
+                           @Param("mentorIds") Collection<Long> mentorIds);
+    
     /**
      * Listar participações por chamada de mentor
      */
@@ -141,6 +176,22 @@ public interface ChamadaMentorParticipanteRepository extends JpaRepository<Chama
             @Param("dataInicio") LocalDate dataInicio, 
             @Param("dataFim") LocalDate dataFim);
     
+    /**
+     * Participações para exportação, já com a data da chamada e os dados do mentor, lidas por
+     * cursor; o período é opcional e as linhas saem na ordem de inserção
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.controlepresenca.dto.ParticipacaoMentorExportacaoDTO(" +
+           "cmp.id, cm.id, cm.dataChamada, m.id, m.nome, m.tipoMentor, cmp.presente) " +
+           "FROM ChamadaMentorParticipante cmp " +
+           "JOIN cmp.chamadaMentor cm " +
+           "JOIN cmp.mentor m " +
+           "WHERE (:dataInicio IS NULL OR cm.dataChamada >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR cm.dataChamada <= :dataFim) " +
+           "ORDER BY cmp.id")
+    Stream<ParticipacaoMentorExportacaoDTO> streamExportacao(@Param("dataInicio") LocalDate dataInicio,
+                                                             @Param("dataFim") LocalDate dataFim);
+    
     /**
      * Estatísticas de participação por mentor
      */
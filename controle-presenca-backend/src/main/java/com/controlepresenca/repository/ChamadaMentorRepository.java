@@ -1,14 +1,22 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.ChamadaMentorDTO;
 import com.controlepresenca.entity.ChamadaMentor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para operações de banco de dados da entidade ChamadaMentor
@@ -102,6 +110,57 @@ public interface ChamadaMentorRepository extends JpaRepository<ChamadaMentor, Lo
            "ORDER BY cm.dataChamada DESC")
     List<ChamadaMentor> findAllWithParticipantes();
     
+    /**
+     * Listar chamadas de mentor já convertidas em DTO, com totais de presentes e
+     * ausentes (contadores desnormalizados) na mesma consulta
+     * 
+     * Filtros opcionais: dataInicio e dataFim podem ser nulos
+     */
+    @Query("SELECT new com.controlepresenca.dto.ChamadaMentorDTO(" +
+           "cm.id, cm.dataChamada, cm.observacoes, cm.dataCriacao, cm.totalPresentes, cm.totalAusentes) " +
+           "FROM ChamadaMentor cm " +
+           "WHERE (:dataInicio IS NULL OR cm.dataChamada >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR cm.dataChamada <= :dataFim) " +
+           "ORDER BY cm.dataChamada DESC")
+    List<ChamadaMentorDTO> findResumoChamadas(@Param("dataInicio") LocalDate dataInicio,
+                                              @Param("dataFim") LocalDate dataFim);
+    
+    /**
+     * Mesma listagem de findResumoChamadas como fluxo de DTOs, lido por cursor do banco
+     * 
+     * Deve ser consumido dentro de uma transação e fechado ao final
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.controlepresenca.dto.ChamadaMentorDTO(" +
+           "cm.id, cm.dataChamada, cm.observacoes, cm.dataCriacao, cm.totalPresentes, cm.totalAusentes) " +
+           "FROM ChamadaMentor cm " +
+           "WHERE (:dataInicio IS NULL OR cm.dataChamada >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR cm.dataChamada <= :dataFim) " +
+           "ORDER BY cm.dataChamada DESC")
+    Stream<ChamadaMentorDTO> streamResumoChamadas(@Param("dataInicio") LocalDate dataInicio,
+                                                 @Param("dataFim") LocalDate dataFim);
+    
+    /**
+     * Busca, em ordem de ID, chamadas de mentor cujos totais divergem dos participantes registrados
+     */
+    @Query("SELECT cm.id FROM ChamadaMentor cm " +
+           "WHERE cm.id > :ultimoId " +
+           "AND (cm.totalPresentes <> (SELECT COUNT(p.id) FROM ChamadaMentorParticipante p WHERE p.chamadaMentor = cm AND p.presente = true) " +
+           "OR cm.totalAusentes <> (SELECT COUNT(p.id) FROM ChamadaMentorParticipante p WHERE p.chamadaMentor = cm AND p.presente = false)) " +
+           "ORDER BY cm.id")
+    List<Long> findIdsComContadoresDivergentes(@Param("ultimoId") Long ultimoId, Pageable lote);
+    
+    /**
+     * Recalcula os totais de presentes e ausentes das chamadas de mentor informadas
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE ChamadaMentor cm " +
+           "SET cm.totalPresentes = (SELECT COUNT(p.id) FROM ChamadaMentorParticipante p WHERE p.chamadaMentor = cm AND p.presente = true), " +
+           "cm.totalAusentes = (SELECT COUNT(p.id) FROM ChamadaMentorParticipante p WHERE p.chamadaMentor = cm AND p.presente = false) " +
+           "WHERE cm.id IN :ids")
+    int recalcularContadores(@Param("ids") List<Long> ids);
+    
     /**
      * Buscar últimas N chamadas de mentor
      */
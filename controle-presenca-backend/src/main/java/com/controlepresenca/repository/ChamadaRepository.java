@@ -1,10 +1,14 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.ChamadaDTO;
 import com.controlepresenca.entity.Chamada;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -81,5 +85,45 @@ public interface ChamadaRepository extends JpaRepository<Chamada, Long> {
            "WHERE c.dataChamada >= :dataInicio " +
            "ORDER BY c.dataChamada DESC")
     List<Chamada> findRecentChamadas(@Param("dataInicio") LocalDate dataInicio);
+    
+    /**
+     * Listar chamadas já convertidas em DTO, com turma e totais de presentes/faltas
+     * (contadores desnormalizados) na mesma consulta
+     * 
+     * Filtros opcionais: turmaId, dataInicio e dataFim podem ser nulos
+     */
+    @Query("SELECT new com.controlepresenca.dto.ChamadaDTO(" +
+           "c.id, t.id, t.nome, t.codigo, c.dataChamada, c.observacoes, c.dataCriacao, " +
+           "c.totalPresentes, c.totalFaltas) " +
+           "FROM Chamada c " +
+           "JOIN c.turma t " +
+           "WHERE (:turmaId IS NULL OR t.id = :turmaId) " +
+           "AND (:dataInicio IS NULL OR c.dataChamada >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR c.dataChamada <= :dataFim) " +
+           "ORDER BY c.dataChamada DESC")
+    List<ChamadaDTO> findResumoChamadas(@Param("turmaId") Long turmaId,
+                                        @Param("dataInicio") LocalDate dataInicio,
+                                        @Param("dataFim") LocalDate dataFim);
+    
+    /**
+     * Busca, em ordem de ID, chamadas cujos totais divergem dos registros de chamada_alunos
+     */
+    @Query("SELECT c.id FROM Chamada c " +
+           "WHERE c.id > :ultimoId " +
+           "AND (c.totalPresentes <> (SELECT COUNT(ca.id) FROM ChamadaAluno ca WHERE ca.chamada = c AND ca.presente = true) " +
+           "OR c.totalFaltas <> (SELECT COUNT(ca.id) FROM ChamadaAluno ca WHERE ca.chamada = c AND ca.presente = false)) " +
+           "ORDER BY c.id")
+    List<Long> findIdsComContadoresDivergentes(@Param("ultimoId") Long ultimoId, Pageable lote);
+    
+    /**
+     * Recalcula os totais de presentes e faltas das chamadas informadas
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Chamada c " +
+           "SET c.totalPresentes = (SELECT COUNT(ca.id) FROM ChamadaAluno ca WHERE ca.chamada = c AND ca.presente = true), " +
+           "c.totalFaltas = (SELECT COUNT(ca.id) FROM ChamadaAluno ca WHERE ca.chamada = c AND ca.presente = false) " +
+           "WHERE c.id IN :ids")
+    int recalcularContadores(@Param("ids") List<Long> ids);
 }
 
@@ -1,8 +1,13 @@
 package com.controlepresenca.repository;
 
 import com.controlepresenca.entity.Mentor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -26,13 +31,15 @@ public interface MentorRepository extends JpaRepository<Mentor, Long> {
     boolean existsByEmail(String email);
     
     /**
-     * Listar mentores ativos
+     * Listar mentores ativos (resultado no cache de consultas do Hibernate)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Mentor> findByAtivoTrueOrderByNome();
     
     /**
-     * Listar mentores por tipo
+     * Listar mentores por tipo (resultado no cache de consultas do Hibernate, um por tipo)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Mentor> findByTipoMentorAndAtivoTrueOrderByNome(Mentor.TipoMentor tipoMentor);
     
     /**
@@ -40,6 +47,27 @@ public interface MentorRepository extends JpaRepository<Mentor, Long> {
      */
     List<Mentor> findAllByOrderByNome();
     
+    /**
+     * Página de mentores com filtros opcionais; a ordenação vem do Pageable
+     *
+     * Filtros opcionais: tipoMentor pode ser nulo; apenasAtivos restringe aos mentores ativos
+     */
+    @Query("SELECT m FROM Mentor m " +
+           "WHERE (:apenasAtivos = false OR m.ativo = true) " +
+           "AND (:tipoMentor IS NULL OR m.tipoMentor = :tipoMentor)")
+    Slice<Mentor> findPaginaMentores(@Param("tipoMentor") Mentor.TipoMentor tipoMentor,
+                                     @Param("apenasAtivos") boolean apenasAtivos,
+                                     Pageable pageable);
+    
+    /**
+     * Contar mentores da listagem paginada
+     */
+    @Query("SELECT COUNT(m.id) FROM Mentor m " +
+           "WHERE (:apenasAtivos = false OR m.ativo = true) " +
+           "AND (:tipoMentor IS NULL OR m.tipoMentor = :tipoMentor)")
+    long contarMentores(@Param("tipoMentor") Mentor.TipoMentor tipoMentor,
+                        @Param("apenasAtivos") boolean apenasAtivos);
+    
     /**
      * Buscar mentores por nome (busca parcial, case insensitive)
      */
@@ -1,19 +1,28 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.PresencaDTO;
 import com.controlepresenca.entity.Presenca;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository para a entidade Presenca
  * 
- * Fornece métodos para operações CRUD e consultas customizadas
+ * Fornece métodos para operações CRUD e consultas customizadas. As consultas usadas nas
+ * listagens carregam aluno e turma na mesma instrução, evitando uma busca extra por linha
  */
 @Repository
 public interface PresencaRepository extends JpaRepository<Presenca, Long> {
@@ -21,6 +30,7 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     /**
      * Busca presenças por aluno
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findByAlunoId(Long alunoId);
 
     /**
@@ -31,11 +41,13 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     /**
      * Busca presenças por data
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findByDataPresenca(LocalDate dataPresenca);
 
     /**
      * Busca presenças por turma e data
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findByTurmaIdAndDataPresenca(Long turmaId, LocalDate dataPresenca);
 
     /**
@@ -51,6 +63,7 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     /**
      * Busca presenças por período
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findByDataPresencaBetween(LocalDate dataInicio, LocalDate dataFim);
 
     /**
@@ -74,6 +87,12 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     @Query("SELECT p FROM Presenca p JOIN FETCH p.aluno JOIN FETCH p.turma ORDER BY p.dataPresenca DESC, p.horaPresenca DESC")
     List<Presenca> findPresencasComAlunoETurma();
 
+    /**
+     * Busca presença por ID com informações de aluno e turma
+     */
+    @Query("SELECT p FROM Presenca p JOIN FETCH p.aluno JOIN FETCH p.turma WHERE p.id = :id")
+    Optional<Presenca> findByIdComAlunoETurma(@Param("id") Long id);
+
     /**
      * Busca presenças por turma com informações de aluno
      */
@@ -90,19 +109,32 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
      */
     Long countByAlunoId(Long alunoId);
 
+    /**
+     * Conta presenças de um aluno agrupadas por turma
+     */
+    @Query("SELECT p.turma.id, COUNT(p.id) FROM Presenca p WHERE p.aluno.id = :alunoId GROUP BY p.turma.id")
+    List<Object[]> countByAlunoIdAgrupadoPorTurma(@Param("alunoId") Long alunoId);
+
     /**
      * Conta presenças por turma e data
      */
     Long countByTurmaIdAndDataPresenca(Long turmaId, LocalDate dataPresenca);
 
+    /**
+     * Conta presenças da data (resolvida pelo índice de data_presenca)
+     */
+    long countByDataPresenca(LocalDate dataPresenca);
+
     /**
      * Busca presenças ordenadas por data e hora (mais recentes primeiro)
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findAllByOrderByDataPresencaDescHoraPresencaDesc();
 
     /**
      * Busca presenças por turma ordenadas por data e hora
      */
+    @EntityGraph(attributePaths = {"aluno", "turma"})
     List<Presenca> findByTurmaIdOrderByDataPresencaDescHoraPresencaDesc(Long turmaId);
 
     /**
@@ -118,5 +150,108 @@ public interface PresencaRepository extends JpaRepository<Presenca, Long> {
     List<Presenca> findRelatorioPresencas(@Param("turmaId") Long turmaId, 
                                          @Param("dataInicio") LocalDate dataInicio, 
                                          @Param("dataFim") LocalDate dataFim);
-}
 
+    /**
+     * Relatório de presenças como fluxo de DTOs, lido por cursor do banco em blocos de fetch size;
+     * também usado pela listagem completa em streaming
+     * 
+     * Deve ser consumido dentro de uma transação e fechado ao final; como as linhas são projetadas
+     * direto em DTO, nada fica retido no contexto de persistência durante a leitura
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.controlepresenca.dto.PresencaDTO(" +
+           "p.id, a.id, t.id, a.nome, a.matricula, t.nome, t.codigo, " +
+           "p.dataPresenca, p.horaPresenca, p.dataHoraRegistro, p.observacoes) " +
+           "FROM Presenca p " +
+           "JOIN p.aluno a " +
+           "JOIN p.turma t " +
+           "WHERE (:turmaId IS NULL OR t.id = :turmaId) " +
+           "AND (:dataInicio IS NULL OR p.dataPresenca >= :dataInicio) " +
+           "AND (:dataFim IS NULL OR p.dataPresenca <= :dataFim) " +
+           "ORDER BY p.dataPresenca DESC, p.horaPresenca DESC, p.id DESC")
+    Stream<PresencaDTO> streamRelatorioPresencas(@Param("turmaId") Long turmaId,
+                                                 @Param("dataInicio") LocalDate dataInicio,
+                                                 @Param("dataFim") LocalDate dataFim);
+
+    /**
+     * Data da presença mais antiga anterior à data informada, da turma ou de todas as turmas
+     */
+    @Query("SELECT MIN(p.dataPresenca) FROM Presenca p " +
+           "WHERE (:turmaId IS NULL OR p.turma.id = :turmaId) " +
+           "AND p.dataPresenca < :dataLimite")
+    LocalDate findPrimeiraDataPresencaAntesDe(@Param("turmaId") Long turmaId,
+                                             @Param("dataLimite") LocalDate dataLimite);
+
+    /**
+     * Primeira página de presenças em ordem decrescente de (data, hora, id)
+     *
+     * As quatro consultas de página têm o mesmo formato: o período é sempre informado (o service
+     * completa as datas ausentes) e o cursor, quando existe, é uma comparação de linha, para que
+     * cada variante percorra um intervalo do índice idx_presencas_data_hora_id. Os parâmetros do
+     * cursor levam cast explícito porque o Hibernate não infere o tipo de uma tupla de parâmetros
+     */
+    @Query("SELECT p FROM Presenca p " +
+           "JOIN FETCH p.aluno a " +
+           "JOIN FETCH p.turma t " +
+           "WHERE p.dataPresenca BETWEEN :dataInicio AND :dataFim " +
+           "AND (:alunoId IS NULL OR a.id = :alunoId) " +
+           "ORDER BY p.dataPresenca DESC, p.horaPresenca DESC, p.id DESC")
+    List<Presenca> findPrimeiraPagina(@Param("alunoId") Long alunoId,
+                                      @Param("dataInicio") LocalDate dataInicio,
+                                      @Param("dataFim") LocalDate dataFim,
+                                      Pageable limite);
+
+    /**
+     * Página de presenças seguinte à posição do cursor, em ordem decrescente de (data, hora, id)
+     */
+    @Query("SELECT p FROM Presenca p " +
+           "JOIN FETCH p.aluno a " +
+           "JOIN FETCH p.turma t " +
+           "WHERE p.dataPresenca BETWEEN :dataInicio AND :dataFim " +
+           "AND (p.dataPresenca, p.horaPresenca, p.id) < (cast(:cursorData as LocalDate), cast(:cursorHora as LocalTime), cast(:cursorId as Long)) " +
+           "AND (:alunoId IS NULL OR a.id = :alunoId) " +
+           "ORDER BY p.dataPresenca DESC, p.horaPresenca DESC, p.id DESC")
+    List<Presenca> findPaginaApos(@Param("alunoId") Long alunoId,
+                                  @Param("dataInicio") LocalDate dataInicio,
+                                  @Param("dataFim") LocalDate dataFim,
+                                  @Param("cursorData") LocalDate cursorData,
+                                  @Param("cursorHora") LocalTime cursorHora,
+                                  @Param("cursorId") Long cursorId,
+                                  Pageable limite);
+
+    /**
+     * Primeira página de presenças da turma, pelo índice idx_presencas_turma_data_hora_id
+     */
+    @Query("SELECT p FROM Presenca p " +
+           "JOIN FETCH p.aluno a " +
+           "JOIN FETCH p.turma t " +
+           "WHERE p.turma.id = :turmaId " +
+           "AND p.dataPresenca BETWEEN :dataInicio AND :dataFim " +
+           "AND (:alunoId IS NULL OR a.id = :alunoId) " +
+           "ORDER BY p.dataPresenca DESC, p.horaPresenca DESC, p.id DESC")
+    List<Presenca> findPrimeiraPaginaPorTurma(@Param("turmaId") Long turmaId,
+                                              @Param("alunoId") Long alunoId,
+                                              @Param("dataInicio") LocalDate dataInicio,
+                                              @Param("dataFim") LocalDate dataFim,
+                                              Pageable limite);
+
+    /**
+     * Página de presenças da turma seguinte à posição do cursor
+     */
+    @Query("SELECT p FROM Presenca p " +
+           "JOIN FETCH p.aluno a " +
+           "JOIN FETCH p.turma t " +
+           "WHERE p.turma.id = :turmaId " +
+           "AND p.dataPresenca BETWEEN :dataInicio AND :dataFim " +
+           "AND (p.dataPresenca, p.horaPresenca, p.id) < (cast(:cursorData as LocalDate), cast(:cursorHora as LocalTime), cast(:cursorId as Long)) " +
+           "AND (:alunoId IS NULL OR a.id = :alunoId) " +
+           "ORDER BY p.dataPresenca DESC, p.horaPresenca DESC, p.id DESC")
+    List<Presenca> findPaginaPorTurmaApos(@Param("turmaId") Long turmaId,
+                                          @Param("alunoId") Long alunoId,
+                                          @Param("dataInicio") LocalDate dataInicio,
+                                          @Param("dataFim") LocalDate dataFim,
+                                          @Param("cursorData") LocalDate cursorData,
+                                          @Param("cursorHora") LocalTime cursorHora,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable limite);
+}
@@ -1,10 +1,19 @@
 package com.controlepresenca.repository;
 
+import com.controlepresenca.dto.GraficoTurmaDTO;
+import com.controlepresenca.dto.TurmaDTO;
 import com.controlepresenca.entity.Turma;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -60,6 +69,87 @@ public interface TurmaRepository extends JpaRepository<Turma, Long> {
     @Query("SELECT COUNT(p) FROM Presenca p WHERE p.turma.id = :turmaId")
     Long countPresencasByTurmaId(@Param("turmaId") Long turmaId);
 
+    /**
+     * Lista turmas já convertidas em DTO, com total de alunos ativos e total de presenças
+     * (contadores desnormalizados) em uma única consulta
+     *
+     * Filtros opcionais: nome pode ser nulo; apenasAtivas restringe às turmas ativas
+     *
+     * É a consulta das listagens GET /turmas e GET /turmas/todas; o resultado fica no cache de
+     * consultas do Hibernate, invalidado por qualquer escrita na tabela de turmas
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.controlepresenca.dto.TurmaDTO(" +
+           "t.id, t.nome, t.codigo, t.descricao, t.dataCriacao, t.ativa, t.totalAlunos, t.totalPresencas) " +
+           "FROM Turma t " +
+           "WHERE (:apenasAtivas = false OR t.ativa = true) " +
+           "AND (:nome IS NULL OR LOWER(t.nome) LIKE LOWER(CONCAT('%', :nome, '%'))) " +
+           "ORDER BY t.nome")
+    List<TurmaDTO> findResumoTurmas(@Param("nome") String nome,
+                                    @Param("apenasAtivas") boolean apenasAtivas);
+
+    /**
+     * Página de turmas já convertidas em DTO; a ordenação vem do Pageable
+     *
+     * Retorna uma fatia (consulta tamanho + 1 linhas) para não executar contagem implícita
+     */
+    @Query("SELECT new com.controlepresenca.dto.TurmaDTO(" +
+           "t.id, t.nome, t.codigo, t.descricao, t.dataCriacao, t.ativa, t.totalAlunos, t.totalPresencas) " +
+           "FROM Turma t " +
+           "WHERE (:apenasAtivas = false OR t.ativa = true)")
+    Slice<TurmaDTO> findPaginaTurmas(@Param("apenasAtivas") boolean apenasAtivas, Pageable pageable);
+
+    /**
+     * Contadores de todas as turmas para o dashboard, em ordem de nome
+     */
+    @Query("SELECT new com.controlepresenca.dto.GraficoTurmaDTO(t.id, t.nome, t.ativa, t.totalAlunos, t.totalPresencas) " +
+           "FROM Turma t " +
+           "ORDER BY t.nome")
+    List<GraficoTurmaDTO> findGraficoTurmas();
+
+    /**
+     * Conta as turmas da listagem paginada
+     */
+    @Query("SELECT COUNT(t.id) FROM Turma t WHERE (:apenasAtivas = false OR t.ativa = true)")
+    long contarTurmas(@Param("apenasAtivas") boolean apenasAtivas);
+
+    /**
+     * Soma um delta ao contador de alunos ativos da turma
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Turma t SET t.totalAlunos = t.totalAlunos + :delta WHERE t.id = :turmaId")
+    int incrementarTotalAlunos(@Param("turmaId") Long turmaId, @Param("delta") int delta);
+
+    /**
+     * Soma um delta ao contador de presenças da turma
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Turma t SET t.totalPresencas = t.totalPresencas + :delta WHERE t.id = :turmaId")
+    int incrementarTotalPresencas(@Param("turmaId") Long turmaId, @Param("delta") int delta);
+
+    /**
+     * Busca, em ordem de ID, turmas cujos contadores divergem das contagens reais
+     */
+    @Query("SELECT t.id FROM Turma t " +
+           "WHERE t.id > :ultimoId " +
+           "AND (t.totalAlunos <> (SELECT COUNT(a.id) FROM Aluno a WHERE a.turma = t AND a.ativo = true) " +
+           "OR t.totalPresencas <> (SELECT COUNT(p.id) FROM Presenca p WHERE p.turma = t)) " +
+           "ORDER BY t.id")
+    List<Long> findIdsComContadoresDivergentes(@Param("ultimoId") Long ultimoId, Pageable lote);
+
+    /**
+     * Recalcula os contadores de alunos ativos e presenças das turmas informadas
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Turma t " +
+           "SET t.totalAlunos = (SELECT COUNT(a.id) FROM Aluno a WHERE a.turma = t AND a.ativo = true), " +
+           "t.totalPresencas = (SELECT COUNT(p.id) FROM Presenca p WHERE p.turma = t) " +
+           "WHERE t.id IN :ids")
+    int recalcularContadores(@Param("ids") List<Long> ids);
+
     /**
      * Busca turmas ordenadas por nome
      */
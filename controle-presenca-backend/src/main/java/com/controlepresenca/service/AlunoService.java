@@ -1,17 +1,28 @@
 package com.controlepresenca.service;
 
 import com.controlepresenca.dto.AlunoDTO;
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.entity.Aluno;
 import com.controlepresenca.entity.Turma;
 import com.controlepresenca.repository.AlunoRepository;
+import com.controlepresenca.repository.ChamadaAlunoRepository;
+import com.controlepresenca.repository.ChamadaRepository;
+import com.controlepresenca.repository.PresencaRepository;
 import com.controlepresenca.repository.TurmaRepository;
+import com.controlepresenca.service.CacheReferencias.TurmaReferencia;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service para gerenciar operações relacionadas a Alunos
@@ -28,34 +39,82 @@ public class AlunoService {
     @Autowired
     private TurmaRepository turmaRepository;
 
+    @Autowired
+    private PresencaRepository presencaRepository;
+
+    @Autowired
+    private ChamadaRepository chamadaRepository;
+
+    @Autowired
+    private ChamadaAlunoRepository chamadaAlunoRepository;
+
+    @Autowired
+    private PaginacaoListagens paginacao;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private VersoesAgregados versoes;
+
+    /**
+     * Chaves de ordenação aceitas na listagem paginada de alunos
+     */
+    private static final Map<String, String> ORDENACOES = Map.of(
+            "nome", "nome",
+            "matricula", "matricula",
+            "dataCadastro", "dataCadastro",
+            "totalPresencas", "totalPresencas",
+            "turma", "t.nome");
+
     /**
      * Lista todos os alunos ativos
      */
     public List<AlunoDTO> listarAlunosAtivos() {
-        List<Aluno> alunos = alunoRepository.findByAtivoTrue();
-        return alunos.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return alunoRepository.findResumoAlunos(null, null, true);
     }
 
     /**
      * Lista todos os alunos
      */
     public List<AlunoDTO> listarTodosAlunos() {
-        List<Aluno> alunos = alunoRepository.findAll();
-        return alunos.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return alunoRepository.findResumoAlunos(null, null, false);
+    }
+
+    /**
+     * Todos os alunos (incluindo inativos) como fluxo, para a listagem em streaming
+     *
+     * Deve ser consumido e fechado dentro de uma transação aberta por quem chamou
+     */
+    @Transactional(readOnly = true)
+    public Stream<AlunoDTO> streamTodosAlunos() {
+        return alunoRepository.streamResumoAlunos(null, false);
     }
 
     /**
      * Lista alunos por turma
      */
     public List<AlunoDTO> listarAlunosPorTurma(Long turmaId) {
-        List<Aluno> alunos = alunoRepository.findByTurmaIdAndAtivoTrue(turmaId);
-        return alunos.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return alunoRepository.findResumoAlunos(turmaId, null, true);
+    }
+
+    /**
+     * Lista alunos paginados, com filtro opcional por turma
+     *
+     * A contagem total é uma consulta extra e só é executada quando incluirTotal é verdadeiro
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<AlunoDTO> listarAlunosPaginados(Long turmaId, boolean apenasAtivos, Integer pagina,
+                                                     Integer tamanho, String ordenacao, boolean incluirTotal) {
+        Pageable pageable = paginacao.criar(pagina, tamanho, ordenacao, ORDENACOES, "nome");
+        return paginacao.montar(alunoRepository.findPaginaAlunos(turmaId, apenasAtivos, pageable),
+                Function.identity(), incluirTotal, () -> alunoRepository.contarAlunos(turmaId, apenasAtivos));
     }
 
     /**
@@ -87,7 +146,7 @@ public class AlunoService {
      */
     public AlunoDTO criarAluno(AlunoDTO alunoDTO) {
         // Validar se a turma existe
-        Optional<Turma> turma = turmaRepository.findById(alunoDTO.getTurmaId());
+        Optional<TurmaReferencia> turma = cacheReferencias.buscarTurma(alunoDTO.getTurmaId());
         if (!turma.isPresent()) {
             throw new RuntimeException("Turma não encontrada com ID: " + alunoDTO.getTurmaId());
         }
@@ -102,9 +161,16 @@ public class AlunoService {
             throw new RuntimeException("Já existe um aluno com o email: " + alunoDTO.getEmail());
         }
 
-        Aluno aluno = convertToEntity(alunoDTO, turma.get());
+        Aluno aluno = convertToEntity(alunoDTO, turmaRepository.getReferenceById(turma.get().getId()));
         aluno = alunoRepository.save(aluno);
-        return convertToDTO(aluno);
+
+        // Atualizar contador de alunos ativos da turma
+        if (aluno.getAtivo()) {
+            turmaRepository.incrementarTotalAlunos(turma.get().getId(), 1);
+        }
+        relatorioCache.invalidarTurma(turma.get().getId());
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS, VersoesAgregados.Agregado.TURMAS);
+        return convertToDTO(aluno, turma.get().getNome(), turma.get().getCodigo());
     }
 
     /**
@@ -118,7 +184,7 @@ public class AlunoService {
         }
 
         // Validar se a turma existe
-        Optional<Turma> turma = turmaRepository.findById(alunoDTO.getTurmaId());
+        Optional<TurmaReferencia> turma = cacheReferencias.buscarTurma(alunoDTO.getTurmaId());
         if (!turma.isPresent()) {
             throw new RuntimeException("Turma não encontrada com ID: " + alunoDTO.getTurmaId());
         }
@@ -134,14 +200,30 @@ public class AlunoService {
         }
 
         Aluno aluno = alunoExistente.get();
+        Long turmaAnteriorId = aluno.getTurma().getId();
+        boolean ativoAnterior = Boolean.TRUE.equals(aluno.getAtivo());
+        boolean identificacaoAlterada = !Objects.equals(aluno.getNome(), alunoDTO.getNome())
+                || !Objects.equals(aluno.getMatricula(), alunoDTO.getMatricula());
+
         aluno.setNome(alunoDTO.getNome());
         aluno.setMatricula(alunoDTO.getMatricula());
         aluno.setEmail(alunoDTO.getEmail());
-        aluno.setTurma(turma.get());
+        aluno.setTurma(turmaRepository.getReferenceById(turma.get().getId()));
         aluno.setAtivo(alunoDTO.getAtivo());
 
         aluno = alunoRepository.save(aluno);
-        return convertToDTO(aluno);
+        ajustarTotalAlunos(turmaAnteriorId, ativoAnterior, turma.get().getId(), Boolean.TRUE.equals(aluno.getAtivo()));
+        relatorioCache.invalidarTurma(turmaAnteriorId);
+        if (!turmaAnteriorId.equals(turma.get().getId())) {
+            relatorioCache.invalidarTurma(turma.get().getId());
+        }
+        if (identificacaoAlterada) {
+            // Nome e matrícula aparecem nas linhas já gravadas dos meses fechados, em qualquer
+            // turma por onde o aluno passou; a alteração é rara, então todos os meses são descartados
+            periodoFechadoCache.limpar();
+        }
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS, VersoesAgregados.Agregado.TURMAS);
+        return convertToDTO(aluno, turma.get().getNome(), turma.get().getCodigo());
     }
 
     /**
@@ -155,61 +237,109 @@ public class AlunoService {
         }
 
         Aluno alunoEntity = aluno.get();
+        boolean ativoAnterior = Boolean.TRUE.equals(alunoEntity.getAtivo());
         alunoEntity.setAtivo(false);
         alunoRepository.save(alunoEntity);
+        ajustarTotalAlunos(alunoEntity.getTurma().getId(), ativoAnterior, alunoEntity.getTurma().getId(), false);
+        relatorioCache.invalidarTurma(alunoEntity.getTurma().getId());
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS, VersoesAgregados.Agregado.TURMAS);
     }
 
     /**
      * Remove um aluno permanentemente
      */
     public void excluirAluno(Long id) {
-        if (!alunoRepository.existsById(id)) {
+        Optional<Aluno> aluno = alunoRepository.findById(id);
+
+        if (!aluno.isPresent()) {
             throw new RuntimeException("Aluno não encontrado com ID: " + id);
         }
-        alunoRepository.deleteById(id);
+
+        // As presenças do aluno são removidas em cascata; descontar dos contadores das turmas
+        for (Object[] linha : presencaRepository.countByAlunoIdAgrupadoPorTurma(id)) {
+            turmaRepository.incrementarTotalPresencas((Long) linha[0], -((Long) linha[1]).intValue());
+            relatorioCache.invalidarTurma((Long) linha[0]);
+            periodoFechadoCache.invalidarTurma((Long) linha[0]);
+        }
+        if (Boolean.TRUE.equals(aluno.get().getAtivo())) {
+            turmaRepository.incrementarTotalAlunos(aluno.get().getTurma().getId(), -1);
+        }
+
+        // Os registros do aluno nas chamadas são apagados em cascata pelo banco; os totais dessas
+        // chamadas são recalculados depois da exclusão
+        List<Long> chamadaIds = new ArrayList<>();
+        for (Object[] linha : chamadaAlunoRepository.findChamadasByAlunoId(id)) {
+            chamadaIds.add((Long) linha[0]);
+            relatorioCache.invalidarTurma((Long) linha[1]);
+            periodoFechadoCache.marcarMesDesatualizado((Long) linha[1], (LocalDate) linha[2]);
+        }
+
+        relatorioCache.invalidarTurma(aluno.get().getTurma().getId());
+        alunoRepository.delete(aluno.get());
+        if (!chamadaIds.isEmpty()) {
+            alunoRepository.flush();
+            chamadaRepository.recalcularContadores(chamadaIds);
+        }
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS, VersoesAgregados.Agregado.TURMAS);
     }
 
     /**
      * Busca alunos por nome
      */
     public List<AlunoDTO> buscarPorNome(String nome) {
-        List<Aluno> alunos = alunoRepository.findByNomeContainingIgnoreCase(nome);
-        return alunos.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return alunoRepository.findResumoAlunos(null, nome, false);
     }
 
     /**
      * Busca alunos por turma e nome
      */
     public List<AlunoDTO> buscarPorTurmaENome(Long turmaId, String nome) {
-        List<Aluno> alunos = alunoRepository.findByTurmaIdAndNomeContainingIgnoreCase(turmaId, nome);
-        return alunos.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return alunoRepository.findResumoAlunos(turmaId, nome, false);
     }
 
     /**
      * Converte Entity para DTO
      */
     private AlunoDTO convertToDTO(Aluno aluno) {
+        return convertToDTO(aluno, aluno.getTurma().getNome(), aluno.getTurma().getCodigo());
+    }
+
+    /**
+     * Converte Entity para DTO com os dados da turma já conhecidos, sem carregar a turma
+     */
+    private AlunoDTO convertToDTO(Aluno aluno, String turmaNome, String turmaCodigo) {
         AlunoDTO dto = new AlunoDTO();
         dto.setId(aluno.getId());
         dto.setNome(aluno.getNome());
         dto.setMatricula(aluno.getMatricula());
         dto.setEmail(aluno.getEmail());
         dto.setTurmaId(aluno.getTurma().getId());
-        dto.setTurmaNome(aluno.getTurma().getNome());
-        dto.setTurmaCodigo(aluno.getTurma().getCodigo());
+        dto.setTurmaNome(turmaNome);
+        dto.setTurmaCodigo(turmaCodigo);
         dto.setDataCadastro(aluno.getDataCadastro());
         dto.setAtivo(aluno.getAtivo());
         
         // Adicionar estatísticas
-        dto.setTotalPresencas(alunoRepository.countPresencasByAlunoId(aluno.getId()).intValue());
+        dto.setTotalPresencas(aluno.getTotalPresencas());
         
         return dto;
     }
 
+    /**
+     * Ajusta o contador de alunos ativos das turmas após mudança de turma ou de status
+     */
+    private void ajustarTotalAlunos(Long turmaAnteriorId, boolean ativoAnterior, Long turmaAtualId, boolean ativoAtual) {
+        if (turmaAnteriorId.equals(turmaAtualId) && ativoAnterior == ativoAtual) {
+            return;
+        }
+        if (ativoAnterior) {
+            turmaRepository.incrementarTotalAlunos(turmaAnteriorId, -1);
+        }
+        if (ativoAtual) {
+            turmaRepository.incrementarTotalAlunos(turmaAtualId, 1);
+        }
+    }
+
     /**
      * Converte DTO para Entity
      */
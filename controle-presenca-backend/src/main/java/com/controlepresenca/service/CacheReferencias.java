@@ -0,0 +1,271 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.EstatisticasCacheDTO;
+import com.controlepresenca.entity.Mentor;
+import com.controlepresenca.entity.Turma;
+import com.controlepresenca.repository.MentorRepository;
+import com.controlepresenca.repository.TurmaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache em memória das turmas e mentores consultados pelos caminhos de escrita
+ *
+ * Guarda cópias imutáveis dos dados de referência (nome, código, tipo, situação) por um tempo
+ * máximo e em quantidade limitada, descartando primeiro as entradas menos usadas. As entidades
+ * associadas aos registros gravados continuam vindo do repositório por referência
+ * (getReferenceById), sem consulta. TurmaService e MentorService invalidam as entradas
+ * alteradas, na hora e de novo ao final da transação
+ */
+@Component
+public class CacheReferencias {
+
+    @Autowired
+    private TurmaRepository turmaRepository;
+
+    @Autowired
+    private MentorRepository mentorRepository;
+
+    @Value("${referencias.cache.ttl-segundos:600}")
+    private long ttlSegundos;
+
+    @Value("${referencias.cache.tamanho-maximo:1000}")
+    private int tamanhoMaximo;
+
+    private final Regiao<TurmaReferencia> turmas = new Regiao<>("turmas");
+    private final Regiao<MentorReferencia> mentores = new Regiao<>("mentores");
+
+    /**
+     * Busca a turma no cache ou, na falta, no banco
+     */
+    public Optional<TurmaReferencia> buscarTurma(Long id) {
+        TurmaReferencia turma = turmas.buscar(id);
+        if (turma != null) {
+            return Optional.of(turma);
+        }
+        long versao = turmas.versao();
+        Optional<TurmaReferencia> carregada = turmaRepository.findById(id).map(TurmaReferencia::new);
+        carregada.ifPresent(referencia -> turmas.armazenar(id, referencia, versao));
+        return carregada;
+    }
+
+    /**
+     * Busca os mentores informados, consultando o banco uma única vez para os que faltam no
+     * cache; ids inexistentes ficam fora do mapa
+     */
+    public Map<Long, MentorReferencia> buscarMentores(Collection<Long> ids) {
+        Map<Long, MentorReferencia> encontrados = new HashMap<>();
+        List<Long> faltantes = new ArrayList<>();
+        for (Long id : ids) {
+            MentorReferencia mentor = mentores.buscar(id);
+            if (mentor != null) {
+                encontrados.put(id, mentor);
+            } else {
+                faltantes.add(id);
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            long versao = mentores.versao();
+            for (Mentor mentor : mentorRepository.findAllById(faltantes)) {
+                MentorReferencia referencia = new MentorReferencia(mentor);
+                mentores.armazenar(mentor.getId(), referencia, versao);
+                encontrados.put(mentor.getId(), referencia);
+            }
+        }
+        return encontrados;
+    }
+
+    /**
+     * Descarta a turma do cache
+     */
+    public void invalidarTurma(Long id) {
+        executarAgoraEAoFinalDaTransacao(() -> turmas.remover(id));
+    }
+
+    /**
+     * Descarta o mentor do cache
+     */
+    public void invalidarMentor(Long id) {
+        executarAgoraEAoFinalDaTransacao(() -> mentores.remover(id));
+    }
+
+    /**
+     * Descarta todas as entradas, mantendo as estatísticas
+     */
+    public void limpar() {
+        turmas.limpar();
+        mentores.limpar();
+    }
+
+    /**
+     * Acertos, falhas e ocupação de cada região do cache
+     */
+    public List<EstatisticasCacheDTO> obterEstatisticas() {
+        return List.of(turmas.estatisticas(), mentores.estatisticas());
+    }
+
+    private void executarAgoraEAoFinalDaTransacao(Runnable remocao) {
+        remocao.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remocao.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Dados de referência de uma turma
+     */
+    public static final class TurmaReferencia {
+        private final Long id;
+        private final String nome;
+        private final String codigo;
+        private final Boolean ativa;
+
+        private TurmaReferencia(Turma turma) {
+            this.id = turma.getId();
+            this.nome = turma.getNome();
+            this.codigo = turma.getCodigo();
+            this.ativa = turma.getAtiva();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public String getCodigo() {
+            return codigo;
+        }
+
+        public Boolean getAtiva() {
+            return ativa;
+        }
+    }
+
+    /**
+     * Dados de referência de um mentor
+     */
+    public static final class MentorReferencia {
+        private final Long id;
+        private final String nome;
+        private final Mentor.TipoMentor tipoMentor;
+        private final Boolean ativo;
+
+        private MentorReferencia(Mentor mentor) {
+            this.id = mentor.getId();
+            this.nome = mentor.getNome();
+            this.tipoMentor = mentor.getTipoMentor();
+            this.ativo = mentor.getAtivo();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public Mentor.TipoMentor getTipoMentor() {
+            return tipoMentor;
+        }
+
+        public Boolean getAtivo() {
+            return ativo;
+        }
+    }
+
+    /**
+     * Entradas de um tipo de entidade, em ordem de acesso (a menos usada primeiro)
+     */
+    private final class Regiao<T> {
+        private final String nome;
+        private final LinkedHashMap<Long, Entrada<T>> entradas = new LinkedHashMap<>(16, 0.75f, true);
+        private long acertos;
+        private long falhas;
+        private long expiradas;
+        private long gravacoes;
+
+        /**
+         * Incrementada a cada invalidação; impede armazenar uma entidade lida antes dela
+         */
+        private long versao;
+
+        private Regiao(String nome) {
+            this.nome = nome;
+        }
+
+        synchronized T buscar(Long id) {
+            Entrada<T> entrada = entradas.get(id);
+            if (entrada != null && System.nanoTime() - entrada.expiraEm >= 0) {
+                entradas.remove(id);
+                expiradas++;
+                entrada = null;
+            }
+            if (entrada == null) {
+                falhas++;
+                return null;
+            }
+            acertos++;
+            return entrada.valor;
+        }
+
+        synchronized long versao() {
+            return versao;
+        }
+
+        synchronized void armazenar(Long id, T valor, long versaoInicial) {
+            if (versao != versaoInicial) {
+                return;
+            }
+            entradas.put(id, new Entrada<>(valor, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSegundos)));
+            gravacoes++;
+            while (entradas.size() > tamanhoMaximo) {
+                entradas.remove(entradas.keySet().iterator().next());
+            }
+        }
+
+        synchronized void remover(Long id) {
+            versao++;
+            entradas.remove(id);
+        }
+
+        synchronized void limpar() {
+            versao++;
+            entradas.clear();
+        }
+
+        synchronized EstatisticasCacheDTO estatisticas() {
+            return new EstatisticasCacheDTO(nome, entradas.size(), acertos, falhas, expiradas, gravacoes);
+        }
+    }
+
+    private static final class Entrada<T> {
+        private final T valor;
+        private final long expiraEm;
+
+        private Entrada(T valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.EstatisticasCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Acesso às regiões do cache de segundo nível do Hibernate
+ *
+ * Turma e Mentor ficam nas regiões de entidade e as listagens de turmas ativas e de mentores
+ * ativos (geral e por tipo) na região de consultas; todas configuradas em ehcache.xml. O
+ * próprio Hibernate descarta as entradas alteradas pelas escritas, inclusive pelos UPDATEs em
+ * lote dos contadores da turma
+ */
+@Component
+public class CacheSegundoNivel {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Acertos, falhas, gravações e ocupação de cada região, em ordem alfabética.
+     * Entradas fica em -1 quando o provedor não informa a ocupação
+     */
+    public List<EstatisticasCacheDTO> obterEstatisticas() {
+        Statistics estatisticas = sessionFactory().getStatistics();
+        return Arrays.stream(estatisticas.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(regiao -> converter(regiao, estatisticas.getCacheRegionStatistics(regiao)))
+                .toList();
+    }
+
+    /**
+     * Descarta todas as entidades e consultas em cache, mantendo as estatísticas
+     */
+    public void limpar() {
+        sessionFactory().getCache().evictAll();
+    }
+
+    private EstatisticasCacheDTO converter(String regiao, CacheRegionStatistics estatisticas) {
+        if (estatisticas == null) {
+            return new EstatisticasCacheDTO(regiao, -1, 0, 0, 0, 0);
+        }
+        long entradas = estatisticas.getElementCountInMemory();
+        return new EstatisticasCacheDTO(
+                regiao,
+                entradas < 0 ? -1 : entradas,
+                estatisticas.getHitCount(),
+                estatisticas.getMissCount(),
+                0,
+                estatisticas.getPutCount());
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
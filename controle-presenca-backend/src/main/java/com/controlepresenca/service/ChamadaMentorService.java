@@ -3,18 +3,25 @@ package com.controlepresenca.service;
 import com.controlepresenca.dto.*;
 import com.controlepresenca.entity.ChamadaMentor;
 import com.controlepresenca.entity.ChamadaMentorParticipante;
-import com.controlepresenca.entity.Mentor;
 import com.controlepresenca.repository.ChamadaMentorParticipanteRepository;
 import com.controlepresenca.repository.ChamadaMentorRepository;
 import com.controlepresenca.repository.MentorRepository;
+import com.controlepresenca.service.CacheReferencias.MentorReferencia;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service para operações de negócio relacionadas a Chamadas de Mentores
@@ -32,6 +39,12 @@ public class ChamadaMentorService {
     @Autowired
     private MentorRepository mentorRepository;
     
+    @Autowired
+    private RelatorioCache relatorioCache;
+    
+    @Autowired
+    private CacheReferencias cacheReferencias;
+    
     /**
      * Criar nova chamada de mentor
      */
@@ -49,19 +62,10 @@ public class ChamadaMentorService {
         chamada = chamadaMentorRepository.save(chamada);
         
         // Criar os participantes
-        if (criarChamadaDTO.getParticipantes() != null && !criarChamadaDTO.getParticipantes().isEmpty()) {
-            for (CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO participanteDTO : criarChamadaDTO.getParticipantes()) {
-                Mentor mentor = mentorRepository.findById(participanteDTO.getMentorId())
-                        .orElseThrow(() -> new RuntimeException("Mentor não encontrado: " + participanteDTO.getMentorId()));
-                
-                ChamadaMentorParticipante participante = new ChamadaMentorParticipante();
-                participante.setChamadaMentor(chamada);
-                participante.setMentor(mentor);
-                participante.setPresente(participanteDTO.getPresente());
-                
-                participanteRepository.save(participante);
-            }
-        }
+        inserirParticipantes(chamada, presencaPorMentor(criarChamadaDTO));
+        chamadaMentorRepository.recalcularContadores(List.of(chamada.getId()));
+        // O relatório de participações de mentores não tem turma
+        relatorioCache.invalidarTurma(null);
         
         return buscarPorId(chamada.getId());
     }
@@ -71,10 +75,17 @@ public class ChamadaMentorService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaMentorDTO> listarTodas() {
-        List<ChamadaMentor> chamadas = chamadaMentorRepository.findAllByOrderByDataChamadaDesc();
-        return chamadas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return chamadaMentorRepository.findResumoChamadas(null, null);
+    }
+    
+    /**
+     * Todas as chamadas de mentor como fluxo, para a listagem em streaming
+     * 
+     * Deve ser consumido e fechado dentro de uma transação aberta por quem chamou
+     */
+    @Transactional(readOnly = true)
+    public Stream<ChamadaMentorDTO> streamTodas() {
+        return chamadaMentorRepository.streamResumoChamadas(null, null);
     }
     
     /**
@@ -104,10 +115,7 @@ public class ChamadaMentorService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaMentorDTO> listarPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        List<ChamadaMentor> chamadas = chamadaMentorRepository.findByDataChamadaBetweenOrderByDataChamadaDesc(dataInicio, dataFim);
-        return chamadas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return chamadaMentorRepository.findResumoChamadas(dataInicio, dataFim);
     }
     
     /**
@@ -129,24 +137,41 @@ public class ChamadaMentorService {
         
         chamada = chamadaMentorRepository.save(chamada);
         
-        // Remover participantes existentes
-        List<ChamadaMentorParticipante> participantesExistentes = participanteRepository.findByChamadaMentorIdOrderByMentorNome(id);
-        participanteRepository.deleteAll(participantesExistentes);
+        // Comparar os participantes enviados com os gravados
+        Map<Long, Boolean> solicitados = presencaPorMentor(criarChamadaDTO);
+        Map<Long, Boolean> atuais = new HashMap<>();
+        for (Object[] linha : participanteRepository.findStatusByChamadaMentorId(id)) {
+            atuais.put((Long) linha[0], (Boolean) linha[1]);
+        }
+        
+        Set<Long> removidos = new HashSet<>(atuais.keySet());
+        removidos.removeAll(solicitados.keySet());
         
-        // Criar novos participantes
-        if (criarChamadaDTO.getParticipantes() != null && !criarChamadaDTO.getParticipantes().isEmpty()) {
-            for (CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO participanteDTO : criarChamadaDTO.getParticipantes()) {
-                Mentor mentor = mentorRepository.findById(participanteDTO.getMentorId())
-                        .orElseThrow(() -> new RuntimeException("Mentor não encontrado: " + participanteDTO.getMentorId()));
-                
-                ChamadaMentorParticipante participante = new ChamadaMentorParticipante();
-                participante.setChamadaMentor(chamada);
-                participante.setMentor(mentor);
-                participante.setPresente(participanteDTO.getPresente());
-                
-                participanteRepository.save(participante);
+        Set<Long> marcarPresentes = new HashSet<>();
+        Set<Long> marcarAusentes = new HashSet<>();
+        Map<Long, Boolean> novos = new LinkedHashMap<>();
+        solicitados.forEach((mentorId, presente) -> {
+            Boolean atual = atuais.get(mentorId);
+            if (atual == null) {
+                novos.put(mentorId, presente);
+            } else if (!atual.equals(presente)) {
+                (presente ? marcarPresentes : marcarAusentes).add(mentorId);
             }
+        });
+        
+        // Aplicar a diferença: remoção, atualizações e inserções em lote
+        if (!removidos.isEmpty()) {
+            participanteRepository.removerPorMentores(id, removidos);
+        }
+        if (!marcarPresentes.isEmpty()) {
+            participanteRepository.atualizarPresenca(id, marcarPresentes, true);
         }
+        if (!marcarAusentes.isEmpty()) {
+            participanteRepository.atualizarPresenca(id, marcarAusentes, false);
+        }
+        inserirParticipantes(chamada, novos);
+        chamadaMentorRepository.recalcularContadores(List.of(chamada.getId()));
+        relatorioCache.invalidarTurma(null);
         
         return buscarPorId(chamada.getId());
     }
@@ -159,6 +184,7 @@ public class ChamadaMentorService {
             throw new RuntimeException("Chamada de mentor não encontrada");
         }
         chamadaMentorRepository.deleteById(id);
+        relatorioCache.invalidarTurma(null);
     }
     
     /**
@@ -175,14 +201,11 @@ public class ChamadaMentorService {
         stats.setTotalChamadas((int) chamadaMentorRepository.count());
         stats.setTotalChamadasMesAtual((int) chamadaMentorRepository.countByDataChamadaBetween(inicioMes, fimMes));
         
-        // Verificar se existe chamada hoje
-        Optional<ChamadaMentor> chamadaHoje = chamadaMentorRepository.findByDataChamada(hoje);
-        if (chamadaHoje.isPresent()) {
-            long totalPresentes = participanteRepository.countByChamadaMentorIdAndPresenteTrue(chamadaHoje.get().getId());
-            long totalAusentes = participanteRepository.countByChamadaMentorIdAndPresenteFalse(chamadaHoje.get().getId());
-            
-            stats.setTotalPresentesHoje((int) totalPresentes);
-            stats.setTotalAusentesHoje((int) totalAusentes);
+        // Verificar se existe chamada hoje (a data é única, então há no máximo um resumo)
+        List<ChamadaMentorDTO> resumoHoje = chamadaMentorRepository.findResumoChamadas(hoje, hoje);
+        if (!resumoHoje.isEmpty()) {
+            stats.setTotalPresentesHoje(resumoHoje.get(0).getTotalPresentes());
+            stats.setTotalAusentesHoje(resumoHoje.get(0).getTotalAusentes());
         } else {
             stats.setTotalPresentesHoje(0);
             stats.setTotalAusentesHoje(0);
@@ -192,28 +215,45 @@ public class ChamadaMentorService {
     }
     
     /**
-     * Converter entidade ChamadaMentor para DTO
+     * Indexa a presença solicitada por ID do mentor (a última ocorrência de um mentor prevalece)
      */
-    private ChamadaMentorDTO convertToDTO(ChamadaMentor chamada) {
-        ChamadaMentorDTO dto = new ChamadaMentorDTO(chamada);
+    private Map<Long, Boolean> presencaPorMentor(CriarChamadaMentorDTO criarChamadaDTO) {
+        Map<Long, Boolean> presencas = new LinkedHashMap<>();
+        if (criarChamadaDTO.getParticipantes() != null) {
+            for (CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO participanteDTO : criarChamadaDTO.getParticipantes()) {
+                presencas.put(participanteDTO.getMentorId(), Boolean.TRUE.equals(participanteDTO.getPresente()));
+            }
+        }
+        return presencas;
+    }
+    
+    /**
+     * Valida os mentores pelo cache de referências (uma única consulta para os que faltam) e
+     * insere as participações em lote
+     */
+    private void inserirParticipantes(ChamadaMentor chamada, Map<Long, Boolean> presencaPorMentor) {
+        if (presencaPorMentor.isEmpty()) {
+            return;
+        }
         
-        // Adicionar estatísticas básicas
-        long totalParticipantes = participanteRepository.countByChamadaMentorId(chamada.getId());
-        long totalPresentes = participanteRepository.countByChamadaMentorIdAndPresenteTrue(chamada.getId());
-        long totalAusentes = participanteRepository.countByChamadaMentorIdAndPresenteFalse(chamada.getId());
+        Map<Long, MentorReferencia> mentores = cacheReferencias.buscarMentores(presencaPorMentor.keySet());
         
-        dto.setTotalMentores((int) totalParticipantes);
-        dto.setTotalPresentes((int) totalPresentes);
-        dto.setTotalAusentes((int) totalAusentes);
+        List<ChamadaMentorParticipante> participantes = new ArrayList<>();
+        presencaPorMentor.forEach((mentorId, presente) -> {
+            if (!mentores.containsKey(mentorId)) {
+                throw new RuntimeException("Mentor não encontrado: " + mentorId);
+            }
+            participantes.add(new ChamadaMentorParticipante(chamada, mentorRepository.getReferenceById(mentorId), presente));
+        });
         
-        return dto;
+        participanteRepository.saveAll(participantes);
     }
     
     /**
      * Converter entidade ChamadaMentor para DTO com participantes
      */
     private ChamadaMentorDTO convertToDTOWithParticipantes(ChamadaMentor chamada) {
-        ChamadaMentorDTO dto = convertToDTO(chamada);
+        ChamadaMentorDTO dto = new ChamadaMentorDTO(chamada);
         
         // Adicionar participantes
         List<ChamadaMentorParticipante> participantes = participanteRepository.findByChamadaMentorIdWithMentorAndChamada(chamada.getId());
@@ -223,6 +263,12 @@ public class ChamadaMentorService {
         
         dto.setParticipantes(participantesDTO);
         
+        // Estatísticas calculadas a partir dos participantes já carregados
+        int totalPresentes = (int) participantes.stream().filter(ChamadaMentorParticipante::getPresente).count();
+        dto.setTotalMentores(participantes.size());
+        dto.setTotalPresentes(totalPresentes);
+        dto.setTotalAusentes(participantes.size() - totalPresentes);
+        
         return dto;
     }
     
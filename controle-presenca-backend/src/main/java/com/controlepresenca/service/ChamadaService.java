@@ -3,15 +3,27 @@ package com.controlepresenca.service;
 import com.controlepresenca.dto.*;
 import com.controlepresenca.entity.*;
 import com.controlepresenca.repository.*;
+import com.controlepresenca.service.CacheReferencias.TurmaReferencia;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service para operações de negócio relacionadas a Chamadas
@@ -32,12 +44,24 @@ public class ChamadaService {
     @Autowired
     private AlunoRepository alunoRepository;
     
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+    
+    @Autowired
+    private RelatorioCache relatorioCache;
+    
+    @Autowired
+    private CacheReferencias cacheReferencias;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * Criar uma nova chamada com os status de presença dos alunos
      */
     public ChamadaDTO criarChamada(CriarChamadaDTO criarChamadaDTO) {
         // Verificar se a turma existe
-        Turma turma = turmaRepository.findById(criarChamadaDTO.getTurmaId())
+        TurmaReferencia turma = cacheReferencias.buscarTurma(criarChamadaDTO.getTurmaId())
                 .orElseThrow(() -> new RuntimeException("Turma não encontrada"));
         
         // Verificar se já existe uma chamada para esta turma nesta data
@@ -47,38 +71,60 @@ public class ChamadaService {
         
         // Criar a chamada
         Chamada chamada = new Chamada();
-        chamada.setTurma(turma);
+        chamada.setTurma(turmaRepository.getReferenceById(turma.getId()));
         chamada.setDataChamada(criarChamadaDTO.getDataChamada());
         chamada.setObservacoes(criarChamadaDTO.getObservacoes());
         
         chamada = chamadaRepository.save(chamada);
         
+        // Carregar e validar a lista de alunos em uma única consulta restrita à turma
+        Map<Long, Aluno> alunosDaTurma = carregarAlunosDaTurma(criarChamadaDTO.getTurmaId(), criarChamadaDTO.getAlunos());
+        
         // Criar os registros de presença/falta para cada aluno
         List<ChamadaAluno> chamadaAlunos = new ArrayList<>();
         
         for (CriarChamadaDTO.StatusAlunoDTO statusAluno : criarChamadaDTO.getAlunos()) {
-            Aluno aluno = alunoRepository.findById(statusAluno.getAlunoId())
-                    .orElseThrow(() -> new RuntimeException("Aluno não encontrado: " + statusAluno.getAlunoId()));
-            
-            // Verificar se o aluno pertence à turma
-            if (!aluno.getTurma().getId().equals(criarChamadaDTO.getTurmaId())) {
-                throw new RuntimeException("Aluno " + aluno.getNome() + " não pertence à turma selecionada");
-            }
-            
             ChamadaAluno chamadaAluno = new ChamadaAluno();
             chamadaAluno.setChamada(chamada);
-            chamadaAluno.setAluno(aluno);
+            chamadaAluno.setAluno(alunosDaTurma.get(statusAluno.getAlunoId()));
             chamadaAluno.setPresente(statusAluno.getPresente());
             
             chamadaAlunos.add(chamadaAluno);
         }
         
         chamadaAlunoRepository.saveAll(chamadaAlunos);
+        chamadaRepository.recalcularContadores(List.of(chamada.getId()));
+        periodoFechadoCache.marcarMesDesatualizado(turma.getId(), chamada.getDataChamada());
+        relatorioCache.invalidarTurma(turma.getId());
         
         // Retornar o DTO da chamada criada
         return buscarChamadaPorId(chamada.getId());
     }
     
+    /**
+     * Carrega os alunos da chamada que pertencem à turma, indexados por ID
+     * 
+     * Os alunos ausentes do resultado só são consultados individualmente para compor a mensagem de erro
+     */
+    private Map<Long, Aluno> carregarAlunosDaTurma(Long turmaId, List<CriarChamadaDTO.StatusAlunoDTO> statusAlunos) {
+        Set<Long> alunoIds = statusAlunos.stream()
+                .map(CriarChamadaDTO.StatusAlunoDTO::getAlunoId)
+                .collect(Collectors.toSet());
+        
+        Map<Long, Aluno> alunos = alunoRepository.findByTurmaIdAndIdIn(turmaId, alunoIds).stream()
+                .collect(Collectors.toMap(Aluno::getId, Function.identity()));
+        
+        for (Long alunoId : alunoIds) {
+            if (!alunos.containsKey(alunoId)) {
+                Aluno aluno = alunoRepository.findById(alunoId)
+                        .orElseThrow(() -> new RuntimeException("Aluno não encontrado: " + alunoId));
+                throw new RuntimeException("Aluno " + aluno.getNome() + " não pertence à turma selecionada");
+            }
+        }
+        
+        return alunos;
+    }
+    
     /**
      * Buscar chamada por ID com todos os detalhes
      */
@@ -98,10 +144,7 @@ public class ChamadaService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaDTO> listarChamadas() {
-        List<Chamada> chamadas = chamadaRepository.findAllByOrderByDataChamadaDesc();
-        return chamadas.stream()
-                .map(this::convertToDTOSimples)
-                .collect(Collectors.toList());
+        return chamadaRepository.findResumoChamadas(null, null, null);
     }
     
     /**
@@ -109,10 +152,7 @@ public class ChamadaService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaDTO> listarChamadasPorTurma(Long turmaId) {
-        List<Chamada> chamadas = chamadaRepository.findByTurmaIdWithTurma(turmaId);
-        return chamadas.stream()
-                .map(this::convertToDTOSimples)
-                .collect(Collectors.toList());
+        return chamadaRepository.findResumoChamadas(turmaId, null, null);
     }
     
     /**
@@ -120,10 +160,7 @@ public class ChamadaService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaDTO> listarChamadasPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
-        List<Chamada> chamadas = chamadaRepository.findByDataChamadaBetweenOrderByDataChamadaDesc(dataInicio, dataFim);
-        return chamadas.stream()
-                .map(this::convertToDTOSimples)
-                .collect(Collectors.toList());
+        return chamadaRepository.findResumoChamadas(null, dataInicio, dataFim);
     }
     
     /**
@@ -131,10 +168,51 @@ public class ChamadaService {
      */
     @Transactional(readOnly = true)
     public List<ChamadaDTO> listarChamadasPorTurmaEPeriodo(Long turmaId, LocalDate dataInicio, LocalDate dataFim) {
-        List<Chamada> chamadas = chamadaRepository.findByTurmaIdAndDataChamadaBetweenOrderByDataChamadaDesc(turmaId, dataInicio, dataFim);
-        return chamadas.stream()
-                .map(this::convertToDTOSimples)
-                .collect(Collectors.toList());
+        return chamadaRepository.findResumoChamadas(turmaId, dataInicio, dataFim);
+    }
+    
+    /**
+     * Escrever os registros de ChamadaAluno em NDJSON (um objeto JSON por linha) na saída informada
+     * 
+     * Os registros são lidos por cursor em ordem de ID e gravados um a um com o gerador de
+     * streaming do Jackson, de modo que o uso de memória não depende da quantidade exportada.
+     * 
+     * A exportação é um retrato dos registros do período, não um feed de alterações. O ID do
+     * último registro recebido pode ser informado em afterId para retomar uma transferência
+     * interrompida, mas registros gravados depois com IDs menores e presenças alteradas por
+     * atualizarChamada não são enviados de novo; para refletir essas mudanças, o período deve
+     * ser exportado novamente por inteiro
+     */
+    @Transactional(readOnly = true)
+    public void escreverExportacaoNdjson(Long turmaId, LocalDate dataInicio, LocalDate dataFim, Long afterId,
+                                         OutputStream saida) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(saida);
+        // A saída pertence a quem chamou; cada linha termina com quebra de linha própria
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        
+        try (Stream<ChamadaAlunoExportacaoDTO> registros = chamadaAlunoRepository.streamExportacao(
+                afterId != null ? afterId : 0L, turmaId, dataInicio, dataFim)) {
+            Iterator<ChamadaAlunoExportacaoDTO> iterator = registros.iterator();
+            while (iterator.hasNext()) {
+                ChamadaAlunoExportacaoDTO registro = iterator.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", registro.getId());
+                generator.writeNumberField("chamadaId", registro.getChamadaId());
+                generator.writeObjectField("dataChamada", registro.getDataChamada());
+                generator.writeNumberField("turmaId", registro.getTurmaId());
+                generator.writeStringField("turmaNome", registro.getTurmaNome());
+                generator.writeStringField("turmaCodigo", registro.getTurmaCodigo());
+                generator.writeNumberField("alunoId", registro.getAlunoId());
+                generator.writeStringField("alunoNome", registro.getAlunoNome());
+                generator.writeStringField("alunoMatricula", registro.getAlunoMatricula());
+                generator.writeBooleanField("presente", registro.getPresente());
+                generator.writeObjectField("dataRegistro", registro.getDataRegistro());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        generator.flush();
     }
     
     /**
@@ -148,17 +226,43 @@ public class ChamadaService {
         chamada.setObservacoes(atualizarChamadaDTO.getObservacoes());
         chamada = chamadaRepository.save(chamada);
         
-        // Atualizar status de presença dos alunos
+        // Comparar com o status gravado e separar apenas os alunos cuja presença mudou
+        Map<Long, Boolean> statusAtual = new HashMap<>();
+        for (Object[] linha : chamadaAlunoRepository.findStatusByChamadaId(id)) {
+            statusAtual.put((Long) linha[0], (Boolean) linha[1]);
+        }
+        
+        // Um aluno repetido na lista vale pelo último status informado
+        Map<Long, Boolean> statusSolicitado = new HashMap<>();
         for (CriarChamadaDTO.StatusAlunoDTO statusAluno : atualizarChamadaDTO.getAlunos()) {
-            Optional<ChamadaAluno> chamadaAlunoOpt = chamadaAlunoRepository.findByChamadaIdAndAlunoId(id, statusAluno.getAlunoId());
+            if (statusAluno.getPresente() != null) {
+                statusSolicitado.put(statusAluno.getAlunoId(), statusAluno.getPresente());
+            }
+        }
+        
+        Set<Long> marcarPresentes = new HashSet<>();
+        Set<Long> marcarAusentes = new HashSet<>();
+        for (Map.Entry<Long, Boolean> status : statusSolicitado.entrySet()) {
+            Boolean atual = statusAtual.get(status.getKey());
             
-            if (chamadaAlunoOpt.isPresent()) {
-                ChamadaAluno chamadaAluno = chamadaAlunoOpt.get();
-                chamadaAluno.setPresente(statusAluno.getPresente());
-                chamadaAlunoRepository.save(chamadaAluno);
+            if (atual != null && !atual.equals(status.getValue())) {
+                (status.getValue() ? marcarPresentes : marcarAusentes).add(status.getKey());
             }
         }
         
+        // Aplicar a diferença com no máximo duas atualizações em lote
+        if (!marcarPresentes.isEmpty()) {
+            chamadaAlunoRepository.atualizarPresenca(id, marcarPresentes, true);
+        }
+        if (!marcarAusentes.isEmpty()) {
+            chamadaAlunoRepository.atualizarPresenca(id, marcarAusentes, false);
+        }
+        if (!marcarPresentes.isEmpty() || !marcarAusentes.isEmpty()) {
+            chamadaRepository.recalcularContadores(List.of(id));
+            periodoFechadoCache.marcarMesDesatualizado(chamada.getTurma().getId(), chamada.getDataChamada());
+            relatorioCache.invalidarTurma(chamada.getTurma().getId());
+        }
+        
         return buscarChamadaPorId(id);
     }
     
@@ -166,12 +270,13 @@ public class ChamadaService {
      * Remover uma chamada
      */
     public void removerChamada(Long id) {
-        if (!chamadaRepository.existsById(id)) {
-            throw new RuntimeException("Chamada não encontrada");
-        }
+        Chamada chamada = chamadaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Chamada não encontrada"));
         
         // Os registros de ChamadaAluno serão removidos automaticamente devido ao CASCADE
-        chamadaRepository.deleteById(id);
+        chamadaRepository.delete(chamada);
+        periodoFechadoCache.marcarMesDesatualizado(chamada.getTurma().getId(), chamada.getDataChamada());
+        relatorioCache.invalidarTurma(chamada.getTurma().getId());
     }
     
     /**
@@ -214,30 +319,6 @@ public class ChamadaService {
         return dto;
     }
     
-    /**
-     * Converter entidade Chamada para DTO simples (sem lista de alunos)
-     */
-    private ChamadaDTO convertToDTOSimples(Chamada chamada) {
-        ChamadaDTO dto = new ChamadaDTO();
-        dto.setId(chamada.getId());
-        dto.setTurmaId(chamada.getTurma().getId());
-        dto.setTurmaNome(chamada.getTurma().getNome());
-        dto.setTurmaCodigo(chamada.getTurma().getCodigo());
-        dto.setDataChamada(chamada.getDataChamada());
-        dto.setObservacoes(chamada.getObservacoes());
-        dto.setDataCriacao(chamada.getDataCriacao());
-        
-        // Calcular estatísticas básicas
-        long totalPresentes = chamadaAlunoRepository.countByChamadaIdAndPresenteTrue(chamada.getId());
-        long totalFaltas = chamadaAlunoRepository.countByChamadaIdAndPresenteFalse(chamada.getId());
-        
-        dto.setTotalPresentes((int) totalPresentes);
-        dto.setTotalFaltas((int) totalFaltas);
-        dto.setTotalAlunos((int) (totalPresentes + totalFaltas));
-        
-        return dto;
-    }
-    
     /**
      * Converter entidade ChamadaAluno para DTO
      */
@@ -0,0 +1,106 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.repository.AlunoRepository;
+import com.controlepresenca.repository.ChamadaMentorRepository;
+import com.controlepresenca.repository.ChamadaRepository;
+import com.controlepresenca.repository.TurmaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Service que reconcilia os contadores desnormalizados com as contagens reais
+ *
+ * Os contadores são mantidos na mesma transação das escritas, mas este job detecta
+ * e corrige eventuais divergências (ex.: alterações feitas direto no banco) em lotes,
+ * cada lote em sua própria transação
+ */
+@Service
+public class ContadorReconciliacaoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContadorReconciliacaoService.class);
+
+    @Autowired
+    private AlunoRepository alunoRepository;
+
+    @Autowired
+    private TurmaRepository turmaRepository;
+
+    @Autowired
+    private ChamadaRepository chamadaRepository;
+
+    @Autowired
+    private ChamadaMentorRepository chamadaMentorRepository;
+
+    @Autowired
+    private VersoesAgregados versoes;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Value("${contadores.reconciliacao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    /**
+     * Executa a reconciliação de todos os contadores conforme o agendamento configurado
+     */
+    @Scheduled(cron = "${contadores.reconciliacao.cron:0 30 3 * * *}")
+    public void reconciliarAgendado() {
+        reconciliarTodos();
+    }
+
+    /**
+     * Reconcilia todos os contadores e retorna o total de registros corrigidos
+     */
+    public int reconciliarTodos() {
+        int corrigidos = 0;
+        int alunos = reconciliar("alunos", alunoRepository::findIdsComContadoresDivergentes, alunoRepository::recalcularContadores);
+        if (alunos > 0) {
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS);
+        }
+        int turmas = reconciliar("turmas", turmaRepository::findIdsComContadoresDivergentes, turmaRepository::recalcularContadores);
+        if (turmas > 0) {
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS);
+        }
+        if (alunos > 0 || turmas > 0) {
+            // Os relatórios de alunos e turmas em cache trazem os contadores antigos
+            relatorioCache.limpar();
+        }
+        corrigidos += alunos + turmas;
+        corrigidos += reconciliar("chamadas", chamadaRepository::findIdsComContadoresDivergentes, chamadaRepository::recalcularContadores);
+        corrigidos += reconciliar("chamadas_mentores", chamadaMentorRepository::findIdsComContadoresDivergentes, chamadaMentorRepository::recalcularContadores);
+        return corrigidos;
+    }
+
+    /**
+     * Percorre a tabela em ordem de ID, buscando lotes de registros divergentes e recalculando cada lote
+     */
+    private int reconciliar(String tabela,
+                            BiFunction<Long, Pageable, List<Long>> buscarDivergentes,
+                            Function<List<Long>, Integer> recalcular) {
+        Pageable lote = PageRequest.of(0, tamanhoLote);
+        long ultimoId = 0L;
+        int corrigidos = 0;
+
+        List<Long> ids = buscarDivergentes.apply(ultimoId, lote);
+        while (!ids.isEmpty()) {
+            corrigidos += recalcular.apply(ids);
+            ultimoId = ids.get(ids.size() - 1);
+            ids = buscarDivergentes.apply(ultimoId, lote);
+        }
+
+        if (corrigidos > 0) {
+            logger.warn("Reconciliação de contadores: {} registro(s) corrigido(s) em {}", corrigidos, tabela);
+        }
+        return corrigidos;
+    }
+}
@@ -0,0 +1,71 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.PresencaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Posição da paginação de presenças: (data, hora, id) do último item entregue
+ *
+ * Trafega para o cliente como um token opaco em Base64 URL-safe
+ */
+public final class CursorPresenca {
+
+    private static final String SEPARADOR = "|";
+
+    private final LocalDate data;
+    private final LocalTime hora;
+    private final Long id;
+
+    private CursorPresenca(LocalDate data, LocalTime hora, Long id) {
+        this.data = data;
+        this.hora = hora;
+        this.id = id;
+    }
+
+    /**
+     * Cria o cursor posicionado na presença informada
+     */
+    public static CursorPresenca de(PresencaDTO presenca) {
+        return new CursorPresenca(presenca.getDataPresenca(), presenca.getHoraPresenca(), presenca.getId());
+    }
+
+    /**
+     * Decodifica um token recebido do cliente
+     */
+    public static CursorPresenca decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split("\\" + SEPARADOR);
+            if (partes.length != 3) {
+                throw new IllegalArgumentException("Cursor de paginação inválido");
+            }
+            return new CursorPresenca(LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), Long.valueOf(partes[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido", e);
+        }
+    }
+
+    /**
+     * Codifica o cursor como token opaco
+     */
+    public String codificar() {
+        String valor = data + SEPARADOR + hora + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public LocalTime getHora() {
+        return hora;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,63 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.DashboardResumoDTO;
+import com.controlepresenca.dto.GraficoTurmaDTO;
+import com.controlepresenca.repository.PresencaRepository;
+import com.controlepresenca.repository.TurmaRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service que monta o resumo do dashboard
+ *
+ * Os totais vêm dos contadores desnormalizados das turmas (uma consulta sobre a tabela de
+ * turmas, que é pequena), as presenças do dia de uma contagem pelo índice de data e as
+ * estatísticas de mentores do ChamadaMentorService; nenhuma listagem é carregada
+ */
+@Service
+@Transactional(readOnly = true)
+public class DashboardService {
+
+    @Autowired
+    private TurmaRepository turmaRepository;
+
+    @Autowired
+    private PresencaRepository presencaRepository;
+
+    @Autowired
+    private ChamadaMentorService chamadaMentorService;
+
+    /**
+     * Resumo do dashboard na data atual
+     */
+    public DashboardResumoDTO obterResumo() {
+        LocalDate hoje = LocalDate.now();
+        DashboardResumoDTO resumo = new DashboardResumoDTO();
+        resumo.setData(hoje);
+
+        // Alunos ativos e presenças somam todas as turmas; o gráfico e o total de turmas só as ativas
+        List<GraficoTurmaDTO> turmasAtivas = new ArrayList<>();
+        long totalAlunos = 0;
+        long totalPresencas = 0;
+        for (GraficoTurmaDTO turma : turmaRepository.findGraficoTurmas()) {
+            totalAlunos += turma.getTotalAlunos() != null ? turma.getTotalAlunos() : 0;
+            totalPresencas += turma.getTotalPresencas() != null ? turma.getTotalPresencas() : 0;
+            if (Boolean.TRUE.equals(turma.getAtiva())) {
+                turmasAtivas.add(turma);
+            }
+        }
+        resumo.setTotalTurmas(turmasAtivas.size());
+        resumo.setTotalAlunos(totalAlunos);
+        resumo.setTotalPresencas(totalPresencas);
+        resumo.setTurmas(turmasAtivas);
+
+        resumo.setPresencasHoje(presencaRepository.countByDataPresenca(hoje));
+        resumo.setChamadasMentores(chamadaMentorService.obterEstatisticas());
+        return resumo;
+    }
+}
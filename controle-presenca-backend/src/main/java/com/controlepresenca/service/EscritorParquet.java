@@ -0,0 +1,580 @@
+package com.controlepresenca.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Escreve arquivos Parquet com colunas planas, linha a linha, em uma saída sequencial
+ *
+ * As linhas são acumuladas apenas até completar um grupo de linhas, que é então gravado
+ * coluna a coluna (uma página por coluna, comprimida com GZIP). Colunas com dicionário gravam
+ * os valores distintos do grupo uma única vez e, nas linhas, apenas os índices em RLE. Datas
+ * são gravadas como INT32 do tipo DATE, ou seja, em dias desde 1970-01-01
+ */
+public final class EscritorParquet {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    // Tipos físicos, tipos convertidos, codificações e páginas da especificação do Parquet
+    private static final int TIPO_BOOLEAN = 0;
+    private static final int TIPO_INT32 = 1;
+    private static final int TIPO_INT64 = 2;
+    private static final int TIPO_BYTE_ARRAY = 6;
+    private static final int CONVERTIDO_UTF8 = 0;
+    private static final int CONVERTIDO_DATE = 6;
+    private static final int CONVERTIDO_TIME_MILLIS = 7;
+    private static final int CODIFICACAO_PLAIN = 0;
+    private static final int CODIFICACAO_RLE = 3;
+    private static final int CODIFICACAO_RLE_DICTIONARY = 8;
+    private static final int COMPRESSAO_GZIP = 2;
+    private static final int PAGINA_DADOS = 0;
+    private static final int PAGINA_DICIONARIO = 2;
+
+    /**
+     * Tipos de coluna suportados
+     */
+    public enum TipoColuna {
+        INTEIRO(TIPO_INT64, null),
+        DATA(TIPO_INT32, CONVERTIDO_DATE),
+        HORA(TIPO_INT32, CONVERTIDO_TIME_MILLIS),
+        TEXTO(TIPO_BYTE_ARRAY, CONVERTIDO_UTF8),
+        BOOLEANO(TIPO_BOOLEAN, null);
+
+        private final int tipoFisico;
+        private final Integer tipoConvertido;
+
+        TipoColuna(int tipoFisico, Integer tipoConvertido) {
+            this.tipoFisico = tipoFisico;
+            this.tipoConvertido = tipoConvertido;
+        }
+    }
+
+    /**
+     * Definição de uma coluna do arquivo
+     */
+    public static final class Coluna {
+        private final String nome;
+        private final TipoColuna tipo;
+        private final boolean dicionario;
+        private final boolean opcional;
+
+        private Coluna(String nome, TipoColuna tipo, boolean dicionario, boolean opcional) {
+            this.nome = nome;
+            this.tipo = tipo;
+            this.dicionario = dicionario;
+            this.opcional = opcional;
+        }
+
+        public static Coluna inteiro(String nome) {
+            return new Coluna(nome, TipoColuna.INTEIRO, false, false);
+        }
+
+        public static Coluna data(String nome) {
+            return new Coluna(nome, TipoColuna.DATA, false, false);
+        }
+
+        public static Coluna hora(String nome) {
+            return new Coluna(nome, TipoColuna.HORA, false, false);
+        }
+
+        public static Coluna texto(String nome) {
+            return new Coluna(nome, TipoColuna.TEXTO, false, false);
+        }
+
+        public static Coluna booleano(String nome) {
+            return new Coluna(nome, TipoColuna.BOOLEANO, false, false);
+        }
+
+        /**
+         * Mesma coluna, gravada com dicionário de valores distintos
+         */
+        public Coluna comDicionario() {
+            if (tipo == TipoColuna.BOOLEANO) {
+                throw new IllegalArgumentException("Coluna booleana não usa dicionário: " + nome);
+            }
+            return new Coluna(nome, tipo, true, opcional);
+        }
+
+        /**
+         * Mesma coluna, aceitando valores nulos
+         */
+        public Coluna opcional() {
+            return new Coluna(nome, tipo, dicionario, true);
+        }
+    }
+
+    private final SaidaContada saida;
+    private final List<Coluna> colunas;
+    private final int linhasPorGrupo;
+    private final List<List<Object>> valoresGrupo = new ArrayList<>();
+    private final List<byte[]> gruposGravados = new ArrayList<>();
+    private long totalLinhas;
+
+    /**
+     * Inicia o arquivo na saída informada, que não é fechada pelo escritor
+     */
+    public EscritorParquet(OutputStream saida, List<Coluna> colunas, int linhasPorGrupo) throws IOException {
+        if (linhasPorGrupo <= 0) {
+            throw new IllegalArgumentException("Quantidade de linhas por grupo deve ser positiva");
+        }
+        this.saida = new SaidaContada(saida);
+        this.colunas = List.copyOf(colunas);
+        this.linhasPorGrupo = linhasPorGrupo;
+        for (int i = 0; i < colunas.size(); i++) {
+            valoresGrupo.add(new ArrayList<>());
+        }
+        this.saida.write(MAGIC);
+    }
+
+    /**
+     * Acrescenta uma linha, com um valor por coluna na ordem da definição
+     *
+     * Valores aceitos: Long/Integer (INTEIRO), LocalDate (DATA), LocalTime (HORA),
+     * String (TEXTO) e Boolean (BOOLEANO); nulos apenas em colunas opcionais
+     */
+    public void escreverLinha(Object... valores) throws IOException {
+        if (valores.length != colunas.size()) {
+            throw new IllegalArgumentException("Linha com " + valores.length + " valores para "
+                    + colunas.size() + " colunas");
+        }
+        for (int i = 0; i < valores.length; i++) {
+            valoresGrupo.get(i).add(converter(colunas.get(i), valores[i]));
+        }
+        totalLinhas++;
+        if (valoresGrupo.get(0).size() >= linhasPorGrupo) {
+            escreverGrupo();
+        }
+    }
+
+    /**
+     * Grava o último grupo de linhas e o rodapé com os metadados; a saída não é fechada
+     */
+    public void finalizar() throws IOException {
+        if (!valoresGrupo.isEmpty() && !valoresGrupo.get(0).isEmpty()) {
+            escreverGrupo();
+        }
+        byte[] rodape = metadadosArquivo();
+        saida.write(rodape);
+        escreverInt32(saida, rodape.length);
+        saida.write(MAGIC);
+        saida.flush();
+    }
+
+    private Object converter(Coluna coluna, Object valor) {
+        if (valor == null) {
+            if (!coluna.opcional) {
+                throw new IllegalArgumentException("Valor nulo na coluna obrigatória " + coluna.nome);
+            }
+            return null;
+        }
+        return switch (coluna.tipo) {
+            case INTEIRO -> ((Number) valor).longValue();
+            case DATA -> (int) ((LocalDate) valor).toEpochDay();
+            case HORA -> (int) (((LocalTime) valor).toNanoOfDay() / 1_000_000);
+            case TEXTO -> valor.toString();
+            case BOOLEANO -> (Boolean) valor;
+        };
+    }
+
+    /**
+     * Grava as colunas do grupo corrente e guarda os metadados do grupo para o rodapé
+     */
+    private void escreverGrupo() throws IOException {
+        int linhas = valoresGrupo.get(0).size();
+        long inicioGrupo = saida.posicao;
+        Thrift grupo = new Thrift();
+        grupo.inicioLista(1, Thrift.STRUCT, colunas.size());
+        long totalDescomprimido = 0;
+        for (int i = 0; i < colunas.size(); i++) {
+            long inicioColuna = saida.posicao;
+            MetadadosColuna metadados = escreverColuna(colunas.get(i), valoresGrupo.get(i));
+            totalDescomprimido += metadados.tamanhoDescomprimido;
+
+            grupo.inicioElementoStruct();
+            grupo.campoI64(2, inicioColuna);
+            grupo.inicioStruct(3);
+            grupo.campoI32(1, colunas.get(i).tipo.tipoFisico);
+            grupo.inicioLista(2, Thrift.I32, metadados.codificacoes.size());
+            metadados.codificacoes.forEach(grupo::elementoI32);
+            grupo.inicioLista(3, Thrift.BINARY, 1);
+            grupo.elementoTexto(colunas.get(i).nome);
+            grupo.campoI32(4, COMPRESSAO_GZIP);
+            grupo.campoI64(5, linhas);
+            grupo.campoI64(6, metadados.tamanhoDescomprimido);
+            grupo.campoI64(7, saida.posicao - inicioColuna);
+            grupo.campoI64(9, metadados.offsetDados);
+            if (metadados.offsetDicionario != null) {
+                grupo.campoI64(11, metadados.offsetDicionario);
+            }
+            grupo.fimStruct();
+            grupo.fimStruct();
+            valoresGrupo.get(i).clear();
+        }
+        grupo.campoI64(2, totalDescomprimido);
+        grupo.campoI64(3, linhas);
+        grupo.campoI64(5, inicioGrupo);
+        grupo.campoI64(6, saida.posicao - inicioGrupo);
+        gruposGravados.add(grupo.bytes());
+    }
+
+    private MetadadosColuna escreverColuna(Coluna coluna, List<Object> valores) throws IOException {
+        List<Object> presentes = new ArrayList<>(valores.size());
+        ByteArrayOutputStream dados = new ByteArrayOutputStream();
+        if (coluna.opcional) {
+            int[] niveis = new int[valores.size()];
+            for (int i = 0; i < valores.size(); i++) {
+                niveis[i] = valores.get(i) != null ? 1 : 0;
+            }
+            byte[] niveisCodificados = rleHibrido(niveis, niveis.length, 1);
+            escreverInt32(dados, niveisCodificados.length);
+            dados.write(niveisCodificados);
+        }
+        for (Object valor : valores) {
+            if (valor != null) {
+                presentes.add(valor);
+            }
+        }
+
+        MetadadosColuna metadados = new MetadadosColuna();
+        if (coluna.dicionario && !presentes.isEmpty()) {
+            Map<Object, Integer> dicionario = new LinkedHashMap<>();
+            int[] indices = new int[presentes.size()];
+            for (int i = 0; i < presentes.size(); i++) {
+                Integer indice = dicionario.get(presentes.get(i));
+                if (indice == null) {
+                    indice = dicionario.size();
+                    dicionario.put(presentes.get(i), indice);
+                }
+                indices[i] = indice;
+            }
+            metadados.offsetDicionario = saida.posicao;
+            metadados.tamanhoDescomprimido += escreverPagina(PAGINA_DICIONARIO,
+                    plain(coluna, dicionario.keySet()), dicionario.size(), CODIFICACAO_PLAIN);
+
+            int largura = Math.max(1, 32 - Integer.numberOfLeadingZeros(dicionario.size() - 1));
+            dados.write(largura);
+            dados.write(rleHibrido(indices, indices.length, largura));
+            metadados.codificacoes = List.of(CODIFICACAO_PLAIN, CODIFICACAO_RLE, CODIFICACAO_RLE_DICTIONARY);
+            metadados.offsetDados = saida.posicao;
+            metadados.tamanhoDescomprimido += escreverPagina(PAGINA_DADOS, dados.toByteArray(), valores.size(),
+                    CODIFICACAO_RLE_DICTIONARY);
+        } else {
+            dados.write(plain(coluna, presentes));
+            metadados.codificacoes = List.of(CODIFICACAO_PLAIN, CODIFICACAO_RLE);
+            metadados.offsetDados = saida.posicao;
+            metadados.tamanhoDescomprimido += escreverPagina(PAGINA_DADOS, dados.toByteArray(), valores.size(),
+                    CODIFICACAO_PLAIN);
+        }
+        return metadados;
+    }
+
+    /**
+     * Grava cabeçalho e conteúdo comprimido de uma página, devolvendo o tamanho descomprimido
+     */
+    private long escreverPagina(int tipoPagina, byte[] conteudo, int quantidadeValores, int codificacao) throws IOException {
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(conteudo.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(conteudo);
+        }
+
+        Thrift cabecalho = new Thrift();
+        cabecalho.campoI32(1, tipoPagina);
+        cabecalho.campoI32(2, conteudo.length);
+        cabecalho.campoI32(3, comprimido.size());
+        if (tipoPagina == PAGINA_DADOS) {
+            cabecalho.inicioStruct(5);
+            cabecalho.campoI32(1, quantidadeValores);
+            cabecalho.campoI32(2, codificacao);
+            cabecalho.campoI32(3, CODIFICACAO_RLE);
+            cabecalho.campoI32(4, CODIFICACAO_RLE);
+        } else {
+            cabecalho.inicioStruct(7);
+            cabecalho.campoI32(1, quantidadeValores);
+            cabecalho.campoI32(2, codificacao);
+        }
+        cabecalho.fimStruct();
+        cabecalho.fimStruct();
+        byte[] bytesCabecalho = cabecalho.bytes();
+
+        saida.write(bytesCabecalho);
+        comprimido.writeTo(saida);
+        return bytesCabecalho.length + conteudo.length;
+    }
+
+    private byte[] plain(Coluna coluna, Iterable<Object> valores) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        switch (coluna.tipo) {
+            case INTEIRO -> {
+                for (Object valor : valores) {
+                    escreverInt64(bytes, (Long) valor);
+                }
+            }
+            case DATA, HORA -> {
+                for (Object valor : valores) {
+                    escreverInt32(bytes, (Integer) valor);
+                }
+            }
+            case TEXTO -> {
+                for (Object valor : valores) {
+                    byte[] texto = ((String) valor).getBytes(StandardCharsets.UTF_8);
+                    escreverInt32(bytes, texto.length);
+                    bytes.write(texto);
+                }
+            }
+            case BOOLEANO -> {
+                // Um bit por valor, a partir do bit menos significativo
+                int atual = 0;
+                int bits = 0;
+                for (Object valor : valores) {
+                    if ((Boolean) valor) {
+                        atual |= 1 << bits;
+                    }
+                    if (++bits == 8) {
+                        bytes.write(atual);
+                        atual = 0;
+                        bits = 0;
+                    }
+                }
+                if (bits > 0) {
+                    bytes.write(atual);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Codificação híbrida RLE/bit-packing do Parquet: sequências de 8 ou mais valores iguais
+     * viram uma repetição; os demais valores são empacotados em blocos de 8
+     */
+    static byte[] rleHibrido(int[] valores, int quantidade, int largura) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int bytesValor = (largura + 7) / 8;
+        int i = 0;
+        while (i < quantidade) {
+            int repeticoes = repeticoes(valores, quantidade, i);
+            if (repeticoes >= 8 || quantidade - i < 8) {
+                escreverVarint(bytes, (long) repeticoes << 1);
+                for (int b = 0; b < bytesValor; b++) {
+                    bytes.write(valores[i] >>> (8 * b));
+                }
+                i += repeticoes;
+            } else {
+                // Blocos completos de 8, enquanto o próximo bloco não começar uma repetição
+                int inicio = i;
+                int blocos = 0;
+                do {
+                    i += 8;
+                    blocos++;
+                } while (quantidade - i >= 8 && repeticoes(valores, quantidade, i) < 8);
+                escreverVarint(bytes, ((long) blocos << 1) | 1);
+                long acumulado = 0;
+                int bits = 0;
+                for (int j = inicio; j < i; j++) {
+                    acumulado |= (valores[j] & 0xFFFFFFFFL) << bits;
+                    bits += largura;
+                    while (bits >= 8) {
+                        bytes.write((int) acumulado);
+                        acumulado >>>= 8;
+                        bits -= 8;
+                    }
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int repeticoes(int[] valores, int quantidade, int inicio) {
+        int fim = inicio + 1;
+        while (fim < quantidade && valores[fim] == valores[inicio]) {
+            fim++;
+        }
+        return fim - inicio;
+    }
+
+    private byte[] metadadosArquivo() {
+        Thrift arquivo = new Thrift();
+        arquivo.campoI32(1, 1);
+
+        arquivo.inicioLista(2, Thrift.STRUCT, colunas.size() + 1);
+        arquivo.inicioElementoStruct();
+        arquivo.campoTexto(4, "schema");
+        arquivo.campoI32(5, colunas.size());
+        arquivo.fimStruct();
+        for (Coluna coluna : colunas) {
+            arquivo.inicioElementoStruct();
+            arquivo.campoI32(1, coluna.tipo.tipoFisico);
+            arquivo.campoI32(3, coluna.opcional ? 1 : 0);
+            arquivo.campoTexto(4, coluna.nome);
+            if (coluna.tipo.tipoConvertido != null) {
+                arquivo.campoI32(6, coluna.tipo.tipoConvertido);
+            }
+            arquivo.fimStruct();
+        }
+
+        arquivo.campoI64(3, totalLinhas);
+        arquivo.inicioLista(4, Thrift.STRUCT, gruposGravados.size());
+        for (byte[] grupo : gruposGravados) {
+            arquivo.inicioElementoStruct();
+            arquivo.bytesStruct(grupo);
+            arquivo.fimStruct();
+        }
+        arquivo.campoTexto(6, "controle-presenca");
+        arquivo.fimStruct();
+        return arquivo.bytes();
+    }
+
+    private static void escreverInt32(OutputStream saida, int valor) throws IOException {
+        saida.write(valor);
+        saida.write(valor >>> 8);
+        saida.write(valor >>> 16);
+        saida.write(valor >>> 24);
+    }
+
+    private static void escreverInt64(OutputStream saida, long valor) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            saida.write((int) (valor >>> (8 * i)));
+        }
+    }
+
+    private static void escreverVarint(ByteArrayOutputStream saida, long valor) {
+        while ((valor & ~0x7FL) != 0) {
+            saida.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        saida.write((int) valor);
+    }
+
+    private static final class MetadadosColuna {
+        private List<Integer> codificacoes;
+        private long offsetDados;
+        private Long offsetDicionario;
+        private long tamanhoDescomprimido;
+    }
+
+    /**
+     * Conta os bytes escritos, para registrar a posição de cada página no rodapé
+     */
+    private static final class SaidaContada extends FilterOutputStream {
+        private long posicao;
+
+        private SaidaContada(OutputStream saida) {
+            super(saida);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            posicao++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            posicao += len;
+        }
+    }
+
+    /**
+     * Serialização das estruturas de metadados no protocolo compacto do Thrift
+     */
+    private static final class Thrift {
+        private static final int I32 = 5;
+        private static final int I64 = 6;
+        private static final int BINARY = 8;
+        private static final int LIST = 9;
+        private static final int STRUCT = 12;
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Deque<Integer> camposAnteriores = new ArrayDeque<>();
+        private int ultimoCampo;
+
+        void campoI32(int campo, int valor) {
+            cabecalho(campo, I32);
+            escreverVarint(bytes, zigzag(valor));
+        }
+
+        void campoI64(int campo, long valor) {
+            cabecalho(campo, I64);
+            escreverVarint(bytes, zigzag(valor));
+        }
+
+        void campoTexto(int campo, String valor) {
+            cabecalho(campo, BINARY);
+            elementoTexto(valor);
+        }
+
+        void inicioStruct(int campo) {
+            cabecalho(campo, STRUCT);
+            inicioElementoStruct();
+        }
+
+        void inicioElementoStruct() {
+            camposAnteriores.push(ultimoCampo);
+            ultimoCampo = 0;
+        }
+
+        void fimStruct() {
+            bytes.write(0);
+            ultimoCampo = camposAnteriores.isEmpty() ? 0 : camposAnteriores.pop();
+        }
+
+        void inicioLista(int campo, int tipoElemento, int tamanho) {
+            cabecalho(campo, LIST);
+            if (tamanho < 15) {
+                bytes.write((tamanho << 4) | tipoElemento);
+            } else {
+                bytes.write(0xF0 | tipoElemento);
+                escreverVarint(bytes, tamanho);
+            }
+        }
+
+        void elementoI32(int valor) {
+            escreverVarint(bytes, zigzag(valor));
+        }
+
+        void elementoTexto(String valor) {
+            byte[] texto = valor.getBytes(StandardCharsets.UTF_8);
+            escreverVarint(bytes, texto.length);
+            bytes.writeBytes(texto);
+        }
+
+        /**
+         * Campos de uma estrutura já serializada em outra instância, sem o terminador
+         */
+        void bytesStruct(byte[] campos) {
+            bytes.writeBytes(campos);
+        }
+
+        byte[] bytes() {
+            return bytes.toByteArray();
+        }
+
+        private void cabecalho(int campo, int tipo) {
+            int delta = campo - ultimoCampo;
+            if (delta > 0 && delta <= 15) {
+                bytes.write((delta << 4) | tipo);
+            } else {
+                bytes.write(tipo);
+                escreverVarint(bytes, zigzag(campo));
+            }
+            ultimoCampo = campo;
+        }
+
+        private static long zigzag(long valor) {
+            return (valor << 1) ^ (valor >> 63);
+        }
+    }
+}
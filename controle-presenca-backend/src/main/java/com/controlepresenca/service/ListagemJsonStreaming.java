@@ -0,0 +1,73 @@
+package com.controlepresenca.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Escreve listagens completas como um array JSON, item a item, sem montar a lista em memória
+ *
+ * A consulta é aberta e consumida em uma transação somente leitura; cada DTO é serializado
+ * com um SequenceWriter e a saída é descarregada a cada intervalo configurado de itens
+ */
+@Component
+public class ListagemJsonStreaming {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${listagens.streaming.intervalo-flush:500}")
+    private int intervaloFlush;
+
+    /**
+     * Escreve os itens da consulta como array JSON na saída informada, sem fechá-la
+     */
+    public <T> void escrever(Supplier<Stream<T>> consulta, OutputStream saida) throws IOException {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        try {
+            transacao.executeWithoutResult(status -> {
+                try (Stream<T> itens = consulta.get()) {
+                    escreverArray(itens.iterator(), saida);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private <T> void escreverArray(Iterator<T> itens, OutputStream saida) throws IOException {
+        // A saída pertence a quem chamou; fechar o gerador apenas descarrega o buffer
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(saida)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             SequenceWriter writer = objectMapper.writer()
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .writeValuesAsArray(generator)) {
+            int escritos = 0;
+            while (itens.hasNext()) {
+                writer.write(itens.next());
+                if (++escritos % intervaloFlush == 0) {
+                    writer.flush();
+                }
+            }
+        }
+    }
+}
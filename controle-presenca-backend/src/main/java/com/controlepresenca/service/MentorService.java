@@ -1,13 +1,16 @@
 package com.controlepresenca.service;
 
 import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.entity.Mentor;
 import com.controlepresenca.repository.MentorRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +23,26 @@ public class MentorService {
     @Autowired
     private MentorRepository mentorRepository;
     
+    @Autowired
+    private PaginacaoListagens paginacao;
+    
+    @Autowired
+    private RelatorioCache relatorioCache;
+    
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private VersoesAgregados versoes;
+    
+    /**
+     * Chaves de ordenação aceitas na listagem paginada de mentores
+     */
+    private static final Map<String, String> ORDENACOES = Map.of(
+            "nome", "nome",
+            "email", "email",
+            "tipoMentor", "tipoMentor",
+            "dataCadastro", "dataCadastro");
     
     /**
      * Listar todos os mentores
@@ -59,6 +82,28 @@ public class MentorService {
         }
     }
     
+    /**
+     * Listar mentores paginados, com filtro opcional por tipo
+     *
+     * A contagem total é uma consulta extra e só é executada quando incluirTotal é verdadeiro
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<MentorDTO> listarPaginados(String tipoMentor, boolean apenasAtivos, Integer pagina,
+                                                Integer tamanho, String ordenacao, boolean incluirTotal) {
+        Mentor.TipoMentor tipo = null;
+        if (tipoMentor != null) {
+            try {
+                tipo = Mentor.TipoMentor.valueOf(tipoMentor.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Tipo de mentor inválido: " + tipoMentor);
+            }
+        }
+        Mentor.TipoMentor filtroTipo = tipo;
+        Pageable pageable = paginacao.criar(pagina, tamanho, ordenacao, ORDENACOES, "nome");
+        return paginacao.montar(mentorRepository.findPaginaMentores(filtroTipo, apenasAtivos, pageable),
+                this::convertToDTO, incluirTotal, () -> mentorRepository.contarMentores(filtroTipo, apenasAtivos));
+    }
+    
     /**
      * Buscar mentor por ID
      */
@@ -99,6 +144,7 @@ public class MentorService {
         }
         
         mentor = mentorRepository.save(mentor);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES);
         return convertToDTO(mentor);
     }
     
@@ -127,6 +173,10 @@ public class MentorService {
         mentor.setAtivo(mentorDTO.getAtivo());
         
         mentor = mentorRepository.save(mentor);
+        cacheReferencias.invalidarMentor(id);
+        // Nome e tipo aparecem no relatório de participações de mentores, que não tem turma
+        relatorioCache.invalidarTurma(null);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES);
         return convertToDTO(mentor);
     }
     
@@ -139,6 +189,8 @@ public class MentorService {
         
         mentor.setAtivo(false);
         mentorRepository.save(mentor);
+        cacheReferencias.invalidarMentor(id);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES);
     }
     
     /**
@@ -150,6 +202,8 @@ public class MentorService {
         
         mentor.setAtivo(true);
         mentor = mentorRepository.save(mentor);
+        cacheReferencias.invalidarMentor(id);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES);
         return convertToDTO(mentor);
     }
     
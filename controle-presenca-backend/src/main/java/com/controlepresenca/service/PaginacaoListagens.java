@@ -0,0 +1,75 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.PaginaDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Monta a paginação e a ordenação das listagens de alunos, turmas e mentores
+ *
+ * A ordenação é recebida como "campo" ou "campo,asc|desc" e só aceita as chaves
+ * permitidas por cada listagem; o ID é sempre usado como desempate para que as páginas
+ * sejam estáveis
+ */
+@Component
+public class PaginacaoListagens {
+
+    @Value("${listagens.paginacao.tamanho-padrao:20}")
+    private int tamanhoPaginaPadrao;
+
+    @Value("${listagens.paginacao.tamanho-maximo:100}")
+    private int tamanhoPaginaMaximo;
+
+    /**
+     * Cria o Pageable validando página, tamanho e ordenação
+     *
+     * @param camposPermitidos chave aceita na API -> propriedade usada na consulta
+     * @param campoPadrao chave usada quando nenhuma ordenação é informada
+     */
+    public Pageable criar(Integer pagina, Integer tamanho, String ordenacao,
+                          Map<String, String> camposPermitidos, String campoPadrao) {
+        if (pagina != null && pagina < 0) {
+            throw new IllegalArgumentException("Página não pode ser negativa");
+        }
+        int tamanhoPagina = tamanho == null || tamanho <= 0
+                ? tamanhoPaginaPadrao
+                : Math.min(tamanho, tamanhoPaginaMaximo);
+
+        String campo = campoPadrao;
+        Sort.Direction direcao = Sort.Direction.ASC;
+        if (ordenacao != null && !ordenacao.isBlank()) {
+            String[] partes = ordenacao.split(",");
+            campo = partes[0].trim();
+            if (partes.length > 1) {
+                direcao = Sort.Direction.fromOptionalString(partes[1].trim())
+                        .orElseThrow(() -> new IllegalArgumentException("Direção de ordenação inválida: " + partes[1].trim()));
+            }
+        }
+        String propriedade = camposPermitidos.get(campo);
+        if (propriedade == null) {
+            throw new IllegalArgumentException("Campo de ordenação não permitido: " + campo
+                    + ". Valores aceitos: " + String.join(", ", camposPermitidos.keySet()));
+        }
+
+        Sort sort = Sort.by(direcao, propriedade).and(Sort.by(Sort.Direction.ASC, "id"));
+        return PageRequest.of(pagina != null ? pagina : 0, tamanhoPagina, sort);
+    }
+
+    /**
+     * Converte a fatia consultada em PaginaDTO, executando a contagem apenas quando solicitada
+     */
+    public <E, T> PaginaDTO<T> montar(Slice<E> fatia, Function<E, T> conversor,
+                                       boolean incluirTotal, Supplier<Long> contagem) {
+        Long total = incluirTotal ? contagem.get() : null;
+        return new PaginaDTO<>(fatia.map(conversor).getContent(), fatia.getNumber(), fatia.getSize(),
+                fatia.hasNext(), total);
+    }
+}
@@ -1,5 +1,6 @@
 package com.controlepresenca.service;
 
+import com.controlepresenca.dto.PaginaCursorDTO;
 import com.controlepresenca.dto.PresencaDTO;
 import com.controlepresenca.entity.Aluno;
 import com.controlepresenca.entity.Presenca;
@@ -7,7 +8,10 @@ import com.controlepresenca.entity.Turma;
 import com.controlepresenca.repository.AlunoRepository;
 import com.controlepresenca.repository.PresencaRepository;
 import com.controlepresenca.repository.TurmaRepository;
+import com.controlepresenca.service.CacheReferencias.TurmaReferencia;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +20,7 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service para gerenciar operações relacionadas a Presenças
@@ -26,6 +31,10 @@ import java.util.stream.Collectors;
 @Transactional
 public class PresencaService {
 
+    // Limites usados no lugar de datas ausentes na listagem paginada
+    private static final LocalDate PRIMEIRA_DATA = LocalDate.of(1, 1, 1);
+    private static final LocalDate ULTIMA_DATA = LocalDate.of(9999, 12, 31);
+
     @Autowired
     private PresencaRepository presencaRepository;
 
@@ -35,6 +44,24 @@ public class PresencaService {
     @Autowired
     private TurmaRepository turmaRepository;
 
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private VersoesAgregados versoes;
+
+    @Value("${presencas.paginacao.tamanho-padrao:50}")
+    private int tamanhoPaginaPadrao;
+
+    @Value("${presencas.paginacao.tamanho-maximo:200}")
+    private int tamanhoPaginaMaximo;
+
     /**
      * Lista todas as presenças
      */
@@ -95,11 +122,61 @@ public class PresencaService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Presenças do período como fluxo, da mais recente para a mais antiga, para a listagem em streaming
+     *
+     * Deve ser consumido e fechado dentro de uma transação aberta por quem chamou
+     */
+    @Transactional(readOnly = true)
+    public Stream<PresencaDTO> streamPresencasPorPeriodo(LocalDate dataInicio, LocalDate dataFim) {
+        return presencaRepository.streamRelatorioPresencas(null, dataInicio, dataFim);
+    }
+
+    /**
+     * Lista uma página de presenças, da mais recente para a mais antiga, a partir do cursor informado
+     * 
+     * Todos os filtros são opcionais. O tamanho da página é limitado pelo máximo configurado
+     */
+    public PaginaCursorDTO<PresencaDTO> listarPresencasPaginadas(Long turmaId, Long alunoId,
+                                                                LocalDate dataInicio, LocalDate dataFim,
+                                                                String cursor, Integer tamanho) {
+        int tamanhoPagina = tamanho == null ? tamanhoPaginaPadrao : Math.max(1, Math.min(tamanho, tamanhoPaginaMaximo));
+        CursorPresenca posicao = cursor == null || cursor.isBlank() ? null : CursorPresenca.decodificar(cursor);
+
+        // Período sempre delimitado, para a consulta percorrer um intervalo do índice de data
+        LocalDate inicio = dataInicio != null ? dataInicio : PRIMEIRA_DATA;
+        LocalDate fim = dataFim != null ? dataFim : ULTIMA_DATA;
+
+        // Um item a mais indica se existe página seguinte
+        PageRequest limite = PageRequest.of(0, tamanhoPagina + 1);
+        List<Presenca> presencas;
+        if (posicao == null) {
+            presencas = turmaId == null
+                    ? presencaRepository.findPrimeiraPagina(alunoId, inicio, fim, limite)
+                    : presencaRepository.findPrimeiraPaginaPorTurma(turmaId, alunoId, inicio, fim, limite);
+        } else {
+            presencas = turmaId == null
+                    ? presencaRepository.findPaginaApos(alunoId, inicio, fim,
+                            posicao.getData(), posicao.getHora(), posicao.getId(), limite)
+                    : presencaRepository.findPaginaPorTurmaApos(turmaId, alunoId, inicio, fim,
+                            posicao.getData(), posicao.getHora(), posicao.getId(), limite);
+        }
+
+        boolean temMais = presencas.size() > tamanhoPagina;
+        List<PresencaDTO> itens = presencas.stream()
+                .limit(tamanhoPagina)
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+
+        String proximoCursor = temMais ? CursorPresenca.de(itens.get(itens.size() - 1)).codificar() : null;
+        return new PaginaCursorDTO<>(itens, proximoCursor, tamanhoPagina);
+    }
+
     /**
      * Busca presença por ID
      */
     public Optional<PresencaDTO> buscarPorId(Long id) {
-        Optional<Presenca> presenca = presencaRepository.findById(id);
+        Optional<Presenca> presenca = presencaRepository.findByIdComAlunoETurma(id);
         return presenca.map(this::convertToDTO);
     }
 
@@ -114,7 +191,7 @@ public class PresencaService {
         }
 
         // Validar se a turma existe
-        Optional<Turma> turma = turmaRepository.findById(presencaDTO.getTurmaId());
+        Optional<TurmaReferencia> turma = cacheReferencias.buscarTurma(presencaDTO.getTurmaId());
         if (!turma.isPresent()) {
             throw new RuntimeException("Turma não encontrada com ID: " + presencaDTO.getTurmaId());
         }
@@ -132,9 +209,13 @@ public class PresencaService {
             throw new RuntimeException("Já existe presença registrada para este aluno na data: " + dataPresenca);
         }
 
-        Presenca presenca = convertToEntity(presencaDTO, aluno.get(), turma.get());
+        // A turma do aluno é a mesma já validada; a referência não precisa ser carregada
+        Presenca presenca = convertToEntity(presencaDTO, aluno.get(), aluno.get().getTurma());
         presenca = presencaRepository.save(presenca);
-        return convertToDTO(presenca);
+        ajustarContadores(aluno.get().getId(), turma.get().getId(), 1);
+        relatorioCache.invalidarTurma(turma.get().getId());
+        periodoFechadoCache.marcarMesDesatualizado(turma.get().getId(), presenca.getDataPresenca());
+        return convertToDTO(presenca, turma.get().getNome(), turma.get().getCodigo());
     }
 
     /**
@@ -154,30 +235,59 @@ public class PresencaService {
         }
 
         // Validar se a turma existe
-        Optional<Turma> turma = turmaRepository.findById(presencaDTO.getTurmaId());
+        Optional<TurmaReferencia> turma = cacheReferencias.buscarTurma(presencaDTO.getTurmaId());
         if (!turma.isPresent()) {
             throw new RuntimeException("Turma não encontrada com ID: " + presencaDTO.getTurmaId());
         }
 
         Presenca presenca = presencaExistente.get();
+        Long alunoAnteriorId = presenca.getAluno().getId();
+        Long turmaAnteriorId = presenca.getTurma().getId();
+        LocalDate dataAnterior = presenca.getDataPresenca();
+
         presenca.setAluno(aluno.get());
-        presenca.setTurma(turma.get());
+        presenca.setTurma(turmaRepository.getReferenceById(turma.get().getId()));
         presenca.setDataPresenca(presencaDTO.getDataPresenca());
         presenca.setHoraPresenca(presencaDTO.getHoraPresenca());
         presenca.setObservacoes(presencaDTO.getObservacoes());
 
         presenca = presencaRepository.save(presenca);
-        return convertToDTO(presenca);
+
+        // Transferir a presença entre os contadores se aluno ou turma mudaram
+        if (!alunoAnteriorId.equals(aluno.get().getId())) {
+            alunoRepository.incrementarTotalPresencas(alunoAnteriorId, -1);
+            alunoRepository.incrementarTotalPresencas(aluno.get().getId(), 1);
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS);
+        }
+        if (!turmaAnteriorId.equals(turma.get().getId())) {
+            turmaRepository.incrementarTotalPresencas(turmaAnteriorId, -1);
+            turmaRepository.incrementarTotalPresencas(turma.get().getId(), 1);
+            relatorioCache.invalidarTurma(turmaAnteriorId);
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS);
+        }
+        relatorioCache.invalidarTurma(turma.get().getId());
+        periodoFechadoCache.marcarMesDesatualizado(turmaAnteriorId, dataAnterior);
+        periodoFechadoCache.marcarMesDesatualizado(turma.get().getId(), presenca.getDataPresenca());
+        return convertToDTO(presenca, turma.get().getNome(), turma.get().getCodigo());
     }
 
     /**
      * Remove uma presença
      */
     public void removerPresenca(Long id) {
-        if (!presencaRepository.existsById(id)) {
+        Optional<Presenca> presenca = presencaRepository.findById(id);
+
+        if (!presenca.isPresent()) {
             throw new RuntimeException("Presença não encontrada com ID: " + id);
         }
-        presencaRepository.deleteById(id);
+
+        Long alunoId = presenca.get().getAluno().getId();
+        Long turmaId = presenca.get().getTurma().getId();
+        LocalDate dataPresenca = presenca.get().getDataPresenca();
+        presencaRepository.delete(presenca.get());
+        ajustarContadores(alunoId, turmaId, -1);
+        relatorioCache.invalidarTurma(turmaId);
+        periodoFechadoCache.marcarMesDesatualizado(turmaId, dataPresenca);
     }
 
     /**
@@ -221,14 +331,21 @@ public class PresencaService {
      * Converte Entity para DTO
      */
     private PresencaDTO convertToDTO(Presenca presenca) {
+        return convertToDTO(presenca, presenca.getTurma().getNome(), presenca.getTurma().getCodigo());
+    }
+
+    /**
+     * Converte Entity para DTO com os dados da turma já conhecidos, sem carregar a turma
+     */
+    private PresencaDTO convertToDTO(Presenca presenca, String turmaNome, String turmaCodigo) {
         PresencaDTO dto = new PresencaDTO();
         dto.setId(presenca.getId());
         dto.setAlunoId(presenca.getAluno().getId());
         dto.setTurmaId(presenca.getTurma().getId());
         dto.setAlunoNome(presenca.getAluno().getNome());
         dto.setAlunoMatricula(presenca.getAluno().getMatricula());
-        dto.setTurmaNome(presenca.getTurma().getNome());
-        dto.setTurmaCodigo(presenca.getTurma().getCodigo());
+        dto.setTurmaNome(turmaNome);
+        dto.setTurmaCodigo(turmaCodigo);
         dto.setDataPresenca(presenca.getDataPresenca());
         dto.setHoraPresenca(presenca.getHoraPresenca());
         dto.setDataHoraRegistro(presenca.getDataHoraRegistro());
@@ -237,6 +354,15 @@ public class PresencaService {
         return dto;
     }
 
+    /**
+     * Aplica um delta aos contadores de presenças do aluno e da turma
+     */
+    private void ajustarContadores(Long alunoId, Long turmaId, int delta) {
+        alunoRepository.incrementarTotalPresencas(alunoId, delta);
+        turmaRepository.incrementarTotalPresencas(turmaId, delta);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.ALUNOS, VersoesAgregados.Agregado.TURMAS);
+    }
+
     /**
      * Converte DTO para Entity
      */
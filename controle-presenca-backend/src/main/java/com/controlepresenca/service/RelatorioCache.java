@@ -0,0 +1,177 @@
+package com.controlepresenca.service;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cache em memória dos relatórios já gerados (CSV, Excel e Parquet)
+ *
+ * O conteúdo é guardado comprimido com LZ4 e o cache é limitado pelo total de bytes
+ * comprimidos, descartando primeiro as entradas menos usadas. Cada entrada é associada à
+ * turma do relatório; entradas sem turma (relatórios de todas as turmas) dependem de
+ * qualquer turma e são descartadas em toda invalidação
+ */
+@Component
+public class RelatorioCache {
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor descompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    @Value("${relatorios.cache.tamanho-maximo-mb:64}")
+    private long tamanhoMaximoMb;
+
+    /**
+     * Entradas em ordem de acesso (a menos usada primeiro)
+     */
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long bytesComprimidos;
+
+    /**
+     * Contador de invalidações; cada invalidação recebe o próximo valor
+     */
+    private long geracao;
+
+    /**
+     * Geração da última invalidação de cada turma
+     */
+    private final Map<Long, Long> versoesTurma = new HashMap<>();
+
+    /**
+     * Geração da última invalidação que atingiu os relatórios de todas as turmas
+     */
+    private long versaoTodasTurmas;
+
+    /**
+     * Geração da última limpeza completa
+     */
+    private long versaoLimpeza;
+
+    /**
+     * Versão atual dos relatórios da turma (ou de todas as turmas, com turmaId nulo), a ser
+     * informada em {@link #armazenar} pelo relatório gerado a seguir
+     *
+     * Só muda quando uma invalidação atinge a própria turma, de modo que escritas em outras
+     * turmas não impedem o armazenamento do relatório
+     */
+    public synchronized long versao(Long turmaId) {
+        long versao = turmaId == null ? versaoTodasTurmas : versoesTurma.getOrDefault(turmaId, 0L);
+        return Math.max(versao, versaoLimpeza);
+    }
+
+    /**
+     * Busca o conteúdo descomprimido de um relatório
+     */
+    public Optional<byte[]> buscar(String chave) {
+        Entrada entrada;
+        synchronized (this) {
+            entrada = entradas.get(chave);
+        }
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        return Optional.of(descompressor.decompress(entrada.conteudo, entrada.tamanhoOriginal));
+    }
+
+    /**
+     * Armazena um relatório, exceto se a turma dele foi invalidada desde a versão informada
+     */
+    public void armazenar(String chave, Long turmaId, byte[] conteudo, long versaoInicial) {
+        byte[] comprimido = compressor.compress(conteudo);
+        long limite = tamanhoMaximoMb * 1024 * 1024;
+        if (comprimido.length > limite) {
+            return;
+        }
+
+        synchronized (this) {
+            if (versao(turmaId) != versaoInicial) {
+                return;
+            }
+            Entrada anterior = entradas.put(chave, new Entrada(turmaId, comprimido, conteudo.length));
+            if (anterior != null) {
+                bytesComprimidos -= anterior.conteudo.length;
+            }
+            bytesComprimidos += comprimido.length;
+
+            Iterator<Entrada> iterator = entradas.values().iterator();
+            while (bytesComprimidos > limite && iterator.hasNext()) {
+                bytesComprimidos -= iterator.next().conteudo.length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Descarta os relatórios da turma e os relatórios de todas as turmas
+     *
+     * Dentro de uma transação, a remoção é repetida ao final dela, para que nenhum relatório
+     * gerado antes do commit volte ao cache com dados antigos
+     */
+    public void invalidarTurma(Long turmaId) {
+        remover(turmaId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remover(turmaId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Descarta todos os relatórios
+     */
+    public synchronized void limpar() {
+        versaoLimpeza = ++geracao;
+        entradas.clear();
+        bytesComprimidos = 0;
+    }
+
+    /**
+     * Total de bytes comprimidos em cache
+     */
+    public synchronized long getBytesComprimidos() {
+        return bytesComprimidos;
+    }
+
+    private synchronized void remover(Long turmaId) {
+        long versao = ++geracao;
+        versaoTodasTurmas = versao;
+        if (turmaId != null) {
+            versoesTurma.put(turmaId, versao);
+        }
+        Iterator<Entrada> iterator = entradas.values().iterator();
+        while (iterator.hasNext()) {
+            Entrada entrada = iterator.next();
+            if (entrada.turmaId == null || Objects.equals(entrada.turmaId, turmaId)) {
+                bytesComprimidos -= entrada.conteudo.length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Entrada {
+        private final Long turmaId;
+        private final byte[] conteudo;
+        private final int tamanhoOriginal;
+
+        private Entrada(Long turmaId, byte[] conteudo, int tamanhoOriginal) {
+            this.turmaId = turmaId;
+            this.conteudo = conteudo;
+            this.tamanhoOriginal = tamanhoOriginal;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.RelatorioJobDTO;
+import com.controlepresenca.dto.SolicitacaoRelatorioDTO;
+import com.controlepresenca.service.RelatorioService.FormatoRelatorio;
+import com.controlepresenca.service.RelatorioService.TipoRelatorio;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Service que gera relatórios em segundo plano
+ *
+ * Cada solicitação vira um job executado em um pool de threads limitado, com fila limitada.
+ * O resultado é gravado no diretório de resultados e fica disponível para download até ser
+ * removido por idade ou pela quota de disco. Solicitações idênticas (mesmo tipo, formato,
+ * turma e período) feitas enquanto um job equivalente está pendente ou em execução
+ * reaproveitam esse job
+ */
+@Service
+public class RelatorioJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioJobService.class);
+
+    /**
+     * Situação de um job
+     */
+    public enum StatusJob {
+        PENDENTE, EXECUTANDO, CONCLUIDO, ERRO
+    }
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Value("${relatorios.jobs.diretorio:${java.io.tmpdir}/controle-presenca-relatorios}")
+    private String diretorio;
+
+    @Value("${relatorios.jobs.threads:2}")
+    private int threads;
+
+    @Value("${relatorios.jobs.fila-maxima:20}")
+    private int filaMaxima;
+
+    @Value("${relatorios.jobs.idade-maxima-minutos:60}")
+    private long idadeMaximaMinutos;
+
+    @Value("${relatorios.jobs.quota-mb:512}")
+    private long quotaMb;
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, Job> jobsAtivosPorChave = new ConcurrentHashMap<>();
+
+    private Path diretorioResultados;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        diretorioResultados = Paths.get(diretorio);
+        Files.createDirectories(diretorioResultados);
+        // Os jobs ficam apenas em memória; arquivos de execuções anteriores não são mais acessíveis.
+        // Só são apagados os arquivos com nome de job, pois o diretório pode ser compartilhado
+        try (Stream<Path> arquivos = Files.list(diretorioResultados)) {
+            arquivos.filter(RelatorioJobService::arquivoDeJob).forEach(this::apagarArquivo);
+        }
+
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(filaMaxima),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "relatorio-job-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Registra a solicitação e agenda a geração, ou devolve o job equivalente já em andamento
+     *
+     * @throws IllegalArgumentException se tipo, formato ou período forem inválidos
+     * @throws IllegalStateException se a fila de jobs estiver cheia
+     */
+    public RelatorioJobDTO solicitar(SolicitacaoRelatorioDTO solicitacao) {
+        TipoRelatorio tipo = converter(TipoRelatorio.class, solicitacao.getTipo(), "Tipo de relatório inválido: ");
+        FormatoRelatorio formato = converter(FormatoRelatorio.class, solicitacao.getFormato(), "Formato de relatório inválido: ");
+        if (!tipo.aceitaFormato(formato)) {
+            throw new IllegalArgumentException("Formato " + formato + " não disponível para o relatório " + tipo);
+        }
+        if (solicitacao.getDataInicio() != null && solicitacao.getDataFim() != null
+                && solicitacao.getDataInicio().isAfter(solicitacao.getDataFim())) {
+            throw new IllegalArgumentException("Data inicial não pode ser posterior à data final");
+        }
+
+        // Turmas e participações de mentores não usam turma; alunos e turmas não usam período
+        boolean usaTurma = tipo != TipoRelatorio.TURMAS && tipo != TipoRelatorio.PARTICIPACOES_MENTORES;
+        boolean usaPeriodo = tipo != TipoRelatorio.ALUNOS && tipo != TipoRelatorio.TURMAS;
+        Long turmaId = usaTurma ? solicitacao.getTurmaId() : null;
+        LocalDate dataInicio = usaPeriodo ? solicitacao.getDataInicio() : null;
+        LocalDate dataFim = usaPeriodo ? solicitacao.getDataFim() : null;
+        String chave = tipo + "|" + formato + "|" + turmaId + "|" + dataInicio + "|" + dataFim;
+
+        Job[] criado = new Job[1];
+        Job job = jobsAtivosPorChave.computeIfAbsent(chave, k -> {
+            Job novo = new Job(UUID.randomUUID().toString(), k, tipo, formato, turmaId, dataInicio, dataFim);
+            jobs.put(novo.id, novo);
+            criado[0] = novo;
+            return novo;
+        });
+
+        if (criado[0] != null) {
+            try {
+                executor.execute(() -> executar(job));
+            } catch (RejectedExecutionException e) {
+                jobsAtivosPorChave.remove(chave, job);
+                jobs.remove(job.id);
+                throw new IllegalStateException("Fila de relatórios cheia, tente novamente mais tarde");
+            }
+        }
+        return job.toDTO();
+    }
+
+    /**
+     * Busca a situação de um job
+     */
+    public Optional<RelatorioJobDTO> buscar(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::toDTO);
+    }
+
+    /**
+     * Arquivo gerado por um job concluído; vazio se o job não existe ou ainda não terminou
+     */
+    public Optional<Path> buscarArquivo(String id) {
+        Job job = jobs.get(id);
+        if (job == null || job.status != StatusJob.CONCLUIDO || !Files.exists(job.arquivo)) {
+            return Optional.empty();
+        }
+        return Optional.of(job.arquivo);
+    }
+
+    /**
+     * Remove resultados mais antigos que a idade máxima e aplica a quota de disco
+     */
+    @Scheduled(cron = "${relatorios.jobs.limpeza.cron:0 */10 * * * *}")
+    public void limparResultados() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(idadeMaximaMinutos);
+        jobs.values().stream()
+                .filter(job -> job.dataConclusao != null && job.dataConclusao.isBefore(limite))
+                .forEach(this::remover);
+        aplicarQuota();
+    }
+
+    /**
+     * Gera o arquivo em um temporário e o move para o nome final ao terminar
+     */
+    private void executar(Job job) {
+        job.status = StatusJob.EXECUTANDO;
+        Path temporario = diretorioResultados.resolve(job.id + ".tmp");
+        Path destino = diretorioResultados.resolve(job.id + "." + job.formato.getExtensao());
+        try {
+            try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(temporario))) {
+                relatorioService.escreverRelatorio(job.tipo, job.formato, job.turmaId, job.dataInicio, job.dataFim, saida);
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.arquivo = destino;
+            job.tamanhoBytes = Files.size(destino);
+            job.dataConclusao = LocalDateTime.now();
+            job.status = StatusJob.CONCLUIDO;
+        } catch (Exception e) {
+            logger.error("Erro ao gerar relatório do job {}", job.id, e);
+            apagarArquivo(temporario);
+            job.erro = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.dataConclusao = LocalDateTime.now();
+            job.status = StatusJob.ERRO;
+        } finally {
+            jobsAtivosPorChave.remove(job.chave, job);
+        }
+        aplicarQuota();
+    }
+
+    private void aplicarQuota() {
+        aplicarQuota(quotaMb * 1024 * 1024);
+    }
+
+    /**
+     * Remove os resultados concluídos mais antigos até que o total caiba na quota, em bytes
+     */
+    synchronized void aplicarQuota(long quota) {
+        List<Job> concluidos = jobs.values().stream()
+                .filter(job -> job.status == StatusJob.CONCLUIDO)
+                .sorted(Comparator.comparing(job -> job.dataConclusao))
+                .toList();
+        long total = concluidos.stream().mapToLong(job -> job.tamanhoBytes).sum();
+        for (Job job : concluidos) {
+            if (total <= quota) {
+                break;
+            }
+            total -= job.tamanhoBytes;
+            remover(job);
+        }
+    }
+
+    private void remover(Job job) {
+        jobs.remove(job.id);
+        if (job.arquivo != null) {
+            apagarArquivo(job.arquivo);
+        }
+    }
+
+    private void apagarArquivo(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover o arquivo de relatório {}", arquivo, e);
+        }
+    }
+
+    /**
+     * Arquivo gravado por um job: o ID (UUID) do job seguido de .tmp ou da extensão de um formato
+     */
+    private static boolean arquivoDeJob(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        int ponto = nome.indexOf('.');
+        if (ponto < 0 || !Files.isRegularFile(arquivo)) {
+            return false;
+        }
+        String id = nome.substring(0, ponto);
+        String extensao = nome.substring(ponto + 1);
+        boolean extensaoDeJob = extensao.equals("tmp") || Arrays.stream(FormatoRelatorio.values())
+                .anyMatch(formato -> formato.getExtensao().equals(extensao));
+        try {
+            // UUID.fromString aceita formas abreviadas; exige a forma canônica gerada pelos jobs
+            return extensaoDeJob && UUID.fromString(id).toString().equals(id);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static <E extends Enum<E>> E converter(Class<E> tipo, String valor, String mensagemErro) {
+        try {
+            return Enum.valueOf(tipo, valor.toUpperCase());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(mensagemErro + valor);
+        }
+    }
+
+    /**
+     * Estado de um job em memória; os campos mutáveis são lidos por outras threads
+     */
+    private class Job {
+        private final String id;
+        private final String chave;
+        private final TipoRelatorio tipo;
+        private final FormatoRelatorio formato;
+        private final Long turmaId;
+        private final LocalDate dataInicio;
+        private final LocalDate dataFim;
+        private final LocalDateTime dataSolicitacao = LocalDateTime.now();
+        private volatile StatusJob status = StatusJob.PENDENTE;
+        private volatile LocalDateTime dataConclusao;
+        private volatile Path arquivo;
+        private volatile long tamanhoBytes;
+        private volatile String erro;
+
+        private Job(String id, String chave, TipoRelatorio tipo, FormatoRelatorio formato,
+                    Long turmaId, LocalDate dataInicio, LocalDate dataFim) {
+            this.id = id;
+            this.chave = chave;
+            this.tipo = tipo;
+            this.formato = formato;
+            this.turmaId = turmaId;
+            this.dataInicio = dataInicio;
+            this.dataFim = dataFim;
+        }
+
+        private String nomeArquivo() {
+            String nome = tipo.getPrefixoArquivo();
+            if (turmaId != null) {
+                nome += "_turma-" + turmaId;
+            }
+            if (dataInicio != null && dataFim != null) {
+                nome += "_" + dataInicio.format(dateFormatter) + "_" + dataFim.format(dateFormatter);
+            }
+            return nome + "." + formato.getExtensao();
+        }
+
+        private RelatorioJobDTO toDTO() {
+            RelatorioJobDTO dto = new RelatorioJobDTO();
+            dto.setId(id);
+            dto.setTipo(tipo.name());
+            dto.setFormato(formato.name());
+            dto.setTurmaId(turmaId);
+            dto.setDataInicio(dataInicio);
+            dto.setDataFim(dataFim);
+            dto.setStatus(status.name());
+            dto.setDataSolicitacao(dataSolicitacao);
+            dto.setDataConclusao(dataConclusao);
+            dto.setNomeArquivo(nomeArquivo());
+            if (status == StatusJob.CONCLUIDO) {
+                dto.setTamanhoBytes(tamanhoBytes);
+            }
+            dto.setErro(erro);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.service.RelatorioService.ConteudoPacote;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service que gera o pacote ZIP com todos os relatórios
+ *
+ * Cada conteúdo (turmas, alunos, presenças, chamadas e chamadas de mentores) é gerado em
+ * paralelo em um pool de threads limitado, lendo o banco uma única vez para produzir o CSV e
+ * o Excel. Os arquivos são gravados em temporários e entram no ZIP assim que ficam prontos,
+ * na ordem em que terminam
+ */
+@Service
+public class RelatorioPacoteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioPacoteService.class);
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Value("${relatorios.pacote.threads:3}")
+    private int threads;
+
+    @Value("${relatorios.pacote.fila-maxima:30}")
+    private int filaMaxima;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(filaMaxima),
+                tarefa -> {
+                    Thread thread = new Thread(tarefa, "relatorio-pacote-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Escreve o pacote ZIP na saída informada, sem fechá-la
+     *
+     * @throws IllegalStateException se não houver capacidade no pool para gerar o pacote
+     */
+    public void escreverPacote(Long turmaId, LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
+        Path pasta = Files.createTempDirectory("relatorio-pacote-");
+        ExecutorCompletionService<List<Path>> conclusoes = new ExecutorCompletionService<>(executor);
+        List<Future<List<Path>>> tarefas = new ArrayList<>();
+        try {
+            try {
+                for (ConteudoPacote conteudo : ConteudoPacote.values()) {
+                    tarefas.add(conclusoes.submit(() -> gerar(conteudo, turmaId, dataInicio, dataFim, pasta)));
+                }
+            } catch (RejectedExecutionException e) {
+                throw new IllegalStateException("Fila de relatórios cheia, tente novamente mais tarde");
+            }
+
+            ZipOutputStream zip = new ZipOutputStream(saida);
+            for (int i = 0; i < tarefas.size(); i++) {
+                for (Path arquivo : aguardar(conclusoes)) {
+                    zip.putNextEntry(new ZipEntry(arquivo.getFileName().toString()));
+                    Files.copy(arquivo, zip);
+                    zip.closeEntry();
+                    zip.flush();
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+            // A saída pertence a quem chamou; apenas encerra o ZIP
+            zip.finish();
+            saida.flush();
+        } finally {
+            tarefas.forEach(tarefa -> tarefa.cancel(true));
+            apagarPasta(pasta);
+        }
+    }
+
+    private List<Path> gerar(ConteudoPacote conteudo, Long turmaId, LocalDate dataInicio, LocalDate dataFim,
+                             Path pasta) throws IOException {
+        Path csv = pasta.resolve(conteudo.getNomeArquivo() + ".csv");
+        Path excel = pasta.resolve(conteudo.getNomeArquivo() + ".xlsx");
+        try (OutputStream saidaCsv = new BufferedOutputStream(Files.newOutputStream(csv));
+             OutputStream saidaExcel = new BufferedOutputStream(Files.newOutputStream(excel))) {
+            relatorioService.escreverConteudoPacote(conteudo, turmaId, dataInicio, dataFim, saidaCsv, saidaExcel);
+        }
+        return List.of(csv, excel);
+    }
+
+    private List<Path> aguardar(ExecutorCompletionService<List<Path>> conclusoes) throws IOException {
+        try {
+            return conclusoes.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Geração do pacote de relatórios interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Erro ao gerar pacote de relatórios", e.getCause());
+        }
+    }
+
+    private void apagarPasta(Path pasta) {
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : arquivos.toList()) {
+                Files.deleteIfExists(arquivo);
+            }
+            Files.deleteIfExists(pasta);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover os arquivos temporários do pacote {}", pasta, e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.controlepresenca.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Cache permanente em disco das linhas do relatório de presenças (CSV) dos meses fechados
+ *
+ * Um mês é fechado quando termina antes da data de fechamento configurada (por padrão, o
+ * primeiro dia do mês atual). Cada mês fechado é gerado uma única vez por turma (e uma vez
+ * para todas as turmas) e depois servido direto do arquivo. Uma alteração tardia em um mês
+ * fechado remove apenas o arquivo daquele mês, que é gerado de novo no próximo relatório
+ */
+@Component
+public class RelatorioPeriodoFechadoCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RelatorioPeriodoFechadoCache.class);
+
+    private static final String TODAS_TURMAS = "todas";
+
+    @Value("${relatorios.periodo-fechado.diretorio:${java.io.tmpdir}/controle-presenca-periodos-fechados}")
+    private String diretorio;
+
+    /**
+     * Data de fechamento fixa; quando vazia, o fechamento acompanha o início do mês atual
+     */
+    @Value("${relatorios.periodo-fechado.data-fechamento:}")
+    private String dataFechamentoConfigurada;
+
+    private Path diretorioArquivos;
+
+    /**
+     * Incrementada a cada invalidação; impede publicar um mês gerado durante uma escrita
+     */
+    private final AtomicLong versao = new AtomicLong();
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        diretorioArquivos = Paths.get(diretorio);
+        Files.createDirectories(diretorioArquivos);
+    }
+
+    /**
+     * Primeiro dia do período aberto; tudo antes dele é considerado fechado
+     */
+    public LocalDate dataFechamento() {
+        if (dataFechamentoConfigurada != null && !dataFechamentoConfigurada.isBlank()) {
+            return LocalDate.parse(dataFechamentoConfigurada.trim());
+        }
+        return LocalDate.now().withDayOfMonth(1);
+    }
+
+    /**
+     * Verifica se o mês inteiro está no período fechado
+     */
+    public boolean mesFechado(YearMonth mes) {
+        return mes.atEndOfMonth().isBefore(dataFechamento());
+    }
+
+    /**
+     * Versão atual, a ser informada em {@link #publicar} pelo mês gerado a seguir
+     */
+    public long versao() {
+        return versao.get();
+    }
+
+    /**
+     * Arquivo com as linhas do mês, se já tiver sido gerado
+     */
+    public Optional<Path> buscarMes(Long turmaId, YearMonth mes) {
+        Path arquivo = arquivoMes(turmaId, mes);
+        return Files.exists(arquivo) ? Optional.of(arquivo) : Optional.empty();
+    }
+
+    /**
+     * Arquivo temporário onde as linhas de um mês devem ser geradas antes de {@link #publicar}
+     */
+    public Path criarTemporario(Long turmaId, YearMonth mes) throws IOException {
+        Path pasta = pastaTurma(turmaId);
+        Files.createDirectories(pasta);
+        return Files.createTempFile(pasta, mes.toString() + "-", ".tmp");
+    }
+
+    /**
+     * Publica o arquivo gerado como o arquivo do mês, exceto se houve invalidação desde a
+     * versão informada; o temporário é sempre consumido
+     */
+    public Optional<Path> publicar(Long turmaId, YearMonth mes, Path temporario, long versaoInicial) throws IOException {
+        synchronized (this) {
+            if (versao.get() == versaoInicial) {
+                Path destino = arquivoMes(turmaId, mes);
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return Optional.of(destino);
+            }
+        }
+        Files.deleteIfExists(temporario);
+        return Optional.empty();
+    }
+
+    /**
+     * Marca como desatualizado o mês da data informada, para a turma e para todas as turmas
+     *
+     * Meses abertos não têm arquivo e são ignorados. Dentro de uma transação, a remoção é
+     * repetida ao final dela
+     */
+    public void marcarMesDesatualizado(Long turmaId, LocalDate data) {
+        YearMonth mes = YearMonth.from(data);
+        if (!mesFechado(mes)) {
+            return;
+        }
+        executarAgoraEAoFinalDaTransacao(() -> {
+            apagar(arquivoMes(turmaId, mes));
+            apagar(arquivoMes(null, mes));
+        });
+    }
+
+    /**
+     * Marca como desatualizados todos os meses da turma e de todas as turmas, usado quando
+     * mudam dados que aparecem em todas as linhas (ex.: nome da turma ou do aluno)
+     */
+    public void invalidarTurma(Long turmaId) {
+        executarAgoraEAoFinalDaTransacao(() -> {
+            apagarPasta(pastaTurma(turmaId));
+            apagarPasta(pastaTurma(null));
+        });
+    }
+
+    /**
+     * Descarta todos os meses gerados
+     */
+    public void limpar() {
+        executarAgoraEAoFinalDaTransacao(() -> {
+            try (Stream<Path> pastas = Files.list(diretorioArquivos)) {
+                pastas.filter(Files::isDirectory).forEach(this::apagarPasta);
+            } catch (IOException e) {
+                logger.warn("Não foi possível limpar o diretório de períodos fechados {}", diretorioArquivos, e);
+            }
+        });
+    }
+
+    private void executarAgoraEAoFinalDaTransacao(Runnable remocao) {
+        synchronized (this) {
+            versao.incrementAndGet();
+            remocao.run();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    synchronized (RelatorioPeriodoFechadoCache.this) {
+                        versao.incrementAndGet();
+                        remocao.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private Path pastaTurma(Long turmaId) {
+        return diretorioArquivos.resolve(turmaId != null ? "turma-" + turmaId : TODAS_TURMAS);
+    }
+
+    private Path arquivoMes(Long turmaId, YearMonth mes) {
+        return pastaTurma(turmaId).resolve(mes + ".csv");
+    }
+
+    private void apagarPasta(Path pasta) {
+        if (!Files.isDirectory(pasta)) {
+            return;
+        }
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(".csv")).forEach(this::apagar);
+        } catch (IOException e) {
+            logger.warn("Não foi possível limpar a pasta de períodos fechados {}", pasta, e);
+        }
+    }
+
+    private void apagar(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover o arquivo de período fechado {}", arquivo, e);
+        }
+    }
+}
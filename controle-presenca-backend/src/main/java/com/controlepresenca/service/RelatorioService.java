@@ -1,24 +1,55 @@
 package com.controlepresenca.service;
 
+import com.controlepresenca.dto.ChamadaAlunoExportacaoDTO;
+import com.controlepresenca.dto.ChamadaMentorDTO;
+import com.controlepresenca.dto.ParticipacaoMentorExportacaoDTO;
 import com.controlepresenca.dto.PresencaDTO;
 import com.controlepresenca.dto.AlunoDTO;
 import com.controlepresenca.dto.TurmaDTO;
+import com.controlepresenca.repository.AlunoRepository;
+import com.controlepresenca.repository.ChamadaAlunoRepository;
+import com.controlepresenca.repository.ChamadaMentorParticipanteRepository;
+import com.controlepresenca.repository.ChamadaMentorRepository;
+import com.controlepresenca.repository.PresencaRepository;
+import com.controlepresenca.service.EscritorParquet.Coluna;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
- * Service para geração de relatórios em CSV e Excel
+ * Service para geração de relatórios em CSV, Excel e Parquet
  * 
  * Fornece funcionalidades para exportar dados do sistema
  */
@@ -34,88 +65,468 @@ public class RelatorioService {
     @Autowired
     private TurmaService turmaService;
 
+    @Autowired
+    private PresencaRepository presencaRepository;
+
+    @Autowired
+    private AlunoRepository alunoRepository;
+
+    @Autowired
+    private ChamadaAlunoRepository chamadaAlunoRepository;
+
+    @Autowired
+    private ChamadaMentorRepository chamadaMentorRepository;
+
+    @Autowired
+    private ChamadaMentorParticipanteRepository participanteRepository;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${relatorios.cache.tamanho-maximo-entrada-mb:16}")
+    private long tamanhoMaximoEntradaCacheMb;
+
+    /**
+     * Memória somada das cópias para o cache mantidas pelas exportações em andamento
+     */
+    @Value("${relatorios.cache.memoria-copias-mb:32}")
+    private long memoriaMaximaCopiasMb;
+
+    private final AtomicLong memoriaCopias = new AtomicLong();
+
+    /**
+     * Linhas acumuladas em memória antes de gravar cada grupo de linhas do Parquet
+     */
+    @Value("${relatorios.parquet.linhas-por-grupo:50000}")
+    private int linhasPorGrupoParquet;
+
+    /**
+     * Tipos de relatório disponíveis, com os formatos em que cada um pode ser gerado
+     * 
+     * Chamadas e participações de mentores são fatos para análise e existem apenas em Parquet
+     */
+    public enum TipoRelatorio {
+        PRESENCAS("relatorio-presencas", Set.of(FormatoRelatorio.CSV, FormatoRelatorio.EXCEL, FormatoRelatorio.PARQUET)),
+        ALUNOS("relatorio-alunos", Set.of(FormatoRelatorio.CSV, FormatoRelatorio.EXCEL)),
+        TURMAS("relatorio-turmas", Set.of(FormatoRelatorio.CSV, FormatoRelatorio.EXCEL)),
+        CHAMADAS("relatorio-chamadas", Set.of(FormatoRelatorio.PARQUET)),
+        PARTICIPACOES_MENTORES("relatorio-participacoes-mentores", Set.of(FormatoRelatorio.PARQUET));
+
+        private final String prefixoArquivo;
+        private final Set<FormatoRelatorio> formatos;
+
+        TipoRelatorio(String prefixoArquivo, Set<FormatoRelatorio> formatos) {
+            this.prefixoArquivo = prefixoArquivo;
+            this.formatos = formatos;
+        }
+
+        public String getPrefixoArquivo() {
+            return prefixoArquivo;
+        }
+
+        public boolean aceitaFormato(FormatoRelatorio formato) {
+            return formatos.contains(formato);
+        }
+    }
+
+    /**
+     * Formatos de relatório disponíveis
+     */
+    public enum FormatoRelatorio {
+        CSV("csv", "text/csv; charset=UTF-8"),
+        EXCEL("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        PARQUET("parquet", "application/vnd.apache.parquet");
+
+        private final String extensao;
+        private final String contentType;
+
+        FormatoRelatorio(String extensao, String contentType) {
+            this.extensao = extensao;
+            this.contentType = contentType;
+        }
+
+        public String getExtensao() {
+            return extensao;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Conteúdos do pacote de relatórios, cada um escrito em CSV e em Excel
+     */
+    public enum ConteudoPacote {
+        TURMAS("turmas"),
+        ALUNOS("alunos"),
+        PRESENCAS("presencas"),
+        CHAMADAS("chamadas"),
+        CHAMADAS_MENTORES("chamadas-mentores");
+
+        private final String nomeArquivo;
+
+        ConteudoPacote(String nomeArquivo) {
+            this.nomeArquivo = nomeArquivo;
+        }
+
+        public String getNomeArquivo() {
+            return nomeArquivo;
+        }
+    }
+
+    /**
+     * Linhas mantidas em memória pelo SXSSFWorkbook antes de descarregar em disco
+     */
+    private static final int JANELA_LINHAS_EXCEL = 100;
+
+    /**
+     * Linhas de dados usadas para estimar a largura das colunas
+     */
+    private static final int AMOSTRA_LARGURA_COLUNAS = 200;
+
+    /**
+     * Largura máxima de coluna, em caracteres
+     */
+    private static final int LARGURA_MAXIMA_COLUNA = 60;
+
+    private static final String[] CABECALHO_PRESENCAS =
+            {"Data", "Hora", "Turma", "Código Turma", "Aluno", "Matrícula", "Observações"};
+    private static final String[] CABECALHO_ALUNOS =
+            {"Nome", "Matrícula", "Email", "Turma", "Código Turma", "Total Presenças", "Status"};
+    private static final String[] CABECALHO_TURMAS =
+            {"Nome", "Código", "Descrição", "Total Alunos", "Total Presenças", "Status"};
+    private static final String[] CABECALHO_CHAMADAS =
+            {"Data", "Turma", "Código Turma", "Aluno", "Matrícula", "Situação"};
+    private static final String[] CABECALHO_CHAMADAS_MENTORES =
+            {"Data", "Presentes", "Ausentes", "Observações"};
+
+    /**
+     * Colunas dos relatórios em Parquet; turma, aluno e mentor usam dicionário, pois se repetem
+     * em quase todas as linhas, e as datas são gravadas em dias desde 1970-01-01
+     */
+    private static final List<Coluna> COLUNAS_PARQUET_PRESENCAS = List.of(
+            Coluna.inteiro("id"),
+            Coluna.data("data_presenca"),
+            Coluna.hora("hora_presenca"),
+            Coluna.inteiro("turma_id").comDicionario(),
+            Coluna.texto("turma_nome").comDicionario(),
+            Coluna.texto("turma_codigo").comDicionario(),
+            Coluna.inteiro("aluno_id").comDicionario(),
+            Coluna.texto("aluno_nome").comDicionario(),
+            Coluna.texto("aluno_matricula").comDicionario(),
+            Coluna.texto("observacoes").opcional());
+    private static final List<Coluna> COLUNAS_PARQUET_CHAMADAS = List.of(
+            Coluna.inteiro("id"),
+            Coluna.inteiro("chamada_id").comDicionario(),
+            Coluna.data("data_chamada"),
+            Coluna.inteiro("turma_id").comDicionario(),
+            Coluna.texto("turma_nome").comDicionario(),
+            Coluna.texto("turma_codigo").comDicionario(),
+            Coluna.inteiro("aluno_id").comDicionario(),
+            Coluna.texto("aluno_nome").comDicionario(),
+            Coluna.texto("aluno_matricula").comDicionario(),
+            Coluna.booleano("presente"));
+    private static final List<Coluna> COLUNAS_PARQUET_PARTICIPACOES_MENTORES = List.of(
+            Coluna.inteiro("id"),
+            Coluna.inteiro("chamada_mentor_id").comDicionario(),
+            Coluna.data("data_chamada"),
+            Coluna.inteiro("mentor_id").comDicionario(),
+            Coluna.texto("mentor_nome").comDicionario(),
+            Coluna.texto("mentor_tipo").comDicionario(),
+            Coluna.booleano("presente"));
+
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
 
     /**
-     * Gera relatório de presenças em formato CSV
+     * Escreve um relatório na saída informada, reaproveitando o conteúdo em cache quando existir
+     * 
+     * Sem cache, o relatório é gerado em uma transação somente leitura enquanto é escrito na
+     * saída; uma cópia é mantida para o cache apenas enquanto não ultrapassar o tamanho máximo
+     * por entrada nem a memória total reservada às cópias de todas as exportações simultâneas,
+     * para não comprometer o uso constante de memória das exportações grandes
      */
-    public String gerarRelatorioPresencasCSV(Long turmaId, LocalDate dataInicio, LocalDate dataFim) throws IOException {
-        List<PresencaDTO> presencas = presencaService.gerarRelatorio(turmaId, dataInicio, dataFim);
+    public void escreverRelatorio(TipoRelatorio tipo, FormatoRelatorio formato, Long turmaId,
+                                  LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
+        if (!tipo.aceitaFormato(formato)) {
+            throw new IllegalArgumentException("Formato " + formato + " não disponível para o relatório " + tipo);
+        }
+        String chave = tipo + "|" + formato + "|" + turmaId + "|" + dataInicio + "|" + dataFim;
+        Optional<byte[]> emCache = relatorioCache.buscar(chave);
+        if (emCache.isPresent()) {
+            saida.write(emCache.get());
+            saida.flush();
+            return;
+        }
 
-        StringWriter stringWriter = new StringWriter();
-        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                .setHeader("Data", "Hora", "Turma", "Código Turma", "Aluno", "Matrícula", "Observações")
-                .build();
+        long versao = relatorioCache.versao(turmaId);
+        SaidaComCopia copia = new SaidaComCopia(saida, tamanhoMaximoEntradaCacheMb * 1024 * 1024,
+                memoriaCopias, memoriaMaximaCopiasMb * 1024 * 1024);
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        try {
+            try {
+                transacao.executeWithoutResult(status -> {
+                    try {
+                        gerar(tipo, formato, turmaId, dataInicio, dataFim, copia);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            copia.flush();
 
-        try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, csvFormat)) {
-            for (PresencaDTO presenca : presencas) {
-                csvPrinter.printRecord(
-                        presenca.getDataPresenca().format(dateFormatter),
-                        presenca.getHoraPresenca().format(timeFormatter),
-                        presenca.getTurmaNome(),
-                        presenca.getTurmaCodigo(),
-                        presenca.getAlunoNome(),
-                        presenca.getAlunoMatricula(),
-                        presenca.getObservacoes() != null ? presenca.getObservacoes() : ""
-                );
+            byte[] conteudo = copia.conteudo();
+            if (conteudo != null) {
+                relatorioCache.armazenar(chave, turmaId, conteudo, versao);
             }
+        } finally {
+            copia.liberar();
         }
+    }
 
-        return stringWriter.toString();
+    /**
+     * Bytes das cópias para o cache mantidas neste momento pelas exportações em andamento
+     */
+    long getMemoriaCopias() {
+        return memoriaCopias.get();
+    }
+
+    private void gerar(TipoRelatorio tipo, FormatoRelatorio formato, Long turmaId,
+                       LocalDate dataInicio, LocalDate dataFim, OutputStream saida) throws IOException {
+        if (formato == FormatoRelatorio.PARQUET) {
+            escreverRelatorioParquet(tipo, turmaId, dataInicio, dataFim, saida);
+            return;
+        }
+        switch (tipo) {
+            case PRESENCAS -> {
+                if (formato == FormatoRelatorio.CSV) {
+                    escreverRelatorioPresencasCSV(turmaId, dataInicio, dataFim, saida);
+                } else {
+                    escreverRelatorioPresencasExcel(turmaId, dataInicio, dataFim, saida);
+                }
+            }
+            case ALUNOS -> {
+                if (formato == FormatoRelatorio.CSV) {
+                    saida.write(gerarRelatorioAlunosCSV(turmaId).getBytes(StandardCharsets.UTF_8));
+                } else {
+                    escreverRelatorioAlunosExcel(turmaId, saida);
+                }
+            }
+            case TURMAS -> {
+                if (formato == FormatoRelatorio.CSV) {
+                    saida.write(gerarRelatorioTurmasCSV().getBytes(StandardCharsets.UTF_8));
+                } else {
+                    escreverRelatorioTurmasExcel(saida);
+                }
+            }
+            default -> throw new IllegalArgumentException("Formato " + formato + " não disponível para o relatório " + tipo);
+        }
     }
 
     /**
-     * Gera relatório de presenças em formato Excel
+     * Escreve o relatório de presenças em formato CSV diretamente na saída informada
+     * 
+     * As linhas são lidas do banco por cursor e gravadas uma a uma, de modo que o uso de
+     * memória não depende da quantidade de presenças exportadas. Quando o período começa antes
+     * da data de fechamento, apenas o período aberto e os meses incompletos nas pontas são
+     * consultados; os meses fechados completos vêm do cache em disco de períodos fechados.
+     * Sem data inicial, o período começa no primeiro mês com presenças antes do fechamento
      */
-    public byte[] gerarRelatorioPresencasExcel(Long turmaId, LocalDate dataInicio, LocalDate dataFim) throws IOException {
-        List<PresencaDTO> presencas = presencaService.gerarRelatorio(turmaId, dataInicio, dataFim);
+    @Transactional(readOnly = true)
+    public void escreverRelatorioPresencasCSV(Long turmaId, LocalDate dataInicio, LocalDate dataFim,
+                                              OutputStream saida) throws IOException {
+        CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
+                .setHeader(CABECALHO_PRESENCAS)
+                .build();
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Relatório de Presenças");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        CSVPrinter csvPrinter = new CSVPrinter(writer, csvFormat);
 
-            // Criar estilo para cabeçalho
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        LocalDate dataFechamento = periodoFechadoCache.dataFechamento();
+        if (dataInicio == null) {
+            LocalDate primeiraData = presencaRepository.findPrimeiraDataPresencaAntesDe(turmaId, dataFechamento);
+            if (primeiraData != null) {
+                dataInicio = YearMonth.from(primeiraData).atDay(1);
+            }
+        }
+        if (dataInicio == null || !dataInicio.isBefore(dataFechamento)) {
+            escreverLinhasPresencas(csvPrinter, turmaId, dataInicio, dataFim);
+            // A saída pertence a quem chamou; apenas descarrega o buffer
+            csvPrinter.flush();
+            return;
+        }
 
-            // Criar cabeçalho
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Data", "Hora", "Turma", "Código Turma", "Aluno", "Matrícula", "Observações"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
+        // Período aberto primeiro, pois o relatório é ordenado da data mais recente para a mais antiga
+        if (dataFim == null || !dataFim.isBefore(dataFechamento)) {
+            escreverLinhasPresencas(csvPrinter, turmaId, dataFechamento, dataFim);
+        }
+
+        LocalDate fimFechado = dataFim != null && dataFim.isBefore(dataFechamento) ? dataFim : dataFechamento.minusDays(1);
+        for (YearMonth mes = YearMonth.from(fimFechado); !mes.isBefore(YearMonth.from(dataInicio)); mes = mes.minusMonths(1)) {
+            LocalDate inicioMes = mes.atDay(1).isBefore(dataInicio) ? dataInicio : mes.atDay(1);
+            LocalDate fimMes = mes.atEndOfMonth().isAfter(fimFechado) ? fimFechado : mes.atEndOfMonth();
+            if (inicioMes.equals(mes.atDay(1)) && fimMes.equals(mes.atEndOfMonth())) {
+                escreverMesFechado(csvPrinter, saida, turmaId, mes);
+            } else {
+                escreverLinhasPresencas(csvPrinter, turmaId, inicioMes, fimMes);
             }
+        }
+        csvPrinter.flush();
+    }
 
-            // Preencher dados
-            int rowNum = 1;
-            for (PresencaDTO presenca : presencas) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(presenca.getDataPresenca().format(dateFormatter));
-                row.createCell(1).setCellValue(presenca.getHoraPresenca().format(timeFormatter));
-                row.createCell(2).setCellValue(presenca.getTurmaNome());
-                row.createCell(3).setCellValue(presenca.getTurmaCodigo());
-                row.createCell(4).setCellValue(presenca.getAlunoNome());
-                row.createCell(5).setCellValue(presenca.getAlunoMatricula());
-                row.createCell(6).setCellValue(presenca.getObservacoes() != null ? presenca.getObservacoes() : "");
+    /**
+     * Escreve as linhas de um mês fechado a partir do cache em disco, gerando e publicando o
+     * arquivo do mês se ainda não existir (ou tiver sido marcado como desatualizado)
+     */
+    private void escreverMesFechado(CSVPrinter csvPrinter, OutputStream saida, Long turmaId,
+                                    YearMonth mes) throws IOException {
+        Optional<Path> arquivo = periodoFechadoCache.buscarMes(turmaId, mes);
+        if (arquivo.isEmpty()) {
+            long versao = periodoFechadoCache.versao();
+            Path temporario = periodoFechadoCache.criarTemporario(turmaId, mes);
+            try {
+                try (Writer writer = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8);
+                     CSVPrinter linhasMes = new CSVPrinter(writer, CSVFormat.DEFAULT)) {
+                    escreverLinhasPresencas(linhasMes, turmaId, mes.atDay(1), mes.atEndOfMonth());
+                }
+                arquivo = periodoFechadoCache.publicar(turmaId, mes, temporario, versao);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporario);
+                throw e;
             }
+        }
 
-            // Ajustar largura das colunas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+        if (arquivo.isPresent()) {
+            csvPrinter.flush();
+            try {
+                Files.copy(arquivo.get(), saida);
+                return;
+            } catch (NoSuchFileException e) {
+                // Invalidado entre a busca e a leitura; segue como mês não publicado
             }
+        }
+        // Mês alterado durante a geração: as linhas são lidas de novo, sem passar pelo cache
+        escreverLinhasPresencas(csvPrinter, turmaId, mes.atDay(1), mes.atEndOfMonth());
+    }
+
+    private void escreverLinhasPresencas(CSVPrinter csvPrinter, Long turmaId, LocalDate dataInicio,
+                                         LocalDate dataFim) throws IOException {
+        try (Stream<PresencaDTO> presencas = presencaRepository.streamRelatorioPresencas(turmaId, dataInicio, dataFim)) {
+            Iterator<PresencaDTO> iterator = presencas.iterator();
+            while (iterator.hasNext()) {
+                csvPrinter.printRecord(linhaPresenca(iterator.next()));
+            }
+        }
+    }
+
+    /**
+     * Escreve o relatório de presenças em formato Excel diretamente na saída informada
+     * 
+     * As presenças são lidas por cursor e a planilha é gerada em janela, mantendo em memória
+     * apenas as últimas linhas escritas
+     */
+    @Transactional(readOnly = true)
+    public void escreverRelatorioPresencasExcel(Long turmaId, LocalDate dataInicio, LocalDate dataFim,
+                                                OutputStream saida) throws IOException {
+        try (Stream<PresencaDTO> presencas = presencaRepository.streamRelatorioPresencas(turmaId, dataInicio, dataFim)) {
+            escreverPlanilha("Relatório de Presenças", CABECALHO_PRESENCAS, IndexedColors.LIGHT_BLUE,
+                    presencas.iterator(), this::linhaPresenca, saida);
+        }
+    }
 
-            // Converter para bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+    /**
+     * Escreve um relatório em Parquet diretamente na saída informada
+     * 
+     * As linhas vêm das mesmas consultas por cursor dos demais relatórios e apenas o grupo de
+     * linhas corrente fica em memória. Presenças e chamadas usam turma e período; participações
+     * de mentores, apenas o período
+     */
+    @Transactional(readOnly = true)
+    public void escreverRelatorioParquet(TipoRelatorio tipo, Long turmaId, LocalDate dataInicio, LocalDate dataFim,
+                                         OutputStream saida) throws IOException {
+        switch (tipo) {
+            case PRESENCAS -> escreverParquet(COLUNAS_PARQUET_PRESENCAS,
+                    presencaRepository.streamRelatorioPresencas(turmaId, dataInicio, dataFim),
+                    this::linhaParquetPresenca, saida);
+            case CHAMADAS -> escreverParquet(COLUNAS_PARQUET_CHAMADAS,
+                    chamadaAlunoRepository.streamExportacao(0L, turmaId, dataInicio, dataFim),
+                    this::linhaParquetChamada, saida);
+            case PARTICIPACOES_MENTORES -> escreverParquet(COLUNAS_PARQUET_PARTICIPACOES_MENTORES,
+                    participanteRepository.streamExportacao(dataInicio, dataFim),
+                    this::linhaParquetParticipacaoMentor, saida);
+            default -> throw new IllegalArgumentException("Formato PARQUET não disponível para o relatório " + tipo);
+        }
+    }
+
+    private <T> void escreverParquet(List<Coluna> colunas, Stream<T> itens, Function<T, Object[]> valores,
+                                     OutputStream saida) throws IOException {
+        EscritorParquet escritor = new EscritorParquet(saida, colunas, linhasPorGrupoParquet);
+        try (itens) {
+            Iterator<T> iterator = itens.iterator();
+            while (iterator.hasNext()) {
+                escritor.escreverLinha(valores.apply(iterator.next()));
+            }
+        }
+        // A saída pertence a quem chamou; apenas grava o rodapé e descarrega
+        escritor.finalizar();
+    }
+
+    /**
+     * Escreve um conteúdo do pacote de relatórios em CSV e em Excel ao mesmo tempo, a partir de
+     * uma única leitura do banco
+     * 
+     * Alunos e turmas seguem os mesmos filtros dos relatórios individuais; presenças e chamadas
+     * usam turma e período, e chamadas de mentores apenas o período
+     */
+    @Transactional(readOnly = true)
+    public void escreverConteudoPacote(ConteudoPacote conteudo, Long turmaId, LocalDate dataInicio, LocalDate dataFim,
+                                       OutputStream saidaCsv, OutputStream saidaExcel) throws IOException {
+        switch (conteudo) {
+            case TURMAS -> escreverCsvEExcel("Relatório de Turmas", CABECALHO_TURMAS, IndexedColors.LIGHT_YELLOW,
+                    turmaService.listarTurmasAtivas().stream(), this::linhaTurma, saidaCsv, saidaExcel);
+            case ALUNOS -> escreverCsvEExcel("Relatório de Alunos", CABECALHO_ALUNOS, IndexedColors.LIGHT_GREEN,
+                    alunoRepository.streamResumoAlunos(turmaId, true), this::linhaAluno, saidaCsv, saidaExcel);
+            case PRESENCAS -> escreverCsvEExcel("Relatório de Presenças", CABECALHO_PRESENCAS, IndexedColors.LIGHT_BLUE,
+                    presencaRepository.streamRelatorioPresencas(turmaId, dataInicio, dataFim), this::linhaPresenca,
+                    saidaCsv, saidaExcel);
+            case CHAMADAS -> escreverCsvEExcel("Relatório de Chamadas", CABECALHO_CHAMADAS, IndexedColors.LIGHT_ORANGE,
+                    chamadaAlunoRepository.streamExportacao(0L, turmaId, dataInicio, dataFim), this::linhaChamada,
+                    saidaCsv, saidaExcel);
+            case CHAMADAS_MENTORES -> escreverCsvEExcel("Chamadas de Mentores", CABECALHO_CHAMADAS_MENTORES,
+                    IndexedColors.LIGHT_TURQUOISE, chamadaMentorRepository.streamResumoChamadas(dataInicio, dataFim),
+                    this::linhaChamadaMentor, saidaCsv, saidaExcel);
+        }
+    }
+
+    /**
+     * Percorre os itens uma única vez, gravando cada linha no CSV e acrescentando-a à planilha
+     */
+    private <T> void escreverCsvEExcel(String nomePlanilha, String[] headers, IndexedColors corCabecalho,
+                                       Stream<T> itens, Function<T, Object[]> valores,
+                                       OutputStream saidaCsv, OutputStream saidaExcel) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saidaCsv, StandardCharsets.UTF_8));
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.builder().setHeader(headers).build());
+        try (itens; Planilha planilha = new Planilha(nomePlanilha, headers, corCabecalho)) {
+            Iterator<T> iterator = itens.iterator();
+            while (iterator.hasNext()) {
+                Object[] linha = valores.apply(iterator.next());
+                csvPrinter.printRecord(linha);
+                planilha.adicionarLinha(linha);
+            }
+            planilha.gravar(saidaExcel);
         }
+        // As saídas pertencem a quem chamou; apenas descarrega o buffer
+        csvPrinter.flush();
     }
 
     /**
@@ -128,20 +539,12 @@ public class RelatorioService {
 
         StringWriter stringWriter = new StringWriter();
         CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                .setHeader("Nome", "Matrícula", "Email", "Turma", "Código Turma", "Total Presenças", "Status")
+                .setHeader(CABECALHO_ALUNOS)
                 .build();
 
         try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, csvFormat)) {
             for (AlunoDTO aluno : alunos) {
-                csvPrinter.printRecord(
-                        aluno.getNome(),
-                        aluno.getMatricula(),
-                        aluno.getEmail(),
-                        aluno.getTurmaNome(),
-                        aluno.getTurmaCodigo(),
-                        aluno.getTotalPresencas(),
-                        aluno.getAtivo() ? "Ativo" : "Inativo"
-                );
+                csvPrinter.printRecord(linhaAluno(aluno));
             }
         }
 
@@ -149,58 +552,15 @@ public class RelatorioService {
     }
 
     /**
-     * Gera relatório de alunos em formato Excel
+     * Escreve o relatório de alunos em formato Excel diretamente na saída informada
      */
-    public byte[] gerarRelatorioAlunosExcel(Long turmaId) throws IOException {
+    public void escreverRelatorioAlunosExcel(Long turmaId, OutputStream saida) throws IOException {
         List<AlunoDTO> alunos = turmaId != null ? 
                 alunoService.listarAlunosPorTurma(turmaId) : 
                 alunoService.listarAlunosAtivos();
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Relatório de Alunos");
-
-            // Criar estilo para cabeçalho
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_GREEN.getIndex());
-            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-
-            // Criar cabeçalho
-            Row headerRow = sheet.createRow(0);
-            String[] headers = {"Nome", "Matrícula", "Email", "Turma", "Código Turma", "Total Presenças", "Status"};
-            
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-
-            // Preencher dados
-            int rowNum = 1;
-            for (AlunoDTO aluno : alunos) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(aluno.getNome());
-                row.createCell(1).setCellValue(aluno.getMatricula());
-                row.createCell(2).setCellValue(aluno.getEmail());
-                row.createCell(3).setCellValue(aluno.getTurmaNome());
-                row.createCell(4).setCellValue(aluno.getTurmaCodigo());
-                row.createCell(5).setCellValue(aluno.getTotalPresencas());
-                row.createCell(6).setCellValue(aluno.getAtivo() ? "Ativo" : "Inativo");
-            }
-
-            // Ajustar largura das colunas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-
-            // Converter para bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
-        }
+        escreverPlanilha("Relatório de Alunos", CABECALHO_ALUNOS, IndexedColors.LIGHT_GREEN, alunos.iterator(),
+                this::linhaAluno, saida);
     }
 
     /**
@@ -211,19 +571,12 @@ public class RelatorioService {
 
         StringWriter stringWriter = new StringWriter();
         CSVFormat csvFormat = CSVFormat.DEFAULT.builder()
-                .setHeader("Nome", "Código", "Descrição", "Total Alunos", "Total Presenças", "Status")
+                .setHeader(CABECALHO_TURMAS)
                 .build();
 
         try (CSVPrinter csvPrinter = new CSVPrinter(stringWriter, csvFormat)) {
             for (TurmaDTO turma : turmas) {
-                csvPrinter.printRecord(
-                        turma.getNome(),
-                        turma.getCodigo(),
-                        turma.getDescricao() != null ? turma.getDescricao() : "",
-                        turma.getTotalAlunos(),
-                        turma.getTotalPresencas(),
-                        turma.getAtiva() ? "Ativa" : "Inativa"
-                );
+                csvPrinter.printRecord(linhaTurma(turma));
             }
         }
 
@@ -231,55 +584,263 @@ public class RelatorioService {
     }
 
     /**
-     * Gera relatório de turmas em formato Excel
+     * Escreve o relatório de turmas em formato Excel diretamente na saída informada
      */
-    public byte[] gerarRelatorioTurmasExcel() throws IOException {
+    public void escreverRelatorioTurmasExcel(OutputStream saida) throws IOException {
         List<TurmaDTO> turmas = turmaService.listarTurmasAtivas();
 
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("Relatório de Turmas");
+        escreverPlanilha("Relatório de Turmas", CABECALHO_TURMAS, IndexedColors.LIGHT_YELLOW, turmas.iterator(),
+                this::linhaTurma, saida);
+    }
+
+    private Object[] linhaPresenca(PresencaDTO presenca) {
+        return new Object[] {
+                presenca.getDataPresenca().format(dateFormatter),
+                presenca.getHoraPresenca().format(timeFormatter),
+                presenca.getTurmaNome(),
+                presenca.getTurmaCodigo(),
+                presenca.getAlunoNome(),
+                presenca.getAlunoMatricula(),
+                presenca.getObservacoes() != null ? presenca.getObservacoes() : ""
+        };
+    }
+
+    private Object[] linhaAluno(AlunoDTO aluno) {
+        return new Object[] {
+                aluno.getNome(),
+                aluno.getMatricula(),
+                aluno.getEmail(),
+                aluno.getTurmaNome(),
+                aluno.getTurmaCodigo(),
+                aluno.getTotalPresencas(),
+                aluno.getAtivo() ? "Ativo" : "Inativo"
+        };
+    }
+
+    private Object[] linhaTurma(TurmaDTO turma) {
+        return new Object[] {
+                turma.getNome(),
+                turma.getCodigo(),
+                turma.getDescricao() != null ? turma.getDescricao() : "",
+                turma.getTotalAlunos(),
+                turma.getTotalPresencas(),
+                turma.getAtiva() ? "Ativa" : "Inativa"
+        };
+    }
+
+    private Object[] linhaChamada(ChamadaAlunoExportacaoDTO registro) {
+        return new Object[] {
+                registro.getDataChamada().format(dateFormatter),
+                registro.getTurmaNome(),
+                registro.getTurmaCodigo(),
+                registro.getAlunoNome(),
+                registro.getAlunoMatricula(),
+                registro.getPresente() ? "Presente" : "Ausente"
+        };
+    }
+
+    private Object[] linhaChamadaMentor(ChamadaMentorDTO chamada) {
+        return new Object[] {
+                chamada.getDataChamada().format(dateFormatter),
+                chamada.getTotalPresentes(),
+                chamada.getTotalAusentes(),
+                chamada.getObservacoes() != null ? chamada.getObservacoes() : ""
+        };
+    }
+
+    private Object[] linhaParquetPresenca(PresencaDTO presenca) {
+        return new Object[] {
+                presenca.getId(),
+                presenca.getDataPresenca(),
+                presenca.getHoraPresenca(),
+                presenca.getTurmaId(),
+                presenca.getTurmaNome(),
+                presenca.getTurmaCodigo(),
+                presenca.getAlunoId(),
+                presenca.getAlunoNome(),
+                presenca.getAlunoMatricula(),
+                presenca.getObservacoes()
+        };
+    }
+
+    private Object[] linhaParquetChamada(ChamadaAlunoExportacaoDTO registro) {
+        return new Object[] {
+                registro.getId(),
+                registro.getChamadaId(),
+                registro.getDataChamada(),
+                registro.getTurmaId(),
+                registro.getTurmaNome(),
+                registro.getTurmaCodigo(),
+                registro.getAlunoId(),
+                registro.getAlunoNome(),
+                registro.getAlunoMatricula(),
+                registro.getPresente()
+        };
+    }
+
+    private Object[] linhaParquetParticipacaoMentor(ParticipacaoMentorExportacaoDTO participacao) {
+        return new Object[] {
+                participacao.getId(),
+                participacao.getChamadaMentorId(),
+                participacao.getDataChamada(),
+                participacao.getMentorId(),
+                participacao.getMentorNome(),
+                participacao.getMentorTipo(),
+                participacao.getPresente()
+        };
+    }
+
+    /**
+     * Gera uma planilha com os itens informados e a grava na saída informada
+     */
+    private <T> void escreverPlanilha(String nomePlanilha, String[] headers, IndexedColors corCabecalho,
+                                      Iterator<T> linhas, Function<T, Object[]> valores,
+                                      OutputStream saida) throws IOException {
+        try (Planilha planilha = new Planilha(nomePlanilha, headers, corCabecalho)) {
+            while (linhas.hasNext()) {
+                planilha.adicionarLinha(valores.apply(linhas.next()));
+            }
+            planilha.gravar(saida);
+        }
+    }
+
+    /**
+     * Planilha montada linha a linha com SXSSFWorkbook, que mantém em memória apenas uma janela
+     * de linhas e descarrega as demais em arquivo temporário
+     * 
+     * A largura das colunas é calculada pela quantidade de caracteres do cabeçalho e das
+     * primeiras linhas, em vez de autoSizeColumn, que mede cada célula com métricas de fonte
+     */
+    private static final class Planilha implements Closeable {
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(JANELA_LINHAS_EXCEL);
+        private final Sheet sheet;
+        private final int[] larguras;
+        private int rowNum = 1;
+
+        private Planilha(String nomePlanilha, String[] headers, IndexedColors corCabecalho) {
+            workbook.setCompressTempFiles(true);
+            sheet = workbook.createSheet(nomePlanilha);
 
             // Criar estilo para cabeçalho
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
             headerFont.setBold(true);
             headerStyle.setFont(headerFont);
-            headerStyle.setFillForegroundColor(IndexedColors.LIGHT_YELLOW.getIndex());
+            headerStyle.setFillForegroundColor(corCabecalho.getIndex());
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
             // Criar cabeçalho
             Row headerRow = sheet.createRow(0);
-            String[] headers = {"Nome", "Código", "Descrição", "Total Alunos", "Total Presenças", "Status"};
-            
+            larguras = new int[headers.length];
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
+                larguras[i] = headers[i].length();
             }
+        }
 
-            // Preencher dados
-            int rowNum = 1;
-            for (TurmaDTO turma : turmas) {
-                Row row = sheet.createRow(rowNum++);
-                
-                row.createCell(0).setCellValue(turma.getNome());
-                row.createCell(1).setCellValue(turma.getCodigo());
-                row.createCell(2).setCellValue(turma.getDescricao() != null ? turma.getDescricao() : "");
-                row.createCell(3).setCellValue(turma.getTotalAlunos());
-                row.createCell(4).setCellValue(turma.getTotalPresencas());
-                row.createCell(5).setCellValue(turma.getAtiva() ? "Ativa" : "Inativa");
+        /**
+         * Acrescenta uma linha de dados, amostrando a largura das primeiras linhas
+         */
+        private void adicionarLinha(Object[] linha) {
+            Row row = sheet.createRow(rowNum);
+            for (int i = 0; i < linha.length; i++) {
+                Object valor = linha[i];
+                Cell cell = row.createCell(i);
+                if (valor instanceof Number numero) {
+                    cell.setCellValue(numero.doubleValue());
+                } else if (valor != null) {
+                    cell.setCellValue(valor.toString());
+                }
+                if (rowNum <= AMOSTRA_LARGURA_COLUNAS && valor != null) {
+                    larguras[i] = Math.max(larguras[i], valor.toString().length());
+                }
             }
+            rowNum++;
+        }
 
-            // Ajustar largura das colunas
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
+        private void gravar(OutputStream saida) throws IOException {
+            // Ajustar largura das colunas (unidade de 1/256 de caractere, com margem)
+            for (int i = 0; i < larguras.length; i++) {
+                sheet.setColumnWidth(i, Math.min(larguras[i] + 2, LARGURA_MAXIMA_COLUNA) * 256);
             }
 
-            // Converter para bytes
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            workbook.write(outputStream);
-            return outputStream.toByteArray();
+            workbook.write(saida);
+            saida.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            workbook.dispose();
+            workbook.close();
         }
     }
-}
 
+    /**
+     * Repassa tudo para a saída original e mantém uma cópia enquanto ela couber no limite
+     */
+    private static final class SaidaComCopia extends FilterOutputStream {
+        private final long limite;
+        private final AtomicLong memoriaCopias;
+        private final long memoriaMaxima;
+        private ByteArrayOutputStream copia = new ByteArrayOutputStream();
+        private long reservado;
+
+        private SaidaComCopia(OutputStream saida, long limite, AtomicLong memoriaCopias, long memoriaMaxima) {
+            super(saida);
+            this.limite = limite;
+            this.memoriaCopias = memoriaCopias;
+            this.memoriaMaxima = memoriaMaxima;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            copiar(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            copiar(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // A saída original pertence a quem chamou
+            flush();
+        }
+
+        private void copiar(byte[] b, int off, int len) {
+            if (copia == null) {
+                return;
+            }
+            if (copia.size() + len > limite || !reservar(len)) {
+                // Relatório grande demais ou memória das cópias esgotada: segue só para a saída
+                copia = null;
+                liberar();
+                return;
+            }
+            copia.write(b, off, len);
+        }
+
+        private boolean reservar(int len) {
+            if (memoriaCopias.addAndGet(len) > memoriaMaxima) {
+                memoriaCopias.addAndGet(-len);
+                return false;
+            }
+            reservado += len;
+            return true;
+        }
+
+        private void liberar() {
+            memoriaCopias.addAndGet(-reservado);
+            reservado = 0;
+        }
+
+        private byte[] conteudo() {
+            return copia != null ? copia.toByteArray() : null;
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.controlepresenca.service;
 
+import com.controlepresenca.dto.PaginaDTO;
 import com.controlepresenca.dto.TurmaDTO;
 import com.controlepresenca.entity.Turma;
 import com.controlepresenca.repository.TurmaRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Service para gerenciar operações relacionadas a Turmas
@@ -23,24 +27,56 @@ public class TurmaService {
     @Autowired
     private TurmaRepository turmaRepository;
 
+    @Autowired
+    private PaginacaoListagens paginacao;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private VersoesAgregados versoes;
+
+    /**
+     * Chaves de ordenação aceitas na listagem paginada de turmas
+     */
+    private static final Map<String, String> ORDENACOES = Map.of(
+            "nome", "nome",
+            "codigo", "codigo",
+            "dataCriacao", "dataCriacao",
+            "totalAlunos", "totalAlunos",
+            "totalPresencas", "totalPresencas");
+
     /**
      * Lista todas as turmas ativas
      */
     public List<TurmaDTO> listarTurmasAtivas() {
-        List<Turma> turmas = turmaRepository.findByAtivaTrue();
-        return turmas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return turmaRepository.findResumoTurmas(null, true);
     }
 
     /**
      * Lista todas as turmas
      */
     public List<TurmaDTO> listarTodasTurmas() {
-        List<Turma> turmas = turmaRepository.findAll();
-        return turmas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return turmaRepository.findResumoTurmas(null, false);
+    }
+
+    /**
+     * Lista turmas paginadas
+     *
+     * A contagem total é uma consulta extra e só é executada quando incluirTotal é verdadeiro
+     */
+    @Transactional(readOnly = true)
+    public PaginaDTO<TurmaDTO> listarTurmasPaginadas(boolean apenasAtivas, Integer pagina, Integer tamanho,
+                                                     String ordenacao, boolean incluirTotal) {
+        Pageable pageable = paginacao.criar(pagina, tamanho, ordenacao, ORDENACOES, "nome");
+        return paginacao.montar(turmaRepository.findPaginaTurmas(apenasAtivas, pageable),
+                Function.identity(), incluirTotal, () -> turmaRepository.contarTurmas(apenasAtivas));
     }
 
     /**
@@ -70,6 +106,8 @@ public class TurmaService {
 
         Turma turma = convertToEntity(turmaDTO);
         turma = turmaRepository.save(turma);
+        relatorioCache.invalidarTurma(turma.getId());
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS);
         return convertToDTO(turma);
     }
 
@@ -89,12 +127,23 @@ public class TurmaService {
         }
 
         Turma turma = turmaExistente.get();
+        boolean identificacaoAlterada = !Objects.equals(turma.getNome(), turmaDTO.getNome())
+                || !Objects.equals(turma.getCodigo(), turmaDTO.getCodigo());
         turma.setNome(turmaDTO.getNome());
         turma.setCodigo(turmaDTO.getCodigo());
         turma.setDescricao(turmaDTO.getDescricao());
         turma.setAtiva(turmaDTO.getAtiva());
 
         turma = turmaRepository.save(turma);
+        relatorioCache.invalidarTurma(id);
+        cacheReferencias.invalidarTurma(id);
+        if (identificacaoAlterada) {
+            // Nome e código aparecem nas linhas já gravadas dos meses fechados e nos alunos
+            periodoFechadoCache.invalidarTurma(id);
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS, VersoesAgregados.Agregado.ALUNOS);
+        } else {
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS);
+        }
         return convertToDTO(turma);
     }
 
@@ -111,6 +160,9 @@ public class TurmaService {
         Turma turmaEntity = turma.get();
         turmaEntity.setAtiva(false);
         turmaRepository.save(turmaEntity);
+        relatorioCache.invalidarTurma(id);
+        cacheReferencias.invalidarTurma(id);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS);
     }
 
     /**
@@ -121,16 +173,17 @@ public class TurmaService {
             throw new RuntimeException("Turma não encontrada com ID: " + id);
         }
         turmaRepository.deleteById(id);
+        relatorioCache.invalidarTurma(id);
+        cacheReferencias.invalidarTurma(id);
+        periodoFechadoCache.invalidarTurma(id);
+        versoes.registrarAlteracao(VersoesAgregados.Agregado.TURMAS, VersoesAgregados.Agregado.ALUNOS);
     }
 
     /**
      * Busca turmas por nome
      */
     public List<TurmaDTO> buscarPorNome(String nome) {
-        List<Turma> turmas = turmaRepository.findByNomeContainingIgnoreCase(nome);
-        return turmas.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return turmaRepository.findResumoTurmas(nome, false);
     }
 
     /**
@@ -146,8 +199,8 @@ public class TurmaService {
         dto.setAtiva(turma.getAtiva());
         
         // Adicionar estatísticas
-        dto.setTotalAlunos(turmaRepository.countAlunosByTurmaId(turma.getId()).intValue());
-        dto.setTotalPresencas(turmaRepository.countPresencasByTurmaId(turma.getId()).intValue());
+        dto.setTotalAlunos(turma.getTotalAlunos());
+        dto.setTotalPresencas(turma.getTotalPresencas());
         
         return dto;
     }
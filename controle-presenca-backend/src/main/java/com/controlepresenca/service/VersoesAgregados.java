@@ -0,0 +1,84 @@
+package com.controlepresenca.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de versão de turmas, alunos e mentores, usados como ETag nas listagens e consultas
+ * por id
+ *
+ * Os services de escrita registram a alteração e a versão sobe somente após o commit (ou na hora,
+ * fora de transação). Os controllers leem a versão antes de consultar o banco: assim uma resposta
+ * nunca carrega a versão de dados ainda não confirmados e, se a versão informada em If-None-Match
+ * ainda for a atual, a requisição termina com 304 sem consulta. A instância entra na ETag para
+ * que as versões, que recomeçam a cada inicialização, não coincidam com as de antes
+ */
+@Component
+public class VersoesAgregados {
+
+    public enum Agregado {
+        TURMAS("turmas"),
+        ALUNOS("alunos"),
+        MENTORES("mentores");
+
+        private final String nome;
+
+        Agregado(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+    }
+
+    private final String instancia = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<Agregado, AtomicLong> versoes = new EnumMap<>(Agregado.class);
+
+    public VersoesAgregados() {
+        for (Agregado agregado : Agregado.values()) {
+            versoes.put(agregado, new AtomicLong());
+        }
+    }
+
+    /**
+     * Versão atual do agregado
+     */
+    public long versao(Agregado agregado) {
+        return versoes.get(agregado).get();
+    }
+
+    /**
+     * ETag forte da versão atual do agregado, já entre aspas
+     */
+    public String etag(Agregado agregado) {
+        return "\"" + agregado.getNome() + "-" + instancia + "-" + versao(agregado) + "\"";
+    }
+
+    /**
+     * Sobe a versão dos agregados ao final da transação, se confirmada
+     */
+    public void registrarAlteracao(Agregado... agregados) {
+        Runnable incremento = () -> {
+            for (Agregado agregado : agregados) {
+                versoes.get(agregado).incrementAndGet();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incremento.run();
+                }
+            });
+        } else {
+            incremento.run();
+        }
+    }
+}
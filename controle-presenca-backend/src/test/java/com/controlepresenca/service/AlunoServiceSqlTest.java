@@ -0,0 +1,187 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.AlunoDTO;
+import com.controlepresenca.dto.PaginaDTO;
+import com.controlepresenca.entity.Chamada;
+import com.controlepresenca.repository.ChamadaAlunoRepository;
+import com.controlepresenca.repository.ChamadaRepository;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do AlunoService
+ */
+class AlunoServiceSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private AlunoService alunoService;
+
+    @Autowired
+    private ChamadaRepository chamadaRepository;
+
+    @Autowired
+    private ChamadaAlunoRepository chamadaAlunoRepository;
+
+    @Autowired
+    private ListagemJsonStreaming listagemJsonStreaming;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listarAlunosAtivos() {
+        List<AlunoDTO> alunos = assertMaximoSql(1, () -> alunoService.listarAlunosAtivos());
+        assertEquals(DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, alunos.size());
+        assertEquals(DadosTeste.DIAS_HISTORICO, alunos.get(0).getTotalPresencas());
+    }
+
+    @Test
+    void listarTodosAlunos() {
+        List<AlunoDTO> alunos = assertMaximoSql(1, () -> alunoService.listarTodosAlunos());
+        assertEquals(DadosTeste.TURMAS * (DadosTeste.ALUNOS_ATIVOS_POR_TURMA + 1), alunos.size());
+    }
+
+    @Test
+    void streamTodosAlunos() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        // A lista completa é escrita a partir de uma única consulta lida por cursor
+        assertMaximoSql(1, () -> {
+            try {
+                listagemJsonStreaming.escrever(alunoService::streamTodosAlunos, saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<AlunoDTO> alunos = objectMapper.readValue(saida.toByteArray(), new TypeReference<List<AlunoDTO>>() {});
+        assertEquals(alunoService.listarTodosAlunos().size(), alunos.size());
+        assertEquals(DadosTeste.TURMAS * (DadosTeste.ALUNOS_ATIVOS_POR_TURMA + 1), alunos.size());
+    }
+
+    @Test
+    void listarAlunosPorTurma() {
+        List<AlunoDTO> alunos = assertMaximoSql(1, () -> alunoService.listarAlunosPorTurma(dados.getTurmaId()));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, alunos.size());
+    }
+
+    @Test
+    void listarAlunosPaginados() {
+        // Uma consulta para a página e outra, sem junção, para o total
+        PaginaDTO<AlunoDTO> pagina = assertMaximoSql(2,
+                () -> alunoService.listarAlunosPaginados(null, true, 1, 20, "turma,desc", true));
+        assertEquals(20, pagina.getItens().size());
+        assertEquals((long) DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, pagina.getTotalItens());
+        assertTrue(pagina.getTemMais());
+    }
+
+    @Test
+    void listarAlunosPaginadosSemTotal() {
+        PaginaDTO<AlunoDTO> pagina = assertMaximoSql(1,
+                () -> alunoService.listarAlunosPaginados(dados.getTurmaId(), true, 1, 20, null, false));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA - 20, pagina.getItens().size());
+        assertNull(pagina.getTotalItens());
+        assertFalse(pagina.getTemMais());
+    }
+
+    @Test
+    void listarAlunosPaginadosOrdenacaoNaoPermitida() {
+        assertThrows(IllegalArgumentException.class,
+                () -> alunoService.listarAlunosPaginados(null, true, 0, 20, "email", true));
+    }
+
+    @Test
+    void buscarPorId() {
+        assertTrue(assertMaximoSql(2, () -> alunoService.buscarPorId(dados.getAlunoId())).isPresent());
+    }
+
+    @Test
+    void buscarPorMatricula() {
+        assertTrue(assertMaximoSql(2, () -> alunoService.buscarPorMatricula("MA000")).isPresent());
+    }
+
+    @Test
+    void buscarPorEmail() {
+        assertTrue(assertMaximoSql(2, () -> alunoService.buscarPorEmail("ma000@teste.com")).isPresent());
+    }
+
+    @Test
+    void buscarPorNome() {
+        List<AlunoDTO> alunos = assertMaximoSql(1, () -> alunoService.buscarPorNome("aluno a"));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, alunos.size());
+    }
+
+    @Test
+    void buscarPorTurmaENome() {
+        List<AlunoDTO> alunos = assertMaximoSql(1, () -> alunoService.buscarPorTurmaENome(dados.getTurmaId(), "inativo"));
+        assertEquals(1, alunos.size());
+    }
+
+    @Test
+    void criarAluno() {
+        AlunoDTO novo = new AlunoDTO("Aluno Novo", "NOVO001", "novo001@teste.com", dados.getTurmaId());
+        AlunoDTO criado = assertMaximoSql(5, () -> alunoService.criarAluno(novo));
+        assertEquals(0, criado.getTotalPresencas());
+    }
+
+    @Test
+    void atualizarAluno() {
+        AlunoDTO dto = alunoService.buscarPorId(dados.getAlunoId()).orElseThrow();
+        dto.setNome("Aluno Renomeado");
+        dto.setTurmaId(dados.getTurmaIds().get(1));
+        assertMaximoSql(7, () -> alunoService.atualizarAluno(dados.getAlunoId(), dto));
+    }
+
+    @Test
+    void removerAluno() {
+        assertMaximoSql(3, () -> alunoService.removerAluno(dados.getAlunoId()));
+    }
+
+    @Test
+    void excluirAluno() {
+        // O aluno inativo não participa de chamadas; suas presenças são removidas em cascata
+        Long alunoId = dados.getAlunoInativo(dados.getTurmaId());
+        assertMaximoSql(5 + DadosTeste.PRESENCAS_ALUNO_INATIVO, () -> alunoService.excluirAluno(alunoId));
+    }
+
+    @Test
+    void excluirAlunoComChamadas() {
+        Long alunoId = dados.getAlunoId();
+        List<Long> chamadaIds = dados.getChamadas(dados.getTurmaId());
+        Map<Long, Chamada> antes = new HashMap<>();
+        Map<Long, Boolean> presente = new HashMap<>();
+        for (Long chamadaId : chamadaIds) {
+            antes.put(chamadaId, chamadaRepository.findById(chamadaId).orElseThrow());
+            presente.put(chamadaId, chamadaAlunoRepository.findByChamadaIdAndAlunoId(chamadaId, alunoId)
+                    .orElseThrow().getPresente());
+        }
+
+        // Os registros nas chamadas são apagados em cascata e os totais recalculados em uma única atualização
+        assertMaximoSql(7 + DadosTeste.DIAS_HISTORICO, () -> alunoService.excluirAluno(alunoId));
+        entityManager.clear();
+
+        for (Long chamadaId : chamadaIds) {
+            Chamada depois = chamadaRepository.findById(chamadaId).orElseThrow();
+            boolean estavaPresente = presente.get(chamadaId);
+            assertEquals(antes.get(chamadaId).getTotalPresentes() - (estavaPresente ? 1 : 0), depois.getTotalPresentes());
+            assertEquals(antes.get(chamadaId).getTotalFaltas() - (estavaPresente ? 0 : 1), depois.getTotalFaltas());
+            assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA - 1, depois.getTotalPresentes() + depois.getTotalFaltas());
+        }
+    }
+}
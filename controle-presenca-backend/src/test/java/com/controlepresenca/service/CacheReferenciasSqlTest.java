@@ -0,0 +1,106 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.EstatisticasCacheDTO;
+import com.controlepresenca.dto.PresencaDTO;
+import com.controlepresenca.dto.TurmaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Limites de instruções SQL e invalidação do cache de turmas e mentores
+ */
+class CacheReferenciasSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private CacheReferencias cacheReferencias;
+
+    @Autowired
+    private TurmaService turmaService;
+
+    @Autowired
+    private PresencaService presencaService;
+
+    @BeforeEach
+    void limparCache() {
+        cacheReferencias.limpar();
+    }
+
+    @AfterEach
+    void restaurarTtl() {
+        ReflectionTestUtils.setField(cacheReferencias, "ttlSegundos", 600L);
+    }
+
+    @Test
+    void buscarTurmaUsaCache() {
+        EstatisticasCacheDTO antes = estatisticas("turmas");
+        assertMaximoSql(1, () -> cacheReferencias.buscarTurma(dados.getTurmaId()));
+        assertMaximoSql(0, () -> cacheReferencias.buscarTurma(dados.getTurmaId()));
+
+        EstatisticasCacheDTO depois = estatisticas("turmas");
+        assertEquals(antes.getAcertos() + 1, depois.getAcertos());
+        assertEquals(antes.getFalhas() + 1, depois.getFalhas());
+    }
+
+    @Test
+    void buscarMentoresConsultaApenasOsQueFaltam() {
+        Long primeiro = dados.getMentorIds().get(0);
+        cacheReferencias.buscarMentores(dados.getMentorIds().subList(0, 1));
+
+        Map<Long, CacheReferencias.MentorReferencia> mentores =
+                assertMaximoSql(1, () -> cacheReferencias.buscarMentores(dados.getMentorIds()));
+        assertEquals(dados.getMentorIds().size(), mentores.size());
+        assertMaximoSql(0, () -> cacheReferencias.buscarMentores(dados.getMentorIds()));
+        assertEquals(primeiro, mentores.get(primeiro).getId());
+    }
+
+    @Test
+    void atualizarTurmaInvalidaCache() {
+        cacheReferencias.buscarTurma(dados.getTurmaId());
+
+        TurmaDTO dto = turmaService.buscarPorId(dados.getTurmaId()).orElseThrow();
+        dto.setNome("Turma renomeada");
+        turmaService.atualizarTurma(dados.getTurmaId(), dto);
+
+        CacheReferencias.TurmaReferencia turma =
+                assertMaximoSql(1, () -> cacheReferencias.buscarTurma(dados.getTurmaId())).orElseThrow();
+        assertEquals("Turma renomeada", turma.getNome());
+    }
+
+    @Test
+    void entradaExpiraAposTtl() {
+        ReflectionTestUtils.setField(cacheReferencias, "ttlSegundos", 0L);
+        long expiradas = estatisticas("turmas").getExpiradas();
+
+        cacheReferencias.buscarTurma(dados.getTurmaId());
+        assertMaximoSql(1, () -> cacheReferencias.buscarTurma(dados.getTurmaId()));
+        assertEquals(expiradas + 1, estatisticas("turmas").getExpiradas());
+    }
+
+    @Test
+    void registrarPresencaComTurmaEmCache() {
+        cacheReferencias.buscarTurma(dados.getTurmaId());
+        PresencaDTO dto = new PresencaDTO(dados.getAlunoId(), dados.getTurmaId());
+        dto.setDataPresenca(dados.getHoje().plusDays(1));
+        dto.setHoraPresenca(LocalTime.of(9, 0));
+
+        // Sem a consulta da turma: aluno, verificação de duplicidade, inserção e contadores
+        PresencaDTO registrada = assertMaximoSql(5, () -> presencaService.registrarPresenca(dto));
+        assertEquals(dados.getTurmaId(), registrada.getTurmaId());
+    }
+
+    private EstatisticasCacheDTO estatisticas(String regiao) {
+        return cacheReferencias.obterEstatisticas().stream()
+                .filter(estatisticas -> estatisticas.getRegiao().equals(regiao))
+                .findFirst()
+                .orElseThrow();
+    }
+}
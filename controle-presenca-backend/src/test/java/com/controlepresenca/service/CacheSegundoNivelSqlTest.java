@@ -0,0 +1,135 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.EstatisticasCacheDTO;
+import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.dto.TurmaDTO;
+import com.controlepresenca.repository.TurmaRepository;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL e invalidação do cache de segundo nível do Hibernate
+ *
+ * O Hibernate só entrega a uma sessão as entradas gravadas antes do início dela; as leituras
+ * que devem vir do cache rodam em transações novas, como requisições distintas
+ */
+class CacheSegundoNivelSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private CacheSegundoNivel cacheSegundoNivel;
+
+    @Autowired
+    private MentorService mentorService;
+
+    @Autowired
+    private TurmaService turmaService;
+
+    @Autowired
+    private TurmaRepository turmaRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void limparCache() {
+        cacheSegundoNivel.limpar();
+    }
+
+    @Test
+    void listarTurmasAtivasUsaCacheDeConsultas() {
+        int ativas = assertMaximoSql(1, () -> emNovaTransacao(turmaService::listarTurmasAtivas)).size();
+        assertEquals(ativas, assertMaximoSql(0, () -> emNovaTransacao(turmaService::listarTurmasAtivas)).size());
+
+        int todas = assertMaximoSql(1, () -> emNovaTransacao(turmaService::listarTodasTurmas)).size();
+        assertEquals(todas, assertMaximoSql(0, () -> emNovaTransacao(turmaService::listarTodasTurmas)).size());
+    }
+
+    @Test
+    void contadorDaTurmaInvalidaListagem() {
+        emNovaTransacao(turmaService::listarTurmasAtivas);
+        Integer total = totalPresencas(turmaService.listarTurmasAtivas());
+        turmaRepository.incrementarTotalPresencas(dados.getTurmaId(), 1);
+
+        // A atualização em massa dos contadores invalida o resultado guardado
+        List<TurmaDTO> ativas = assertMaximoSql(1, () -> turmaService.listarTurmasAtivas());
+        assertEquals(total + 1, totalPresencas(ativas));
+    }
+
+    @Test
+    void listarMentoresUsaCacheDeConsultas() {
+        int ativos = assertMaximoSql(1, () -> emNovaTransacao(mentorService::listarAtivos)).size();
+        assertEquals(ativos, assertMaximoSql(0, () -> emNovaTransacao(mentorService::listarAtivos)).size());
+
+        assertMaximoSql(1, () -> emNovaTransacao(() -> mentorService.listarPorTipo("mentor")));
+        assertMaximoSql(0, () -> emNovaTransacao(() -> mentorService.listarPorTipo("mentor")));
+    }
+
+    @Test
+    void buscarTurmaPorIdUsaCacheDeEntidades() {
+        assertMaximoSql(1, () -> emNovaTransacao(() -> turmaRepository.findById(dados.getTurmaId())));
+        assertMaximoSql(0, () -> emNovaTransacao(() -> turmaRepository.findById(dados.getTurmaId())));
+    }
+
+    @Test
+    void atualizarMentorInvalidaConsulta() {
+        Long id = dados.getMentorIds().get(0);
+        mentorService.listarAtivos();
+
+        MentorDTO dto = mentorService.buscarPorId(id);
+        dto.setNome("Mentor renomeado");
+        mentorService.atualizar(id, dto);
+
+        List<MentorDTO> ativos = assertMaximoSql(1, () -> mentorService.listarAtivos());
+        assertTrue(ativos.stream().anyMatch(mentor -> mentor.getNome().equals("Mentor renomeado")));
+    }
+
+    @Test
+    void contadorDaTurmaInvalidaCacheDeEntidades() {
+        Integer total = turmaRepository.findById(dados.getTurmaId()).orElseThrow().getTotalPresencas();
+        turmaRepository.incrementarTotalPresencas(dados.getTurmaId(), 1);
+
+        assertEquals(total + 1, assertMaximoSql(1,
+                () -> turmaRepository.findById(dados.getTurmaId()).orElseThrow().getTotalPresencas()));
+    }
+
+    @Test
+    void estatisticasIncluemRegioesDeEntidadeEConsulta() {
+        emNovaTransacao(mentorService::listarAtivos);
+        emNovaTransacao(mentorService::listarAtivos);
+
+        List<EstatisticasCacheDTO> estatisticas = cacheSegundoNivel.obterEstatisticas();
+        EstatisticasCacheDTO consultas = estatisticas.stream()
+                .filter(regiao -> regiao.getRegiao().equals("default-query-results-region"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(consultas.getAcertos() > 0);
+        assertTrue(estatisticas.stream()
+                .anyMatch(regiao -> regiao.getRegiao().equals("com.controlepresenca.entity.Mentor")));
+    }
+
+    private Integer totalPresencas(List<TurmaDTO> turmas) {
+        return turmas.stream()
+                .filter(turma -> turma.getId().equals(dados.getTurmaId()))
+                .findFirst()
+                .orElseThrow()
+                .getTotalPresencas();
+    }
+
+    private <T> T emNovaTransacao(Supplier<T> leitura) {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transacao.setReadOnly(true);
+        return transacao.execute(status -> leitura.get());
+    }
+}
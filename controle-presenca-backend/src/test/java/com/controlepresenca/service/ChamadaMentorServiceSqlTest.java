@@ -0,0 +1,99 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.ChamadaMentorDTO;
+import com.controlepresenca.dto.CriarChamadaMentorDTO;
+import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do ChamadaMentorService
+ */
+class ChamadaMentorServiceSqlTest extends ContagemSqlTestBase {
+
+    private static final int MENTORES = 3 * DadosTeste.MENTORES_POR_TIPO;
+
+    @Autowired
+    private ChamadaMentorService chamadaMentorService;
+
+    @Autowired
+    private MentorService mentorService;
+
+    @Test
+    void criarChamada() {
+        CriarChamadaMentorDTO dto = new CriarChamadaMentorDTO(dados.getHoje().plusDays(1), "Nova chamada",
+                participantes(dados.getMentorIds(), true));
+        // Os mentores são validados em uma consulta e os participantes inseridos em um único lote
+        ChamadaMentorDTO chamada = assertMaximoSql(8, () -> chamadaMentorService.criarChamada(dto));
+        assertEquals(MENTORES, chamada.getTotalPresentes());
+    }
+
+    @Test
+    void atualizar() {
+        // Mantém seis mentores (marcando todos como presentes), remove três e adiciona dois novos
+        List<Long> mentorIds = dados.getMentorIds();
+        List<CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO> enviados = new ArrayList<>(participantes(mentorIds.subList(0, 6), true));
+        enviados.add(new CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO(
+                mentorService.criar(new MentorDTO(null, "Mentor Extra 1", "extra1@teste.com", "MENTOR", null, null, true)).getId(), false));
+        enviados.add(new CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO(
+                mentorService.criar(new MentorDTO(null, "Mentor Extra 2", "extra2@teste.com", "MENTOR", null, null, true)).getId(), false));
+        CriarChamadaMentorDTO dto = new CriarChamadaMentorDTO(dados.getHoje().plusDays(1), "Chamada revisada", enviados);
+
+        // A diferença é aplicada com operações em lote, independente do número de participantes
+        ChamadaMentorDTO chamada = assertMaximoSql(12,
+                () -> chamadaMentorService.atualizar(dados.getChamadaMentorIds().get(0), dto));
+        assertEquals(8, chamada.getTotalMentores());
+        assertEquals(6, chamada.getTotalPresentes());
+        assertEquals(2, chamada.getTotalAusentes());
+    }
+
+    @Test
+    void listarTodas() {
+        List<ChamadaMentorDTO> chamadas = assertMaximoSql(1, () -> chamadaMentorService.listarTodas());
+        assertEquals(DadosTeste.DIAS_HISTORICO + 1, chamadas.size());
+    }
+
+    @Test
+    void listarPorPeriodo() {
+        LocalDate hoje = dados.getHoje();
+        List<ChamadaMentorDTO> chamadas = assertMaximoSql(1, () -> chamadaMentorService.listarPorPeriodo(hoje.minusDays(2), hoje));
+        assertEquals(3, chamadas.size());
+    }
+
+    @Test
+    void buscarPorId() {
+        ChamadaMentorDTO chamada = assertMaximoSql(2, () -> chamadaMentorService.buscarPorId(dados.getChamadaMentorIds().get(0)));
+        assertEquals(MENTORES, chamada.getParticipantes().size());
+    }
+
+    @Test
+    void buscarPorData() {
+        assertTrue(assertMaximoSql(2, () -> chamadaMentorService.buscarPorData(dados.getHoje())).isPresent());
+    }
+
+    @Test
+    void remover() {
+        // A remoção em cascata apaga um registro por participante
+        assertMaximoSql(4 + MENTORES, () -> chamadaMentorService.remover(dados.getChamadaMentorIds().get(0)));
+    }
+
+    @Test
+    void obterEstatisticas() {
+        assertMaximoSql(3, () -> chamadaMentorService.obterEstatisticas());
+    }
+
+    private List<CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO> participantes(List<Long> mentorIds, boolean presente) {
+        return mentorIds.stream()
+                .map(mentorId -> new CriarChamadaMentorDTO.ParticipanteChamadaMentorDTO(mentorId, presente))
+                .toList();
+    }
+}
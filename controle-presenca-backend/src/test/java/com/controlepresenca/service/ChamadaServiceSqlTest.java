@@ -0,0 +1,161 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.ChamadaAlunoDTO;
+import com.controlepresenca.dto.ChamadaDTO;
+import com.controlepresenca.dto.CriarChamadaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do ChamadaService
+ */
+class ChamadaServiceSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private ChamadaService chamadaService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void criarChamada() {
+        CriarChamadaDTO dto = new CriarChamadaDTO(dados.getTurmaId(), dados.getHoje().plusDays(1), "Nova chamada",
+                statusAlunos(dados.getTurmaId(), true));
+        // Os registros da chamada são inseridos em um único lote, independente do número de alunos
+        ChamadaDTO chamada = assertMaximoSql(10, () -> chamadaService.criarChamada(dto));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, chamada.getTotalPresentes());
+    }
+
+    @Test
+    void buscarChamadaPorId() {
+        ChamadaDTO chamada = assertMaximoSql(2, () -> chamadaService.buscarChamadaPorId(primeiraChamada()));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, chamada.getAlunos().size());
+    }
+
+    @Test
+    void buscarChamadaPorTurmaEData() {
+        assertTrue(assertMaximoSql(3, () -> chamadaService.buscarChamadaPorTurmaEData(dados.getTurmaId(),
+                dados.getHoje().minusDays(1))).isPresent());
+    }
+
+    @Test
+    void listarChamadas() {
+        List<ChamadaDTO> chamadas = assertMaximoSql(1, () -> chamadaService.listarChamadas());
+        assertEquals(DadosTeste.TURMAS * DadosTeste.DIAS_HISTORICO, chamadas.size());
+    }
+
+    @Test
+    void listarChamadasPorTurma() {
+        List<ChamadaDTO> chamadas = assertMaximoSql(1, () -> chamadaService.listarChamadasPorTurma(dados.getTurmaId()));
+        assertEquals(DadosTeste.DIAS_HISTORICO, chamadas.size());
+    }
+
+    @Test
+    void listarChamadasPorPeriodo() {
+        LocalDate hoje = dados.getHoje();
+        List<ChamadaDTO> chamadas = assertMaximoSql(1, () -> chamadaService.listarChamadasPorPeriodo(hoje.minusDays(2), hoje));
+        assertEquals(2 * DadosTeste.TURMAS, chamadas.size());
+    }
+
+    @Test
+    void listarChamadasPorTurmaEPeriodo() {
+        LocalDate hoje = dados.getHoje();
+        List<ChamadaDTO> chamadas = assertMaximoSql(1,
+                () -> chamadaService.listarChamadasPorTurmaEPeriodo(dados.getTurmaId(), hoje.minusDays(2), hoje));
+        assertEquals(2, chamadas.size());
+    }
+
+    @Test
+    void atualizarChamada() {
+        CriarChamadaDTO dto = new CriarChamadaDTO(dados.getTurmaId(), null, "Chamada revisada",
+                statusAlunos(dados.getTurmaId(), false));
+        // A diferença é aplicada com no máximo duas atualizações em lote, independente do número de alunos
+        ChamadaDTO chamada = assertMaximoSql(8,
+                () -> chamadaService.atualizarChamada(primeiraChamada(), dto));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, chamada.getTotalFaltas());
+    }
+
+    @Test
+    void atualizarChamadaComAlunoRepetido() {
+        Long chamadaId = primeiraChamada();
+        ChamadaDTO antes = chamadaService.buscarChamadaPorId(chamadaId);
+        ChamadaAlunoDTO mantido = antes.getAlunos().get(0);
+        ChamadaAlunoDTO alterado = antes.getAlunos().get(1);
+
+        // Para um aluno repetido vale o último status informado
+        CriarChamadaDTO dto = new CriarChamadaDTO(dados.getTurmaId(), null, "Chamada revisada", List.of(
+                new CriarChamadaDTO.StatusAlunoDTO(mantido.getAlunoId(), !mantido.getPresente()),
+                new CriarChamadaDTO.StatusAlunoDTO(alterado.getAlunoId(), alterado.getPresente()),
+                new CriarChamadaDTO.StatusAlunoDTO(mantido.getAlunoId(), mantido.getPresente()),
+                new CriarChamadaDTO.StatusAlunoDTO(alterado.getAlunoId(), !alterado.getPresente())));
+        ChamadaDTO depois = assertMaximoSql(8, () -> chamadaService.atualizarChamada(chamadaId, dto));
+
+        Map<Long, Boolean> status = depois.getAlunos().stream()
+                .collect(Collectors.toMap(ChamadaAlunoDTO::getAlunoId, ChamadaAlunoDTO::getPresente));
+        assertEquals(mantido.getPresente(), status.get(mantido.getAlunoId()));
+        assertEquals(!alterado.getPresente(), status.get(alterado.getAlunoId()));
+        int variacao = alterado.getPresente() ? -1 : 1;
+        assertEquals(antes.getTotalPresentes() + variacao, depois.getTotalPresentes());
+        assertEquals(antes.getTotalFaltas() - variacao, depois.getTotalFaltas());
+    }
+
+    @Test
+    void removerChamada() {
+        // A remoção em cascata apaga um registro por aluno da chamada
+        assertMaximoSql(4 + DadosTeste.ALUNOS_ATIVOS_POR_TURMA, () -> chamadaService.removerChamada(primeiraChamada()));
+    }
+
+    @Test
+    void escreverExportacaoNdjson() throws IOException {
+        LocalDate hoje = dados.getHoje();
+        // Todas as linhas vêm de uma única consulta lida por cursor
+        String[] linhas = assertMaximoSql(1, () -> exportar(null, hoje.minusDays(2), hoje, null)).split("\n");
+        assertEquals(2 * DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, linhas.length);
+
+        JsonNode primeira = objectMapper.readTree(linhas[0]);
+        assertEquals(hoje.minusDays(1).toString(), primeira.get("dataChamada").asText());
+        assertTrue(primeira.hasNonNull("alunoMatricula"));
+
+        // Retomando a partir de uma linha, apenas as seguintes são exportadas
+        long afterId = objectMapper.readTree(linhas[9]).get("id").asLong();
+        String[] restantes = exportar(null, hoje.minusDays(2), hoje, afterId).split("\n");
+        assertEquals(linhas.length - 10, restantes.length);
+        assertEquals(linhas[10], restantes[0]);
+    }
+
+    private String exportar(Long turmaId, LocalDate dataInicio, LocalDate dataFim, Long afterId) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            chamadaService.escreverExportacaoNdjson(turmaId, dataInicio, dataFim, afterId, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    private Long primeiraChamada() {
+        return dados.getChamadas(dados.getTurmaId()).get(0);
+    }
+
+    private List<CriarChamadaDTO.StatusAlunoDTO> statusAlunos(Long turmaId, boolean presente) {
+        return dados.getAlunosAtivos(turmaId).stream()
+                .map(alunoId -> new CriarChamadaDTO.StatusAlunoDTO(alunoId, presente))
+                .toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.DashboardResumoDTO;
+import com.controlepresenca.dto.PresencaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Limites de instruções SQL do resumo do dashboard
+ */
+class DashboardServiceSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private PresencaService presencaService;
+
+    @Test
+    void obterResumo() {
+        PresencaDTO presenca = new PresencaDTO(dados.getAlunoId(), dados.getTurmaId());
+        presenca.setDataPresenca(dados.getHoje());
+        presenca.setHoraPresenca(LocalTime.of(9, 0));
+        presencaService.registrarPresenca(presenca);
+
+        // Contadores das turmas, presenças do dia e as três consultas das estatísticas de mentores
+        DashboardResumoDTO resumo = assertMaximoSql(5, () -> dashboardService.obterResumo());
+
+        assertEquals(DadosTeste.TURMAS, resumo.getTotalTurmas());
+        assertEquals(DadosTeste.TURMAS, resumo.getTurmas().size());
+        assertEquals((long) DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, resumo.getTotalAlunos());
+        assertEquals(dados.getPresencaIds().size() + 1L, resumo.getTotalPresencas());
+        assertEquals(1, resumo.getPresencasHoje());
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, resumo.getTurmas().get(0).getTotalAlunos());
+    }
+}
@@ -0,0 +1,169 @@
+package com.controlepresenca.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Arquivos do EscritorParquet lidos de volta por um leitor independente (DuckDB)
+ */
+class EscritorParquetTest {
+
+    private static final int LINHAS = 1000;
+    private static final int LINHAS_POR_GRUPO = 128;
+    private static final int TURMAS_DISTINTAS = 37;
+    private static final LocalDate DATA_INICIAL = LocalDate.of(2024, 2, 29);
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void arquivoLidoPorOutroLeitor() throws Exception {
+        Path arquivo = diretorio.resolve("presencas.parquet");
+        escreverArquivo(arquivo);
+
+        try (Connection conexao = DriverManager.getConnection("jdbc:duckdb:");
+             Statement consulta = conexao.createStatement()) {
+            String leitura = "read_parquet('" + arquivo + "')";
+
+            // Vários grupos de linhas, o último incompleto
+            try (ResultSet grupos = consulta.executeQuery(
+                    "SELECT COUNT(DISTINCT row_group_id), MAX(row_group_num_rows) "
+                    + "FROM parquet_metadata('" + arquivo + "')")) {
+                grupos.next();
+                assertEquals((LINHAS + LINHAS_POR_GRUPO - 1) / LINHAS_POR_GRUPO, grupos.getInt(1));
+                assertEquals(LINHAS_POR_GRUPO, grupos.getLong(2));
+            }
+
+            // Colunas com dicionário de mais de 8 valores distintos usam índices empacotados em bits
+            try (ResultSet codificacoes = consulta.executeQuery(
+                    "SELECT DISTINCT encodings FROM parquet_metadata('" + arquivo + "') "
+                    + "WHERE path_in_schema = 'turma'")) {
+                assertTrue(codificacoes.next());
+                assertTrue(codificacoes.getString(1).contains("RLE_DICTIONARY"));
+            }
+
+            // Tipos lógicos gravados no esquema
+            try (ResultSet esquema = consulta.executeQuery(
+                    "SELECT name, converted_type FROM parquet_schema('" + arquivo + "') "
+                    + "WHERE name IN ('data_presenca', 'hora_presenca') ORDER BY name")) {
+                assertTrue(esquema.next());
+                assertEquals("DATE", esquema.getString(2));
+                assertTrue(esquema.next());
+                assertEquals("TIME_MILLIS", esquema.getString(2));
+            }
+
+            try (ResultSet linhas = consulta.executeQuery(
+                    "SELECT id, data_presenca, hora_presenca::VARCHAR AS hora_presenca, turma, observacoes, presente, sala "
+                    + "FROM " + leitura + " ORDER BY id")) {
+                int lidas = 0;
+                while (linhas.next()) {
+                    int i = lidas++;
+                    assertEquals(i, linhas.getLong("id"));
+                    assertEquals(data(i), linhas.getObject("data_presenca", LocalDate.class));
+                    assertEquals(hora(i), LocalTime.parse(linhas.getString("hora_presenca")));
+                    assertEquals(turma(i), linhas.getString("turma"));
+                    assertEquals(observacao(i), linhas.getString("observacoes"));
+                    assertEquals(i % 3 != 0, linhas.getBoolean("presente"));
+                    Long sala = sala(i);
+                    long salaLida = linhas.getLong("sala");
+                    if (sala == null) {
+                        assertTrue(linhas.wasNull());
+                    } else {
+                        assertFalse(linhas.wasNull());
+                        assertEquals(sala, salaLida);
+                    }
+                }
+                assertEquals(LINHAS, lidas);
+            }
+
+            try (ResultSet totais = consulta.executeQuery(
+                    "SELECT COUNT(DISTINCT turma), COUNT(observacoes), COUNT(*) FROM " + leitura)) {
+                totais.next();
+                assertEquals(TURMAS_DISTINTAS, totais.getInt(1));
+                assertEquals(LINHAS - (LINHAS + 4) / 5, totais.getInt(2));
+                assertEquals(LINHAS, totais.getInt(3));
+            }
+        }
+    }
+
+    @Test
+    void arquivoSemLinhas() throws Exception {
+        Path arquivo = diretorio.resolve("vazio.parquet");
+        try (OutputStream saida = Files.newOutputStream(arquivo)) {
+            EscritorParquet escritor = new EscritorParquet(saida,
+                    List.of(EscritorParquet.Coluna.inteiro("id"), EscritorParquet.Coluna.texto("nome").opcional()),
+                    LINHAS_POR_GRUPO);
+            escritor.finalizar();
+        }
+
+        try (Connection conexao = DriverManager.getConnection("jdbc:duckdb:");
+             Statement consulta = conexao.createStatement();
+             ResultSet total = consulta.executeQuery("SELECT COUNT(*) FROM read_parquet('" + arquivo + "')")) {
+            total.next();
+            assertEquals(0, total.getInt(1));
+        }
+    }
+
+    @Test
+    void valorNuloEmColunaObrigatoria() throws IOException {
+        EscritorParquet escritor = new EscritorParquet(OutputStream.nullOutputStream(),
+                List.of(EscritorParquet.Coluna.texto("nome")), LINHAS_POR_GRUPO);
+        assertThrows(IllegalArgumentException.class, () -> escritor.escreverLinha((Object) null));
+    }
+
+    private void escreverArquivo(Path arquivo) throws IOException {
+        List<EscritorParquet.Coluna> colunas = List.of(
+                EscritorParquet.Coluna.inteiro("id"),
+                EscritorParquet.Coluna.data("data_presenca").comDicionario(),
+                EscritorParquet.Coluna.hora("hora_presenca"),
+                EscritorParquet.Coluna.texto("turma").comDicionario(),
+                EscritorParquet.Coluna.texto("observacoes").opcional(),
+                EscritorParquet.Coluna.booleano("presente"),
+                EscritorParquet.Coluna.inteiro("sala").comDicionario().opcional());
+        try (OutputStream saida = Files.newOutputStream(arquivo)) {
+            EscritorParquet escritor = new EscritorParquet(saida, colunas, LINHAS_POR_GRUPO);
+            for (int i = 0; i < LINHAS; i++) {
+                escritor.escreverLinha((long) i, data(i), hora(i), turma(i), observacao(i), i % 3 != 0, sala(i));
+            }
+            escritor.finalizar();
+        }
+    }
+
+    private static LocalDate data(int i) {
+        return DATA_INICIAL.plusDays(i % 45);
+    }
+
+    private static LocalTime hora(int i) {
+        // Milissegundos variados, inclusive perto da meia-noite
+        return LocalTime.ofNanoOfDay((i * 86_399_999L / LINHAS) * 1_000_000L);
+    }
+
+    private static String turma(int i) {
+        return "Turma " + (i * 7 % TURMAS_DISTINTAS) + " - Ação";
+    }
+
+    private static String observacao(int i) {
+        return i % 5 == 0 ? null : "Observação " + i;
+    }
+
+    private static Long sala(int i) {
+        return i % 4 == 1 ? null : (long) (i % 11) * 100;
+    }
+}
@@ -0,0 +1,92 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.dto.PaginaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Limites de instruções SQL por método do MentorService
+ */
+class MentorServiceSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private MentorService mentorService;
+
+    @Test
+    void listarTodos() {
+        List<MentorDTO> mentores = assertMaximoSql(1, () -> mentorService.listarTodos());
+        assertEquals(3 * DadosTeste.MENTORES_POR_TIPO, mentores.size());
+    }
+
+    @Test
+    void listarAtivos() {
+        assertEquals(3 * DadosTeste.MENTORES_POR_TIPO, assertMaximoSql(1, () -> mentorService.listarAtivos()).size());
+    }
+
+    @Test
+    void listarPorTipo() {
+        assertEquals(DadosTeste.MENTORES_POR_TIPO, assertMaximoSql(1, () -> mentorService.listarPorTipo("MENTOR")).size());
+    }
+
+    @Test
+    void listarPaginados() {
+        PaginaDTO<MentorDTO> pagina = assertMaximoSql(1,
+                () -> mentorService.listarPaginados("MENTOR", true, 0, 20, "email,desc", false));
+        assertEquals(DadosTeste.MENTORES_POR_TIPO, pagina.getItens().size());
+        assertFalse(pagina.getTemMais());
+    }
+
+    @Test
+    void buscarPorId() {
+        assertMaximoSql(1, () -> mentorService.buscarPorId(dados.getMentorIds().get(0)));
+    }
+
+    @Test
+    void buscarPorEmail() {
+        assertMaximoSql(1, () -> mentorService.buscarPorEmail("mentor0@teste.com"));
+    }
+
+    @Test
+    void buscarPorNome() {
+        assertEquals(DadosTeste.MENTORES_POR_TIPO, assertMaximoSql(1, () -> mentorService.buscarPorNome("mentor_trainee")).size());
+    }
+
+    @Test
+    void criar() {
+        MentorDTO dto = new MentorDTO(null, "Mentor Novo", "novo@teste.com", "MENTOR", null, null, true);
+        assertMaximoSql(2, () -> mentorService.criar(dto));
+    }
+
+    @Test
+    void atualizar() {
+        Long mentorId = dados.getMentorIds().get(0);
+        MentorDTO dto = mentorService.buscarPorId(mentorId);
+        dto.setNome("Mentor Renomeado");
+        assertMaximoSql(2, () -> mentorService.atualizar(mentorId, dto));
+    }
+
+    @Test
+    void remover() {
+        assertMaximoSql(2, () -> mentorService.remover(dados.getMentorIds().get(0)));
+    }
+
+    @Test
+    void reativar() {
+        Long mentorId = dados.getMentorIds().get(0);
+        mentorService.remover(mentorId);
+        assertMaximoSql(2, () -> mentorService.reativar(mentorId));
+    }
+
+    @Test
+    void obterEstatisticas() {
+        assertMaximoSql(4, () -> mentorService.obterEstatisticas());
+    }
+}
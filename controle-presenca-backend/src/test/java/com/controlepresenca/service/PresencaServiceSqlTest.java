@@ -0,0 +1,211 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.PaginaCursorDTO;
+import com.controlepresenca.dto.PresencaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do PresencaService
+ */
+class PresencaServiceSqlTest extends ContagemSqlTestBase {
+
+    private static final int PRESENCAS_POR_TURMA =
+            DadosTeste.ALUNOS_ATIVOS_POR_TURMA * DadosTeste.DIAS_HISTORICO + DadosTeste.PRESENCAS_ALUNO_INATIVO;
+
+    @Autowired
+    private PresencaService presencaService;
+
+    @Autowired
+    private ListagemJsonStreaming listagemJsonStreaming;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listarTodasPresencas() {
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarTodasPresencas());
+        assertEquals(DadosTeste.TURMAS * PRESENCAS_POR_TURMA, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPorTurma() {
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarPresencasPorTurma(dados.getTurmaId()));
+        assertEquals(PRESENCAS_POR_TURMA, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPorAluno() {
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarPresencasPorAluno(dados.getAlunoId()));
+        assertEquals(DadosTeste.DIAS_HISTORICO, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPorData() {
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarPresencasPorData(dados.getHoje().minusDays(1)));
+        assertEquals(DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPorTurmaEData() {
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarPresencasPorTurmaEData(dados.getTurmaId(), dados.getHoje().minusDays(1)));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPorPeriodo() {
+        LocalDate hoje = dados.getHoje();
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.listarPresencasPorPeriodo(hoje.minusDays(2), hoje));
+        assertEquals(2 * DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, presencas.size());
+    }
+
+    @Test
+    void streamPresencasPorPeriodo() throws IOException {
+        LocalDate hoje = dados.getHoje();
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        assertMaximoSql(1, () -> {
+            try {
+                listagemJsonStreaming.escrever(() -> presencaService.streamPresencasPorPeriodo(hoje.minusDays(2), hoje), saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        List<PresencaDTO> presencas = objectMapper.readValue(saida.toByteArray(), new TypeReference<List<PresencaDTO>>() {});
+        assertEquals(2 * DadosTeste.TURMAS * DadosTeste.ALUNOS_ATIVOS_POR_TURMA, presencas.size());
+        assertEquals(hoje.minusDays(1), presencas.get(0).getDataPresenca());
+    }
+
+    @Test
+    void gerarRelatorio() {
+        LocalDate hoje = dados.getHoje();
+        List<PresencaDTO> presencas = assertMaximoSql(1,
+                () -> presencaService.gerarRelatorio(dados.getTurmaId(), hoje.minusDays(DadosTeste.DIAS_HISTORICO), hoje));
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA * DadosTeste.DIAS_HISTORICO, presencas.size());
+    }
+
+    @Test
+    void listarPresencasPaginadas() {
+        // Cada página é uma única consulta; percorrer todas entrega cada presença da turma exatamente uma vez
+        Set<Long> vistos = new HashSet<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            String atual = cursor;
+            PaginaCursorDTO<PresencaDTO> pagina = assertMaximoSql(1,
+                    () -> presencaService.listarPresencasPaginadas(dados.getTurmaId(), null, null, null, atual, 20));
+            pagina.getItens().forEach(p -> assertTrue(vistos.add(p.getId())));
+            cursor = pagina.getProximoCursor();
+            paginas++;
+        } while (cursor != null);
+        assertEquals(PRESENCAS_POR_TURMA, vistos.size());
+        assertEquals((PRESENCAS_POR_TURMA + 19) / 20, paginas);
+    }
+
+    @Test
+    void listarPresencasPaginadasSemTurma() {
+        // Sem turma a consulta usa o índice geral; a ordem (data, hora, id) decrescente segue entre páginas
+        List<PresencaDTO> todas = new ArrayList<>();
+        String cursor = null;
+        do {
+            String atual = cursor;
+            PaginaCursorDTO<PresencaDTO> pagina = assertMaximoSql(1,
+                    () -> presencaService.listarPresencasPaginadas(null, null, null, null, atual, 200));
+            todas.addAll(pagina.getItens());
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+
+        assertEquals(dados.getPresencaIds().size(), todas.size());
+        assertEquals(todas.size(), todas.stream().map(PresencaDTO::getId).distinct().count());
+        for (int i = 1; i < todas.size(); i++) {
+            PresencaDTO anterior = todas.get(i - 1);
+            PresencaDTO atual = todas.get(i);
+            int comparacao = atual.getDataPresenca().compareTo(anterior.getDataPresenca());
+            if (comparacao == 0) {
+                comparacao = atual.getHoraPresenca().compareTo(anterior.getHoraPresenca());
+            }
+            if (comparacao == 0) {
+                comparacao = atual.getId().compareTo(anterior.getId());
+            }
+            assertTrue(comparacao < 0);
+        }
+    }
+
+    @Test
+    void listarPresencasPaginadasLimitaTamanho() {
+        PaginaCursorDTO<PresencaDTO> pagina = presencaService.listarPresencasPaginadas(null, null, null, null, null, 10_000);
+        assertEquals(200, pagina.getItens().size());
+        assertTrue(pagina.getTemMais());
+    }
+
+    @Test
+    void listarPresencasPaginadasCursorInvalido() {
+        assertThrows(IllegalArgumentException.class,
+                () -> presencaService.listarPresencasPaginadas(null, null, null, null, "invalido", 10));
+    }
+
+    @Test
+    void buscarPorId() {
+        assertTrue(assertMaximoSql(1, () -> presencaService.buscarPorId(dados.getPresencaIds().get(0))).isPresent());
+    }
+
+    @Test
+    void registrarPresenca() {
+        PresencaDTO dto = new PresencaDTO(dados.getAlunoId(), dados.getTurmaId());
+        dto.setDataPresenca(dados.getHoje().plusDays(1));
+        dto.setHoraPresenca(LocalTime.of(9, 0));
+        assertMaximoSql(6, () -> presencaService.registrarPresenca(dto));
+    }
+
+    @Test
+    void registrarPresencaRapida() {
+        assertMaximoSql(6, () -> presencaService.registrarPresencaRapida(dados.getAlunoId(), dados.getTurmaId()));
+    }
+
+    @Test
+    void atualizarPresenca() {
+        Long presencaId = dados.getPresencaIds().get(0);
+        PresencaDTO dto = presencaService.buscarPorId(presencaId).orElseThrow();
+        dto.setObservacoes("Chegou atrasado");
+        assertMaximoSql(4, () -> presencaService.atualizarPresenca(presencaId, dto));
+    }
+
+    @Test
+    void removerPresenca() {
+        assertMaximoSql(4, () -> presencaService.removerPresenca(dados.getPresencaIds().get(0)));
+    }
+
+    @Test
+    void contarPresencasPorTurma() {
+        assertEquals(PRESENCAS_POR_TURMA, assertMaximoSql(1, () -> presencaService.contarPresencasPorTurma(dados.getTurmaId())));
+    }
+
+    @Test
+    void contarPresencasPorAluno() {
+        assertEquals(DadosTeste.DIAS_HISTORICO, assertMaximoSql(1, () -> presencaService.contarPresencasPorAluno(dados.getAlunoId())));
+    }
+}
@@ -0,0 +1,240 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.RelatorioJobDTO;
+import com.controlepresenca.dto.SolicitacaoRelatorioDTO;
+import com.controlepresenca.service.RelatorioService.FormatoRelatorio;
+import com.controlepresenca.service.RelatorioService.TipoRelatorio;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Ciclo de vida dos jobs assíncronos de relatório
+ */
+class RelatorioJobServiceTest extends ContagemSqlTestBase {
+
+    private static final int PRESENCAS_POR_TURMA =
+            DadosTeste.ALUNOS_ATIVOS_POR_TURMA * DadosTeste.DIAS_HISTORICO + DadosTeste.PRESENCAS_ALUNO_INATIVO;
+
+    @Autowired
+    private RelatorioJobService relatorioJobService;
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void gerarRelatorioPresencasCSV() throws Exception {
+        RelatorioJobDTO job = relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("presencas", "csv", dados.getTurmaId(), null, null));
+
+        RelatorioJobDTO concluido = aguardarConclusao(job.getId());
+        assertEquals("CONCLUIDO", concluido.getStatus());
+
+        Path arquivo = relatorioJobService.buscarArquivo(job.getId()).orElseThrow();
+        assertEquals(concluido.getTamanhoBytes(), Files.size(arquivo));
+        List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+        assertEquals(PRESENCAS_POR_TURMA + 1, linhas.size());
+    }
+
+    @Test
+    void solicitacaoInvalida() {
+        assertThrows(IllegalArgumentException.class, () -> relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("chamadas", "csv", null, null, null)));
+        assertThrows(IllegalArgumentException.class, () -> relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("presencas", "csv", null, dados.getHoje(), dados.getHoje().minusDays(1))));
+    }
+
+    @Test
+    void solicitacoesIguaisReaproveitamJobEmAndamento() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger geracoes = new AtomicInteger();
+        Object original = ReflectionTestUtils.getField(relatorioJobService, "relatorioService");
+        ReflectionTestUtils.setField(relatorioJobService, "relatorioService", new RelatorioService() {
+            @Override
+            public void escreverRelatorio(TipoRelatorio tipo, FormatoRelatorio formato, Long turmaId,
+                                          LocalDate dataInicio, LocalDate dataFim, OutputStream saida)
+                    throws IOException {
+                geracoes.incrementAndGet();
+                try {
+                    liberar.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                saida.write(tipo.name().getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        try {
+            Long turmaId = dados.getTurmaId();
+            LocalDate hoje = dados.getHoje();
+            RelatorioJobDTO primeiro = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("presencas", "csv", turmaId, null, null));
+            RelatorioJobDTO repetido = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("PRESENCAS", "CSV", turmaId, null, null));
+            RelatorioJobDTO outroPeriodo = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("presencas", "csv", turmaId, hoje, hoje));
+            // O relatório de alunos ignora o período, então as duas solicitações são equivalentes
+            RelatorioJobDTO alunos = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("alunos", "csv", turmaId, null, null));
+            RelatorioJobDTO alunosComPeriodo = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("alunos", "csv", turmaId, hoje, hoje));
+
+            assertEquals(primeiro.getId(), repetido.getId());
+            assertNotEquals(primeiro.getId(), outroPeriodo.getId());
+            assertEquals(alunos.getId(), alunosComPeriodo.getId());
+
+            liberar.countDown();
+            for (RelatorioJobDTO job : List.of(primeiro, outroPeriodo, alunos)) {
+                assertEquals("CONCLUIDO", aguardarConclusao(job.getId()).getStatus());
+            }
+            assertEquals(3, geracoes.get());
+
+            // Depois de concluído, a mesma solicitação gera um novo job
+            RelatorioJobDTO novo = relatorioJobService.solicitar(
+                    new SolicitacaoRelatorioDTO("presencas", "csv", turmaId, null, null));
+            assertNotEquals(primeiro.getId(), novo.getId());
+            aguardarConclusao(novo.getId());
+            assertEquals(4, geracoes.get());
+        } finally {
+            liberar.countDown();
+            ReflectionTestUtils.setField(relatorioJobService, "relatorioService", original);
+        }
+    }
+
+    @Test
+    void limpezaRemoveResultadosAntigos() throws Exception {
+        RelatorioJobDTO job = relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("turmas", "csv", null, null, null));
+        aguardarConclusao(job.getId());
+        Path arquivo = relatorioJobService.buscarArquivo(job.getId()).orElseThrow();
+
+        // Dentro da idade máxima o resultado continua disponível
+        relatorioJobService.limparResultados();
+        assertTrue(relatorioJobService.buscar(job.getId()).isPresent());
+
+        Object idadeMaxima = ReflectionTestUtils.getField(relatorioJobService, "idadeMaximaMinutos");
+        ReflectionTestUtils.setField(relatorioJobService, "idadeMaximaMinutos", 0L);
+        try {
+            Thread.sleep(10);
+            relatorioJobService.limparResultados();
+        } finally {
+            ReflectionTestUtils.setField(relatorioJobService, "idadeMaximaMinutos", idadeMaxima);
+        }
+        assertTrue(relatorioJobService.buscar(job.getId()).isEmpty());
+        assertFalse(Files.exists(arquivo));
+    }
+
+    @Test
+    void quotaRemoveResultadosMaisAntigos() throws Exception {
+        List<Long> turmaIds = dados.getTurmaIds();
+        RelatorioJobDTO antigo = aguardarConclusao(relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("alunos", "csv", turmaIds.get(0), null, null)).getId());
+        RelatorioJobDTO recente = aguardarConclusao(relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("alunos", "csv", turmaIds.get(1), null, null)).getId());
+        Path arquivoAntigo = relatorioJobService.buscarArquivo(antigo.getId()).orElseThrow();
+
+        // Uma quota do tamanho do resultado mais recente só comporta esse resultado
+        relatorioJobService.aplicarQuota(recente.getTamanhoBytes());
+
+        assertTrue(relatorioJobService.buscar(antigo.getId()).isEmpty());
+        assertFalse(Files.exists(arquivoAntigo));
+        assertTrue(relatorioJobService.buscarArquivo(recente.getId()).isPresent());
+    }
+
+    @Test
+    void downloadParcialComRange() throws Exception {
+        RelatorioJobDTO job = aguardarConclusao(relatorioJobService.solicitar(
+                new SolicitacaoRelatorioDTO("presencas", "csv", dados.getTurmaId(), null, null)).getId());
+        byte[] conteudo = Files.readAllBytes(relatorioJobService.buscarArquivo(job.getId()).orElseThrow());
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(get("/relatorios/jobs/{id}/arquivo", job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().bytes(conteudo));
+
+        // Retomada a partir do byte 100 até o fim do arquivo
+        mockMvc.perform(get("/relatorios/jobs/{id}/arquivo", job.getId())
+                        .header(HttpHeaders.RANGE, "bytes=100-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                        "bytes 100-" + (conteudo.length - 1) + "/" + conteudo.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(conteudo, 100, conteudo.length)));
+    }
+
+    @Test
+    void inicializacaoApagaApenasArquivosDeJobs() throws Exception {
+        String id = UUID.randomUUID().toString();
+        List<Path> arquivosDeJobs = List.of(diretorio.resolve(id + ".tmp"), diretorio.resolve(id + ".csv"),
+                diretorio.resolve(UUID.randomUUID() + ".xlsx"), diretorio.resolve(UUID.randomUUID() + ".parquet"));
+        List<Path> outrosArquivos = List.of(diretorio.resolve("notas.txt"), diretorio.resolve("relatorio.csv"),
+                diretorio.resolve(id + ".txt"), diretorio.resolve(id.toUpperCase() + ".csv"),
+                diretorio.resolve(id + ".csv.bak"));
+        for (Path arquivo : arquivosDeJobs) {
+            Files.writeString(arquivo, "job");
+        }
+        for (Path arquivo : outrosArquivos) {
+            Files.writeString(arquivo, "outro");
+        }
+
+        RelatorioJobService servico = new RelatorioJobService();
+        ReflectionTestUtils.setField(servico, "diretorio", diretorio.toString());
+        ReflectionTestUtils.setField(servico, "threads", 1);
+        ReflectionTestUtils.setField(servico, "filaMaxima", 1);
+        servico.iniciar();
+        servico.encerrar();
+
+        for (Path arquivo : arquivosDeJobs) {
+            assertFalse(Files.exists(arquivo), arquivo.toString());
+        }
+        for (Path arquivo : outrosArquivos) {
+            assertArrayEquals("outro".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(arquivo), arquivo.toString());
+        }
+    }
+
+    private RelatorioJobDTO aguardarConclusao(String id) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            RelatorioJobDTO job = relatorioJobService.buscar(id).orElseThrow();
+            if ("CONCLUIDO".equals(job.getStatus()) || "ERRO".equals(job.getStatus())) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Job não concluído no tempo esperado: " + id);
+    }
+}
@@ -0,0 +1,58 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Geração do pacote ZIP com todos os relatórios
+ */
+class RelatorioPacoteServiceTest extends ContagemSqlTestBase {
+
+    private static final int PRESENCAS_POR_TURMA =
+            DadosTeste.ALUNOS_ATIVOS_POR_TURMA * DadosTeste.DIAS_HISTORICO + DadosTeste.PRESENCAS_ALUNO_INATIVO;
+
+    @Autowired
+    private RelatorioPacoteService relatorioPacoteService;
+
+    @Test
+    void escreverPacote() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        // Cada conteúdo lê o banco uma única vez para gerar o CSV e o Excel
+        assertMaximoSql(RelatorioService.ConteudoPacote.values().length, () -> {
+            try {
+                relatorioPacoteService.escreverPacote(dados.getTurmaId(), null, null, saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        Map<String, byte[]> arquivos = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(saida.toByteArray()))) {
+            for (ZipEntry entrada = zip.getNextEntry(); entrada != null; entrada = zip.getNextEntry()) {
+                arquivos.put(entrada.getName(), zip.readAllBytes());
+            }
+        }
+
+        assertEquals(2 * RelatorioService.ConteudoPacote.values().length, arquivos.size());
+        assertTrue(arquivos.containsKey("chamadas-mentores.xlsx"));
+        String presencas = new String(arquivos.get("presencas.csv"), StandardCharsets.UTF_8);
+        assertEquals(PRESENCAS_POR_TURMA + 1, presencas.split("\r\n").length);
+        String chamadas = new String(arquivos.get("chamadas.csv"), StandardCharsets.UTF_8);
+        assertEquals(DadosTeste.DIAS_HISTORICO * DadosTeste.ALUNOS_ATIVOS_POR_TURMA + 1, chamadas.split("\r\n").length);
+    }
+}
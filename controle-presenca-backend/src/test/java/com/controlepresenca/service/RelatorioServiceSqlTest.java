@@ -0,0 +1,299 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.PresencaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do RelatorioService
+ */
+class RelatorioServiceSqlTest extends ContagemSqlTestBase {
+
+    private static final int PRESENCAS_POR_TURMA =
+            DadosTeste.ALUNOS_ATIVOS_POR_TURMA * DadosTeste.DIAS_HISTORICO + DadosTeste.PRESENCAS_ALUNO_INATIVO;
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private RelatorioCache relatorioCache;
+
+    @Autowired
+    private RelatorioPeriodoFechadoCache periodoFechadoCache;
+
+    @Autowired
+    private PresencaService presencaService;
+
+    @Autowired
+    private ContadorReconciliacaoService contadorReconciliacaoService;
+
+    @AfterEach
+    void restaurarDataFechamento() {
+        ReflectionTestUtils.setField(periodoFechadoCache, "dataFechamentoConfigurada", "2000-01-01");
+        periodoFechadoCache.limpar();
+    }
+
+    @Test
+    void escreverRelatorioPresencasCSV() {
+        // A primeira data anterior ao fechamento e todas as linhas em uma única consulta lida por cursor
+        String csv = assertMaximoSql(2, () -> escreverCSV(dados.getTurmaId()));
+        String[] linhas = csv.split("\r\n");
+        assertEquals(PRESENCAS_POR_TURMA + 1, linhas.length);
+        assertTrue(linhas[0].startsWith("Data,Hora,Turma"));
+    }
+
+    @Test
+    void escreverRelatorioPresencasExcel() throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        assertMaximoSql(1, () -> {
+            try {
+                relatorioService.escreverRelatorioPresencasExcel(dados.getTurmaId(), null, null, saida);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(saida.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(PRESENCAS_POR_TURMA, sheet.getLastRowNum());
+            // A coluna de observações usa a largura do cabeçalho mais a margem
+            assertEquals(("Observações".length() + 2) * 256, sheet.getColumnWidth(6));
+        }
+    }
+
+    @Test
+    void escreverRelatorioParquet() {
+        // Cada relatório em Parquet vem de uma única consulta lida por cursor
+        byte[] presencas = assertMaximoSql(1, () -> escreverParquet(RelatorioService.TipoRelatorio.PRESENCAS));
+        byte[] chamadas = assertMaximoSql(1, () -> escreverParquet(RelatorioService.TipoRelatorio.CHAMADAS));
+        byte[] participacoes = assertMaximoSql(1,
+                () -> escreverParquet(RelatorioService.TipoRelatorio.PARTICIPACOES_MENTORES));
+
+        for (byte[] arquivo : new byte[][] {presencas, chamadas, participacoes}) {
+            assertEquals("PAR1", new String(arquivo, 0, 4, StandardCharsets.US_ASCII));
+            assertEquals("PAR1", new String(arquivo, arquivo.length - 4, 4, StandardCharsets.US_ASCII));
+        }
+        // Dicionário e compressão deixam o arquivo menor que o CSV das mesmas presenças
+        assertTrue(presencas.length < escreverCSV(dados.getTurmaId()).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void formatoParquetNaoDisponivelParaAlunos() {
+        assertThrows(IllegalArgumentException.class, () -> relatorioService.escreverRelatorio(
+                RelatorioService.TipoRelatorio.ALUNOS, RelatorioService.FormatoRelatorio.PARQUET,
+                null, null, null, new ByteArrayOutputStream()));
+    }
+
+    @Test
+    void escreverRelatorioUsaCache() {
+        relatorioCache.limpar();
+        byte[] primeiro = escreverRelatorio(dados.getTurmaId());
+        assertTrue(relatorioCache.getBytesComprimidos() > 0);
+
+        // A segunda chamada com os mesmos parâmetros não consulta o banco
+        byte[] segundo = assertMaximoSql(0, () -> escreverRelatorio(dados.getTurmaId()));
+        assertArrayEquals(primeiro, segundo);
+    }
+
+    @Test
+    void registrarPresencaInvalidaApenasATurma() {
+        relatorioCache.limpar();
+        Long outraTurmaId = dados.getTurmaIds().get(1);
+        escreverRelatorio(dados.getTurmaId());
+        escreverRelatorio(outraTurmaId);
+
+        PresencaDTO dto = new PresencaDTO(dados.getAlunoId(), dados.getTurmaId());
+        dto.setDataPresenca(dados.getHoje().plusDays(1));
+        presencaService.registrarPresenca(dto);
+
+        assertMaximoSql(0, () -> escreverRelatorio(outraTurmaId));
+        String csv = new String(escreverRelatorio(dados.getTurmaId()), StandardCharsets.UTF_8);
+        assertEquals(PRESENCAS_POR_TURMA + 2, csv.split("\r\n").length);
+    }
+
+    @Test
+    void memoriaDasCopiasEsgotadaDispensaCache() {
+        relatorioCache.limpar();
+        long memoriaMaxima = (long) ReflectionTestUtils.getField(relatorioService, "memoriaMaximaCopiasMb");
+        ReflectionTestUtils.setField(relatorioService, "memoriaMaximaCopiasMb", 0L);
+        try {
+            // Sem memória para a cópia o relatório é entregue completo, mas não entra no cache
+            String csv = new String(escreverRelatorio(dados.getTurmaId()), StandardCharsets.UTF_8);
+            assertEquals(PRESENCAS_POR_TURMA + 1, csv.split("\r\n").length);
+            assertEquals(0, relatorioCache.getBytesComprimidos());
+        } finally {
+            ReflectionTestUtils.setField(relatorioService, "memoriaMaximaCopiasMb", memoriaMaxima);
+        }
+
+        escreverRelatorio(dados.getTurmaId());
+        assertTrue(relatorioCache.getBytesComprimidos() > 0);
+        assertEquals(0, relatorioService.getMemoriaCopias());
+    }
+
+    @Test
+    void reconciliacaoDeContadoresDescartaRelatorios() {
+        relatorioCache.limpar();
+        byte[] correto = escreverRelatorioTurmas();
+        assertTrue(relatorioCache.getBytesComprimidos() > 0);
+
+        // Contador alterado direto no banco e relatório gerado com o valor divergente
+        entityManager.createQuery("UPDATE Turma t SET t.totalAlunos = 0 WHERE t.id = :id")
+                .setParameter("id", dados.getTurmaId())
+                .executeUpdate();
+        relatorioCache.limpar();
+        byte[] divergente = escreverRelatorioTurmas();
+        assertFalse(Arrays.equals(correto, divergente));
+
+        contadorReconciliacaoService.reconciliarTodos();
+
+        assertEquals(0, relatorioCache.getBytesComprimidos());
+        assertArrayEquals(correto, escreverRelatorioTurmas());
+    }
+
+    @Test
+    void invalidacaoDeOutraTurmaNaoImpedeArmazenamento() {
+        relatorioCache.limpar();
+        Long outraTurmaId = dados.getTurmaIds().get(1);
+        byte[] conteudo = "relatorio".getBytes(StandardCharsets.UTF_8);
+        long versaoOutraTurma = relatorioCache.versao(outraTurmaId);
+        long versaoTodasTurmas = relatorioCache.versao(null);
+
+        // Relatórios gerados enquanto outra turma é alterada: só o de todas as turmas fica desatualizado
+        relatorioCache.invalidarTurma(dados.getTurmaId());
+        relatorioCache.armazenar("outra-turma", outraTurmaId, conteudo, versaoOutraTurma);
+        relatorioCache.armazenar("todas-turmas", null, conteudo, versaoTodasTurmas);
+
+        assertTrue(relatorioCache.buscar("outra-turma").isPresent());
+        assertFalse(relatorioCache.buscar("todas-turmas").isPresent());
+    }
+
+    @Test
+    void mesesFechadosSaoServidosDoDisco() {
+        YearMonth mesAtual = YearMonth.from(dados.getHoje());
+        LocalDate dataInicio = mesAtual.minusMonths(2).atDay(1);
+        String esperado = escreverCSV(dados.getTurmaId(), dataInicio, null);
+
+        // Apenas o mês atual fica aberto
+        fecharAte(mesAtual.atDay(1));
+        String primeiro = assertMaximoSql(3, () -> escreverCSV(dados.getTurmaId(), dataInicio, null));
+        assertEquals(esperado, primeiro);
+
+        // Os meses fechados vêm do disco; só o período aberto é consultado
+        String segundo = assertMaximoSql(1, () -> escreverCSV(dados.getTurmaId(), dataInicio, null));
+        assertEquals(esperado, segundo);
+    }
+
+    @Test
+    void semDataInicialUsaMesesFechados() {
+        YearMonth mesAtual = YearMonth.from(dados.getHoje());
+        LocalDate dataFim = mesAtual.atEndOfMonth();
+        String esperado = escreverCSV(dados.getTurmaId());
+        String esperadoAteDataFim = escreverCSV(dados.getTurmaId(), null, dataFim);
+
+        // Apenas o mês atual fica aberto; o histórico começa no primeiro mês com presenças
+        fecharAte(mesAtual.atDay(1));
+        assertEquals(esperado, escreverCSV(dados.getTurmaId()));
+        String segundo = assertMaximoSql(2, () -> escreverCSV(dados.getTurmaId()));
+        assertEquals(esperado, segundo);
+
+        // Com o período inteiro fechado, só a primeira data é consultada
+        fecharAte(dataFim.plusDays(1));
+        assertEquals(esperadoAteDataFim, escreverCSV(dados.getTurmaId(), null, dataFim));
+        String fechado = assertMaximoSql(1, () -> escreverCSV(dados.getTurmaId(), null, dataFim));
+        assertEquals(esperadoAteDataFim, fechado);
+        assertEquals(PRESENCAS_POR_TURMA + 1, fechado.split("\r\n").length);
+    }
+
+    @Test
+    void alteracaoEmMesFechadoRegeraApenasAqueleMes() {
+        YearMonth mesAtual = YearMonth.from(dados.getHoje());
+        LocalDate dataInicio = mesAtual.minusMonths(2).atDay(1);
+        LocalDate dataFim = mesAtual.atEndOfMonth();
+        int meses = (int) ChronoUnit.MONTHS.between(YearMonth.from(dataInicio), mesAtual) + 1;
+
+        fecharAte(dataFim.plusDays(1));
+        String antes = assertMaximoSql(meses, () -> escreverCSV(dados.getTurmaId(), dataInicio, dataFim));
+        assertEquals(PRESENCAS_POR_TURMA + 1, antes.split("\r\n").length);
+        assertMaximoSql(0, () -> escreverCSV(dados.getTurmaId(), dataInicio, dataFim));
+
+        PresencaDTO dto = new PresencaDTO(dados.getAlunoId(), dados.getTurmaId());
+        dto.setDataPresenca(dataInicio);
+        presencaService.registrarPresenca(dto);
+
+        String depois = assertMaximoSql(1, () -> escreverCSV(dados.getTurmaId(), dataInicio, dataFim));
+        assertEquals(PRESENCAS_POR_TURMA + 2, depois.split("\r\n").length);
+    }
+
+    private void fecharAte(LocalDate dataFechamento) {
+        periodoFechadoCache.limpar();
+        ReflectionTestUtils.setField(periodoFechadoCache, "dataFechamentoConfigurada", dataFechamento.toString());
+    }
+
+    private byte[] escreverRelatorio(Long turmaId) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            relatorioService.escreverRelatorio(RelatorioService.TipoRelatorio.PRESENCAS,
+                    RelatorioService.FormatoRelatorio.CSV, turmaId, null, null, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private byte[] escreverRelatorioTurmas() {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            relatorioService.escreverRelatorio(RelatorioService.TipoRelatorio.TURMAS,
+                    RelatorioService.FormatoRelatorio.CSV, null, null, null, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private byte[] escreverParquet(RelatorioService.TipoRelatorio tipo) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            relatorioService.escreverRelatorioParquet(tipo, dados.getTurmaId(), null, null, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+
+    private String escreverCSV(Long turmaId) {
+        return escreverCSV(turmaId, null, null);
+    }
+
+    private String escreverCSV(Long turmaId, LocalDate dataInicio, LocalDate dataFim) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        try {
+            relatorioService.escreverRelatorioPresencasCSV(turmaId, dataInicio, dataFim, saida);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+}
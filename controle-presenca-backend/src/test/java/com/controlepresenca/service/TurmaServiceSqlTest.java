@@ -0,0 +1,84 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.dto.PaginaDTO;
+import com.controlepresenca.dto.TurmaDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import com.controlepresenca.support.DadosTeste;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Limites de instruções SQL por método do TurmaService
+ */
+class TurmaServiceSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private TurmaService turmaService;
+
+    @Test
+    void listarTurmasAtivas() {
+        List<TurmaDTO> turmas = assertMaximoSql(1, () -> turmaService.listarTurmasAtivas());
+        assertEquals(DadosTeste.TURMAS, turmas.size());
+        assertEquals(DadosTeste.ALUNOS_ATIVOS_POR_TURMA, turmas.get(0).getTotalAlunos());
+    }
+
+    @Test
+    void listarTodasTurmas() {
+        List<TurmaDTO> turmas = assertMaximoSql(1, () -> turmaService.listarTodasTurmas());
+        assertEquals(DadosTeste.TURMAS, turmas.size());
+    }
+
+    @Test
+    void listarTurmasPaginadas() {
+        PaginaDTO<TurmaDTO> pagina = assertMaximoSql(2,
+                () -> turmaService.listarTurmasPaginadas(true, 0, 2, "codigo,desc", true));
+        assertEquals(2, pagina.getItens().size());
+        assertEquals((long) DadosTeste.TURMAS, pagina.getTotalItens());
+        assertEquals(2, pagina.getTotalPaginas());
+        assertTrue(pagina.getTemMais());
+    }
+
+    @Test
+    void buscarPorId() {
+        assertTrue(assertMaximoSql(1, () -> turmaService.buscarPorId(dados.getTurmaId())).isPresent());
+    }
+
+    @Test
+    void buscarPorCodigo() {
+        assertTrue(assertMaximoSql(1, () -> turmaService.buscarPorCodigo("TA")).isPresent());
+    }
+
+    @Test
+    void buscarPorNome() {
+        assertEquals(DadosTeste.TURMAS, assertMaximoSql(1, () -> turmaService.buscarPorNome("turma")).size());
+    }
+
+    @Test
+    void criarTurma() {
+        TurmaDTO nova = new TurmaDTO("Turma Nova", "TNOVA", "Nova turma");
+        assertMaximoSql(2, () -> turmaService.criarTurma(nova));
+    }
+
+    @Test
+    void atualizarTurma() {
+        TurmaDTO dto = turmaService.buscarPorId(dados.getTurmaId()).orElseThrow();
+        dto.setDescricao("Descrição atualizada");
+        assertMaximoSql(3, () -> turmaService.atualizarTurma(dados.getTurmaId(), dto));
+    }
+
+    @Test
+    void removerTurma() {
+        assertMaximoSql(2, () -> turmaService.removerTurma(dados.getTurmaId()));
+    }
+
+    @Test
+    void excluirTurma() {
+        Long turmaId = turmaService.criarTurma(new TurmaDTO("Turma Vazia", "TVAZIA", null)).getId();
+        assertMaximoSql(5, () -> turmaService.excluirTurma(turmaId));
+    }
+}
@@ -0,0 +1,104 @@
+package com.controlepresenca.service;
+
+import com.controlepresenca.controller.MentorController;
+import com.controlepresenca.controller.TurmaController;
+import com.controlepresenca.dto.MentorDTO;
+import com.controlepresenca.support.ContagemSqlTestBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Versões de turmas, alunos e mentores e respostas condicionais (ETag / If-None-Match)
+ */
+class VersoesAgregadosSqlTest extends ContagemSqlTestBase {
+
+    @Autowired
+    private VersoesAgregados versoes;
+
+    @Autowired
+    private TurmaController turmaController;
+
+    @Autowired
+    private MentorController mentorController;
+
+    @Autowired
+    private MentorService mentorService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void etagAtualRespondeNaoModificadoSemConsulta() {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        ServletWebRequest requisicao = requisicao(versoes.etag(VersoesAgregados.Agregado.TURMAS), resposta);
+
+        ResponseEntity<?> retorno = assertMaximoSql(0,
+                () -> turmaController.listarTurmas(null, null, null, true, false, requisicao));
+
+        assertNull(retorno);
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), resposta.getStatus());
+    }
+
+    @Test
+    void etagAntigaDevolveListaComEtagAtual() {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        ServletWebRequest requisicao = requisicao("\"turmas-antiga-0\"", resposta);
+
+        ResponseEntity<?> retorno = turmaController.listarTurmas(null, null, null, true, false, requisicao);
+
+        assertNotNull(retorno.getBody());
+        assertEquals(versoes.etag(VersoesAgregados.Agregado.TURMAS), resposta.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void versaoSobeSomenteAposCommit() {
+        long versao = versoes.versao(VersoesAgregados.Agregado.MENTORES);
+        Long id = dados.getMentorIds().get(0);
+
+        // A transação do teste sofre rollback: a versão não pode mudar
+        MentorDTO dto = mentorService.buscarPorId(id);
+        dto.setNome("Mentor renomeado");
+        mentorService.atualizar(id, dto);
+        assertEquals(versao, versoes.versao(VersoesAgregados.Agregado.MENTORES));
+
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transacao.executeWithoutResult(status -> {
+            versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES);
+            status.setRollbackOnly();
+        });
+        assertEquals(versao, versoes.versao(VersoesAgregados.Agregado.MENTORES));
+
+        transacao.executeWithoutResult(status -> versoes.registrarAlteracao(VersoesAgregados.Agregado.MENTORES));
+        assertEquals(versao + 1, versoes.versao(VersoesAgregados.Agregado.MENTORES));
+    }
+
+    @Test
+    void buscaPorIdAceitaEtag() {
+        Long id = dados.getMentorIds().get(0);
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        ServletWebRequest requisicao = requisicao(versoes.etag(VersoesAgregados.Agregado.MENTORES), resposta);
+
+        assertNull(assertMaximoSql(0, () -> mentorController.buscarPorId(id, requisicao)));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), resposta.getStatus());
+    }
+
+    private ServletWebRequest requisicao(String etag, MockHttpServletResponse resposta) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/");
+        requisicao.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        return new ServletWebRequest(requisicao, resposta);
+    }
+}
@@ -0,0 +1,34 @@
+package com.controlepresenca.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Registra as instruções SQL enviadas ao banco durante os testes
+ *
+ * Cada execução (execute, executeQuery, executeUpdate ou executeBatch) conta como
+ * uma ida ao banco; um lote JDBC conta uma única vez
+ */
+public class ContadorSql {
+
+    private final List<String> instrucoes = Collections.synchronizedList(new ArrayList<>());
+
+    public void registrar(String sql) {
+        instrucoes.add(sql);
+    }
+
+    public void reiniciar() {
+        instrucoes.clear();
+    }
+
+    public int total() {
+        return instrucoes.size();
+    }
+
+    public List<String> instrucoes() {
+        synchronized (instrucoes) {
+            return new ArrayList<>(instrucoes);
+        }
+    }
+}
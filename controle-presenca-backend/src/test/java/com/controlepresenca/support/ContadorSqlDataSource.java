@@ -0,0 +1,73 @@
+package com.controlepresenca.support;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * DataSource que envolve conexões e statements em proxies para contar as instruções executadas
+ */
+public class ContadorSqlDataSource extends DelegatingDataSource {
+
+    private static final Set<String> METODOS_EXECUCAO = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final ContadorSql contador;
+
+    public ContadorSqlDataSource(DataSource alvo, ContadorSql contador) {
+        super(alvo);
+        this.contador = contador;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return envolverConexao(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return envolverConexao(super.getConnection(username, password));
+    }
+
+    private Connection envolverConexao(Connection conexao) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> {
+                    Object resultado = invocar(conexao, metodo, args);
+                    if (resultado instanceof Statement statement && Statement.class.isAssignableFrom(metodo.getReturnType())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        return envolverStatement(statement, metodo.getReturnType(), sql);
+                    }
+                    return resultado;
+                });
+    }
+
+    private Object envolverStatement(Statement statement, Class<?> tipo, String sqlPreparado) {
+        return Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{tipo},
+                (proxy, metodo, args) -> {
+                    if (METODOS_EXECUCAO.contains(metodo.getName())) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : sqlPreparado;
+                        contador.registrar(sql);
+                    }
+                    return invocar(statement, metodo, args);
+                });
+    }
+
+    private static Object invocar(Object alvo, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.controlepresenca.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuração de teste que instala o contador de SQL sobre o DataSource da aplicação
+ */
+@TestConfiguration
+public class ContagemSqlConfig {
+
+    @Bean
+    public ContadorSql contadorSql() {
+        return new ContadorSql();
+    }
+
+    @Bean
+    public static BeanPostProcessor contadorSqlDataSourcePostProcessor(@Lazy ContadorSql contadorSql) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ContadorSqlDataSource)) {
+                    return new ContadorSqlDataSource(dataSource, contadorSql);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public DadosTeste dadosTeste() {
+        return new DadosTeste();
+    }
+}
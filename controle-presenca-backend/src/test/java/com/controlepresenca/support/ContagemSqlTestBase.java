@@ -0,0 +1,69 @@
+package com.controlepresenca.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Base dos testes de contagem de SQL
+ *
+ * Cada teste roda em transação com rollback sobre a massa de {@link DadosTeste}. As medições
+ * limpam o contexto de persistência antes da chamada e forçam o flush ao final, para que
+ * todas as instruções do método sejam contadas
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(ContagemSqlConfig.class)
+@Transactional
+public abstract class ContagemSqlTestBase {
+
+    @Autowired
+    protected ContadorSql contadorSql;
+
+    @Autowired
+    protected DadosTeste dados;
+
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    @BeforeEach
+    void carregarDados() {
+        dados.carregar();
+    }
+
+    /**
+     * Executa a ação e verifica que ela não enviou mais do que o limite de instruções SQL
+     */
+    protected <T> T assertMaximoSql(int limite, Supplier<T> acao) {
+        entityManager.flush();
+        entityManager.clear();
+        contadorSql.reiniciar();
+
+        T resultado = acao.get();
+        entityManager.flush();
+
+        int total = contadorSql.total();
+        assertTrue(total <= limite, () -> "Esperado no máximo " + limite + " instruções SQL, mas foram executadas "
+                + total + ":\n" + String.join("\n", contadorSql.instrucoes()));
+        return resultado;
+    }
+
+    /**
+     * Variante de {@link #assertMaximoSql(int, Supplier)} para ações sem retorno
+     */
+    protected void assertMaximoSql(int limite, Runnable acao) {
+        assertMaximoSql(limite, () -> {
+            acao.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package com.controlepresenca.support;
+
+import com.controlepresenca.entity.*;
+import com.controlepresenca.repository.*;
+import com.controlepresenca.service.ContadorReconciliacaoService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Massa de dados compartilhada pelos testes de integração
+ *
+ * Carregada uma única vez por contexto, em transação própria, para que cada teste
+ * possa rodar em transação com rollback sobre a mesma base
+ */
+public class DadosTeste {
+
+    public static final int TURMAS = 3;
+    public static final int ALUNOS_ATIVOS_POR_TURMA = 25;
+    public static final int DIAS_HISTORICO = 10;
+    public static final int MENTORES_POR_TIPO = 3;
+    public static final int PRESENCAS_ALUNO_INATIVO = 3;
+
+    @Autowired
+    private TurmaRepository turmaRepository;
+
+    @Autowired
+    private AlunoRepository alunoRepository;
+
+    @Autowired
+    private PresencaRepository presencaRepository;
+
+    @Autowired
+    private ChamadaRepository chamadaRepository;
+
+    @Autowired
+    private ChamadaAlunoRepository chamadaAlunoRepository;
+
+    @Autowired
+    private MentorRepository mentorRepository;
+
+    @Autowired
+    private ChamadaMentorRepository chamadaMentorRepository;
+
+    @Autowired
+    private ChamadaMentorParticipanteRepository participanteRepository;
+
+    @Autowired
+    private ContadorReconciliacaoService contadorReconciliacaoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private boolean carregado;
+
+    private final LocalDate hoje = LocalDate.now();
+    private final List<Long> turmaIds = new ArrayList<>();
+    private final Map<Long, List<Long>> alunosAtivosPorTurma = new LinkedHashMap<>();
+    private final Map<Long, Long> alunoInativoPorTurma = new LinkedHashMap<>();
+    private final Map<Long, List<Long>> chamadasPorTurma = new LinkedHashMap<>();
+    private final List<Long> mentorIds = new ArrayList<>();
+    private final List<Long> chamadaMentorIds = new ArrayList<>();
+    private final List<Long> presencaIds = new ArrayList<>();
+
+    /**
+     * Carrega a massa de dados, se ainda não carregada
+     */
+    public synchronized void carregar() {
+        if (carregado) {
+            return;
+        }
+
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transacao.executeWithoutResult(status -> {
+            carregarTurmasEAlunos();
+            carregarChamadas();
+            carregarMentores();
+        });
+        // Fora da transação do teste, para que os contadores reconciliados não sofram rollback
+        transacao.executeWithoutResult(status -> contadorReconciliacaoService.reconciliarTodos());
+        carregado = true;
+    }
+
+    private void carregarTurmasEAlunos() {
+        for (int t = 0; t < TURMAS; t++) {
+            char letra = (char) ('A' + t);
+            Turma turma = turmaRepository.save(new Turma("Turma " + letra, "T" + letra, "Turma de teste " + letra));
+            turmaIds.add(turma.getId());
+
+            List<Aluno> alunos = new ArrayList<>();
+            for (int a = 0; a < ALUNOS_ATIVOS_POR_TURMA; a++) {
+                String matricula = "M" + letra + String.format("%03d", a);
+                alunos.add(new Aluno("Aluno " + letra + a, matricula, matricula.toLowerCase() + "@teste.com", turma));
+            }
+            alunoRepository.saveAll(alunos);
+            alunosAtivosPorTurma.put(turma.getId(), alunos.stream().map(Aluno::getId).toList());
+
+            String matriculaInativo = "I" + letra + "000";
+            Aluno inativo = new Aluno("Inativo " + letra, matriculaInativo, matriculaInativo.toLowerCase() + "@teste.com", turma);
+            inativo.setAtivo(false);
+            alunoRepository.save(inativo);
+            alunoInativoPorTurma.put(turma.getId(), inativo.getId());
+
+            List<Presenca> presencas = new ArrayList<>();
+            for (int d = 1; d <= DIAS_HISTORICO; d++) {
+                for (Aluno aluno : alunos) {
+                    presencas.add(new Presenca(aluno, turma, hoje.minusDays(d), LocalTime.of(8, 0), null));
+                }
+            }
+            for (int d = 1; d <= PRESENCAS_ALUNO_INATIVO; d++) {
+                presencas.add(new Presenca(inativo, turma, hoje.minusDays(DIAS_HISTORICO + d), LocalTime.of(8, 0), null));
+            }
+            presencaRepository.saveAll(presencas);
+            presencas.forEach(p -> presencaIds.add(p.getId()));
+        }
+    }
+
+    private void carregarChamadas() {
+        for (Long turmaId : turmaIds) {
+            Turma turma = turmaRepository.getReferenceById(turmaId);
+            List<Long> chamadaIds = new ArrayList<>();
+            for (int d = 1; d <= DIAS_HISTORICO; d++) {
+                Chamada chamada = chamadaRepository.save(new Chamada(turma, hoje.minusDays(d), "Chamada " + d));
+                chamadaIds.add(chamada.getId());
+
+                List<ChamadaAluno> registros = new ArrayList<>();
+                List<Long> alunoIds = alunosAtivosPorTurma.get(turmaId);
+                for (int i = 0; i < alunoIds.size(); i++) {
+                    registros.add(new ChamadaAluno(chamada, alunoRepository.getReferenceById(alunoIds.get(i)), i % 4 != 0));
+                }
+                chamadaAlunoRepository.saveAll(registros);
+            }
+            chamadasPorTurma.put(turmaId, chamadaIds);
+        }
+    }
+
+    private void carregarMentores() {
+        List<Mentor> mentores = new ArrayList<>();
+        for (Mentor.TipoMentor tipo : Mentor.TipoMentor.values()) {
+            for (int i = 0; i < MENTORES_POR_TIPO; i++) {
+                String nome = tipo.name().toLowerCase() + i;
+                mentores.add(new Mentor("Mentor " + nome, nome + "@teste.com", tipo));
+            }
+        }
+        mentorRepository.saveAll(mentores);
+        mentores.forEach(m -> mentorIds.add(m.getId()));
+
+        for (int d = 0; d <= DIAS_HISTORICO; d++) {
+            ChamadaMentor chamada = chamadaMentorRepository.save(new ChamadaMentor(hoje.minusDays(d), "Chamada de mentores " + d));
+            chamadaMentorIds.add(chamada.getId());
+
+            List<ChamadaMentorParticipante> participantes = new ArrayList<>();
+            for (int i = 0; i < mentores.size(); i++) {
+                participantes.add(new ChamadaMentorParticipante(chamada, mentores.get(i), i % 3 != 0));
+            }
+            participanteRepository.saveAll(participantes);
+        }
+    }
+
+    public LocalDate getHoje() {
+        return hoje;
+    }
+
+    public List<Long> getTurmaIds() {
+        return turmaIds;
+    }
+
+    public Long getTurmaId() {
+        return turmaIds.get(0);
+    }
+
+    public List<Long> getAlunosAtivos(Long turmaId) {
+        return alunosAtivosPorTurma.get(turmaId);
+    }
+
+    public Long getAlunoId() {
+        return getAlunosAtivos(getTurmaId()).get(0);
+    }
+
+    public Long getAlunoInativo(Long turmaId) {
+        return alunoInativoPorTurma.get(turmaId);
+    }
+
+    public List<Long> getChamadas(Long turmaId) {
+        return chamadasPorTurma.get(turmaId);
+    }
+
+    public List<Long> getMentorIds() {
+        return mentorIds;
+    }
+
+    public List<Long> getChamadaMentorIds() {
+        return chamadaMentorIds;
+    }
+
+    public List<Long> getPresencaIds() {
+        return presencaIds;
+    }
+}
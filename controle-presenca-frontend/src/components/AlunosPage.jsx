@@ -5,9 +5,12 @@ import { Input } from '@/components/ui/input'
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from '@/components/ui/select'
 import { alunosAPI, turmasAPI } from '../services/api'
 import AlunoModal from './AlunoModal'
+import Paginacao from './Paginacao'
 
 const AlunosPage = () => {
   const [alunos, setAlunos] = useState([])
+  const [pagina, setPagina] = useState(null)
+  const [numeroPagina, setNumeroPagina] = useState(0)
   const [filteredAlunos, setFilteredAlunos] = useState([])
   const [turmas, setTurmas] = useState([])
   const [loading, setLoading] = useState(true)
@@ -17,11 +20,15 @@ const AlunosPage = () => {
   const [editingAluno, setEditingAluno] = useState(null)
 
   useEffect(() => {
-    carregarDados()
+    carregarTurmas()
   }, [])
 
   useEffect(() => {
-    // Filtrar alunos baseado no termo de busca e turma selecionada
+    carregarDados()
+  }, [numeroPagina, selectedTurma])
+
+  useEffect(() => {
+    // Filtrar os alunos da página atual baseado no termo de busca
     let filtered = alunos
 
     if (searchTerm) {
@@ -32,22 +39,26 @@ const AlunosPage = () => {
       )
     }
 
-    if (selectedTurma) {
-      filtered = filtered.filter(aluno => aluno.turmaId.toString() === selectedTurma)
-    }
-
     setFilteredAlunos(filtered)
-  }, [alunos, searchTerm, selectedTurma])
+  }, [alunos, searchTerm])
+
+  const carregarTurmas = async () => {
+    try {
+      setTurmas(await turmasAPI.listar())
+    } catch (error) {
+      console.error('Erro ao carregar turmas:', error)
+    }
+  }
 
   const carregarDados = async () => {
     try {
       setLoading(true)
-      const [alunosData, turmasData] = await Promise.all([
-        alunosAPI.listar(),
-        turmasAPI.listar()
-      ])
-      setAlunos(alunosData)
-      setTurmas(turmasData)
+      // O filtro de turma é aplicado no servidor, para a paginação considerar só os alunos da turma
+      const data = selectedTurma
+        ? await alunosAPI.listarPorTurma(selectedTurma, { pagina: numeroPagina })
+        : await alunosAPI.listar({ pagina: numeroPagina })
+      setPagina(data)
+      setAlunos(data.itens)
     } catch (error) {
       console.error('Erro ao carregar dados:', error)
       alert('Erro ao carregar dados. Verifique se o backend está rodando.')
@@ -56,6 +67,11 @@ const AlunosPage = () => {
     }
   }
 
+  const selecionarTurma = (turmaId) => {
+    setSelectedTurma(turmaId)
+    setNumeroPagina(0)
+  }
+
   const handleNovoAluno = () => {
     setEditingAluno(null)
     setModalOpen(true)
@@ -123,7 +139,7 @@ const AlunosPage = () => {
           <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 h-4 w-4" />
           <Input
             type="text"
-            placeholder="Buscar por nome, matrícula ou email..."
+            placeholder="Buscar nesta página por nome, matrícula ou email..."
             value={searchTerm}
             onChange={(e) => setSearchTerm(e.target.value)}
             className="pl-10"
@@ -131,7 +147,7 @@ const AlunosPage = () => {
         </div>
         <div className="flex items-center space-x-2">
           <Filter className="h-4 w-4 text-gray-400" />
-            <Select value={selectedTurma || "all"} onValueChange={(value) => setSelectedTurma(value === "all" ? "" : value)}>
+            <Select value={selectedTurma || "all"} onValueChange={(value) => selecionarTurma(value === "all" ? "" : value)}>
               <SelectTrigger className="w-48">
                 <SelectValue placeholder="Filtrar por turma" />
               </SelectTrigger>
@@ -252,6 +268,7 @@ const AlunosPage = () => {
             </table>
           </div>
         )}
+        <Paginacao pagina={pagina} onMudarPagina={setNumeroPagina} carregando={loading} />
       </div>
 
       {/* Modal para criar/editar aluno */}
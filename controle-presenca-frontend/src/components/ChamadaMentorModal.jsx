@@ -8,7 +8,7 @@ import { Badge } from '@/components/ui/badge'
 import { Dialog, DialogContent, DialogHeader, DialogTitle } from '@/components/ui/dialog'
 import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card'
 import { UserCheck, Users } from 'lucide-react'
-import { api } from '../services/api'
+import { api, mentoresAPI } from '../services/api'
 
 const ChamadaMentorModal = ({ open, onClose, onSuccess, chamada }) => {
   const [formData, setFormData] = useState({
@@ -46,8 +46,7 @@ const ChamadaMentorModal = ({ open, onClose, onSuccess, chamada }) => {
   const carregarMentores = async () => {
     try {
       setLoadingMentores(true)
-      const response = await api.get('/mentores/ativos')
-      setMentores(response.data)
+      setMentores(await mentoresAPI.listarAtivos())
     } catch (error) {
       console.error('Erro ao carregar mentores:', error)
       alert('Erro ao carregar mentores.')
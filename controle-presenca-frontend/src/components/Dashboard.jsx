@@ -1,7 +1,7 @@
 import { useState, useEffect } from 'react'
 import { Users, GraduationCap, CheckSquare, TrendingUp } from 'lucide-react'
 import { BarChart, Bar, XAxis, YAxis, CartesianGrid, Tooltip, ResponsiveContainer, PieChart, Pie, Cell } from 'recharts'
-import { turmasAPI, alunosAPI, presencasAPI } from '../services/api'
+import { dashboardAPI } from '../services/api'
 
 const Dashboard = () => {
   const [stats, setStats] = useState({
@@ -21,26 +21,18 @@ const Dashboard = () => {
     try {
       setLoading(true)
       
-      // Carregar estatísticas básicas
-      const [turmas, alunos, presencas] = await Promise.all([
-        turmasAPI.listar(),
-        alunosAPI.listar(),
-        presencasAPI.listar()
-      ])
-
-      // Calcular presenças de hoje
-      const hoje = new Date().toISOString().split('T')[0]
-      const presencasHoje = presencas.filter(p => p.dataPresenca === hoje).length
+      // Totais e contadores por turma calculados no servidor
+      const resumo = await dashboardAPI.obterResumo()
 
       setStats({
-        totalTurmas: turmas.length,
-        totalAlunos: alunos.length,
-        totalPresencas: presencas.length,
-        presencasHoje
+        totalTurmas: resumo.totalTurmas,
+        totalAlunos: resumo.totalAlunos,
+        totalPresencas: resumo.totalPresencas,
+        presencasHoje: resumo.presencasHoje
       })
 
       // Preparar dados para gráficos
-      const dadosGrafico = turmas.map(turma => ({
+      const dadosGrafico = resumo.turmas.map(turma => ({
         nome: turma.nome,
         alunos: turma.totalAlunos || 0,
         presencas: turma.totalPresencas || 0
@@ -5,11 +5,14 @@ import { Card, CardContent, CardHeader, CardTitle } from '@/components/ui/card'
 import { Badge } from '@/components/ui/badge'
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from '@/components/ui/select'
 import { Plus, Search, Edit, Trash2, UserCheck } from 'lucide-react'
-import { api } from '../services/api'
+import { api, mentoresAPI } from '../services/api'
 import MentorModal from './MentorModal'
+import Paginacao from './Paginacao'
 
 const MentoresPage = () => {
   const [mentores, setMentores] = useState([])
+  const [pagina, setPagina] = useState(null)
+  const [numeroPagina, setNumeroPagina] = useState(0)
   const [filteredMentores, setFilteredMentores] = useState([])
   const [loading, setLoading] = useState(true)
   const [searchTerm, setSearchTerm] = useState('')
@@ -25,17 +28,21 @@ const MentoresPage = () => {
 
   useEffect(() => {
     carregarMentores()
-  }, [])
+  }, [numeroPagina, selectedTipo])
 
   useEffect(() => {
     filtrarMentores()
-  }, [mentores, searchTerm, selectedTipo])
+  }, [mentores, searchTerm])
 
   const carregarMentores = async () => {
     try {
       setLoading(true)
-      const response = await api.get('/mentores')
-      setMentores(response.data)
+      // O filtro de tipo é aplicado no servidor (mentores ativos do tipo), para a paginação considerar só esse tipo
+      const data = selectedTipo !== 'all'
+        ? await mentoresAPI.listarPorTipo(selectedTipo, { pagina: numeroPagina })
+        : await mentoresAPI.listar({ pagina: numeroPagina })
+      setPagina(data)
+      setMentores(data.itens)
     } catch (error) {
       console.error('Erro ao carregar mentores:', error)
       alert('Erro ao carregar mentores. Verifique se o backend está rodando.')
@@ -54,15 +61,12 @@ const MentoresPage = () => {
       )
     }
 
-    if (selectedTipo !== 'all') {
-      filtered = filtered.filter(mentor => mentor.tipoMentor === selectedTipo)
-    }
-
     setFilteredMentores(filtered)
   }
 
   const handleTipoChange = (value) => {
     setSelectedTipo(value)
+    setNumeroPagina(0)
   }
 
   const handleEdit = (mentor) => {
@@ -135,7 +139,7 @@ const MentoresPage = () => {
               <div className="relative">
                 <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 h-4 w-4" />
                 <Input
-                  placeholder="Buscar por nome ou email..."
+                  placeholder="Buscar nesta página por nome ou email..."
                   value={searchTerm}
                   onChange={(e) => setSearchTerm(e.target.value)}
                   className="pl-10"
@@ -224,6 +228,8 @@ const MentoresPage = () => {
         ))}
       </div>
 
+      <Paginacao pagina={pagina} onMudarPagina={setNumeroPagina} carregando={loading} />
+
       {filteredMentores.length === 0 && (
         <Card>
           <CardContent className="text-center py-8">
@@ -0,0 +1,43 @@
+import { ChevronLeft, ChevronRight } from 'lucide-react'
+import { Button } from '@/components/ui/button'
+
+// Navegação entre as páginas de uma listagem paginada (PaginaDTO)
+const Paginacao = ({ pagina, onMudarPagina, carregando }) => {
+  if (!pagina || (pagina.pagina === 0 && !pagina.temMais)) {
+    return null
+  }
+
+  const atual = pagina.pagina + 1
+  const total = pagina.totalPaginas
+
+  return (
+    <div className="flex items-center justify-between px-6 py-3 border-t border-gray-200">
+      <div className="text-sm text-gray-500">
+        {total ? `Página ${atual} de ${total}` : `Página ${atual}`}
+        {pagina.totalItens != null && ` · ${pagina.totalItens} registros`}
+      </div>
+      <div className="flex items-center space-x-2">
+        <Button
+          variant="outline"
+          size="sm"
+          disabled={carregando || pagina.pagina === 0}
+          onClick={() => onMudarPagina(pagina.pagina - 1)}
+        >
+          <ChevronLeft className="h-4 w-4" />
+          <span>Anterior</span>
+        </Button>
+        <Button
+          variant="outline"
+          size="sm"
+          disabled={carregando || !pagina.temMais}
+          onClick={() => onMudarPagina(pagina.pagina + 1)}
+        >
+          <span>Próxima</span>
+          <ChevronRight className="h-4 w-4" />
+        </Button>
+      </div>
+    </div>
+  )
+}
+
+export default Paginacao
@@ -5,8 +5,9 @@ import { Input } from '@/components/ui/input'
 import { Label } from '@/components/ui/label'
 import { Textarea } from '@/components/ui/textarea'
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from '@/components/ui/select'
+import { alunosAPI } from '../services/api'
 
-const PresencaModal = ({ presenca, turmas, alunos, onSave, onClose }) => {
+const PresencaModal = ({ presenca, turmas, onSave, onClose }) => {
   const [formData, setFormData] = useState({
     alunoId: '',
     turmaId: '',
@@ -42,16 +43,19 @@ const PresencaModal = ({ presenca, turmas, alunos, onSave, onClose }) => {
   }, [presenca])
 
   useEffect(() => {
-    // Filtrar alunos pela turma selecionada
-    if (formData.turmaId) {
-      const alunosDaTurma = alunos.filter(aluno => 
-        aluno.turmaId.toString() === formData.turmaId && aluno.ativo
-      )
-      setAlunosFiltrados(alunosDaTurma)
-    } else {
+    // Carregar os alunos ativos da turma selecionada
+    if (!formData.turmaId) {
       setAlunosFiltrados([])
+      return
     }
-  }, [formData.turmaId, alunos])
+    let cancelado = false
+    alunosAPI.listarAtivosDaTurma(formData.turmaId)
+      .then(alunosDaTurma => {
+        if (!cancelado) setAlunosFiltrados(alunosDaTurma)
+      })
+      .catch(error => console.error('Erro ao carregar alunos da turma:', error))
+    return () => { cancelado = true }
+  }, [formData.turmaId])
 
   const validateForm = () => {
     const newErrors = {}
@@ -8,10 +8,12 @@ import PresencaModal from './PresencaModal'
 
 const PresencasPage = () => {
   const [presencas, setPresencas] = useState([])
+  const [proximoCursor, setProximoCursor] = useState(null)
   const [filteredPresencas, setFilteredPresencas] = useState([])
   const [turmas, setTurmas] = useState([])
-  const [alunos, setAlunos] = useState([])
+  const [alunosTurma, setAlunosTurma] = useState([])
   const [loading, setLoading] = useState(true)
+  const [carregandoMais, setCarregandoMais] = useState(false)
   const [searchTerm, setSearchTerm] = useState('')
   const [selectedTurma, setSelectedTurma] = useState('')
   const [selectedData, setSelectedData] = useState('')
@@ -19,11 +21,30 @@ const PresencasPage = () => {
   const [editingPresenca, setEditingPresenca] = useState(null)
 
   useEffect(() => {
-    carregarDados()
+    carregarTurmas()
   }, [])
 
   useEffect(() => {
-    // Filtrar presenças baseado nos filtros
+    carregarDados()
+  }, [selectedTurma, selectedData])
+
+  useEffect(() => {
+    // Alunos ativos da turma para o registro rápido
+    if (!selectedTurma) {
+      setAlunosTurma([])
+      return
+    }
+    let cancelado = false
+    alunosAPI.listarAtivosDaTurma(selectedTurma)
+      .then(alunos => {
+        if (!cancelado) setAlunosTurma(alunos)
+      })
+      .catch(error => console.error('Erro ao carregar alunos da turma:', error))
+    return () => { cancelado = true }
+  }, [selectedTurma])
+
+  useEffect(() => {
+    // Filtrar as presenças já carregadas baseado no termo de busca
     let filtered = presencas
 
     if (searchTerm) {
@@ -34,28 +55,38 @@ const PresencasPage = () => {
       )
     }
 
-    if (selectedTurma) {
-      filtered = filtered.filter(presenca => presenca.turmaId.toString() === selectedTurma)
+    setFilteredPresencas(filtered)
+  }, [presencas, searchTerm])
+
+  const carregarTurmas = async () => {
+    try {
+      setTurmas(await turmasAPI.listar())
+    } catch (error) {
+      console.error('Erro ao carregar turmas:', error)
     }
+  }
 
+  // Filtros de turma e data aplicados no servidor; a página seguinte vem pelo cursor
+  const buscarPagina = (cursor) => {
+    const parametros = { cursor }
+    if (selectedTurma && selectedData) {
+      return presencasAPI.listarPorTurmaEData(selectedTurma, selectedData, parametros)
+    }
+    if (selectedTurma) {
+      return presencasAPI.listarPorTurma(selectedTurma, parametros)
+    }
     if (selectedData) {
-      filtered = filtered.filter(presenca => presenca.dataPresenca === selectedData)
+      return presencasAPI.listarPorData(selectedData, parametros)
     }
-
-    setFilteredPresencas(filtered)
-  }, [presencas, searchTerm, selectedTurma, selectedData])
+    return presencasAPI.listar(parametros)
+  }
 
   const carregarDados = async () => {
     try {
       setLoading(true)
-      const [presencasData, turmasData, alunosData] = await Promise.all([
-        presencasAPI.listar(),
-        turmasAPI.listar(),
-        alunosAPI.listar()
-      ])
-      setPresencas(presencasData)
-      setTurmas(turmasData)
-      setAlunos(alunosData)
+      const pagina = await buscarPagina(null)
+      setPresencas(pagina.itens)
+      setProximoCursor(pagina.proximoCursor)
     } catch (error) {
       console.error('Erro ao carregar dados:', error)
       alert('Erro ao carregar dados. Verifique se o backend está rodando.')
@@ -64,6 +95,20 @@ const PresencasPage = () => {
     }
   }
 
+  const carregarMais = async () => {
+    try {
+      setCarregandoMais(true)
+      const pagina = await buscarPagina(proximoCursor)
+      setPresencas(anteriores => [...anteriores, ...pagina.itens])
+      setProximoCursor(pagina.proximoCursor)
+    } catch (error) {
+      console.error('Erro ao carregar mais presenças:', error)
+      alert('Erro ao carregar mais presenças.')
+    } finally {
+      setCarregandoMais(false)
+    }
+  }
+
   const handleNovaPresenca = () => {
     setEditingPresenca(null)
     setModalOpen(true)
@@ -152,7 +197,7 @@ const PresencasPage = () => {
             <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 h-4 w-4" />
             <Input
               type="text"
-              placeholder="Buscar por aluno ou turma..."
+              placeholder="Buscar nas presenças carregadas..."
               value={searchTerm}
               onChange={(e) => setSearchTerm(e.target.value)}
               className="pl-10"
@@ -210,24 +255,22 @@ const PresencasPage = () => {
         </div>
         {selectedTurma && (
           <div className="mt-4 grid grid-cols-1 sm:grid-cols-2 lg:grid-cols-3 gap-2">
-            {alunos
-              .filter(aluno => aluno.turmaId.toString() === selectedTurma)
-              .map((aluno) => (
-                <div key={aluno.id} className="flex items-center justify-between bg-white p-2 rounded border">
-                  <div className="flex-1">
-                    <div className="text-sm font-medium">{aluno.nome}</div>
-                    <div className="text-xs text-gray-500">{aluno.matricula}</div>
-                  </div>
-                  <Button
-                    size="sm"
-                    onClick={() => handleRegistrarPresencaRapida(aluno.id, parseInt(selectedTurma))}
-                    className="flex items-center space-x-1"
-                  >
-                    <CheckSquare className="h-3 w-3" />
-                    <span>Registrar</span>
-                  </Button>
+            {alunosTurma.map((aluno) => (
+              <div key={aluno.id} className="flex items-center justify-between bg-white p-2 rounded border">
+                <div className="flex-1">
+                  <div className="text-sm font-medium">{aluno.nome}</div>
+                  <div className="text-xs text-gray-500">{aluno.matricula}</div>
                 </div>
-              ))}
+                <Button
+                  size="sm"
+                  onClick={() => handleRegistrarPresencaRapida(aluno.id, parseInt(selectedTurma))}
+                  className="flex items-center space-x-1"
+                >
+                  <CheckSquare className="h-3 w-3" />
+                  <span>Registrar</span>
+                </Button>
+              </div>
+            ))}
           </div>
         )}
       </div>
@@ -328,6 +371,13 @@ const PresencasPage = () => {
             </table>
           </div>
         )}
+        {!loading && proximoCursor && (
+          <div className="flex justify-center px-6 py-3 border-t border-gray-200">
+            <Button variant="outline" size="sm" onClick={carregarMais} disabled={carregandoMais}>
+              {carregandoMais ? 'Carregando...' : 'Carregar mais'}
+            </Button>
+          </div>
+        )}
       </div>
 
       {/* Modal para criar/editar presença */}
@@ -335,7 +385,6 @@ const PresencasPage = () => {
         <PresencaModal
           presenca={editingPresenca}
           turmas={turmas}
-          alunos={alunos}
           onSave={handleSalvarPresenca}
           onClose={() => setModalOpen(false)}
         />
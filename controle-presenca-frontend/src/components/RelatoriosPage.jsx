@@ -45,12 +45,14 @@ const RelatoriosPage = () => {
   const gerarPreview = async () => {
     try {
       setLoadingPreview(true)
-      const dados = await presencasAPI.gerarRelatorio(
+      // Só a primeira página, com os 10 registros mostrados
+      const pagina = await presencasAPI.gerarRelatorio(
         filtros.turmaId || null,
         filtros.dataInicio || null,
-        filtros.dataFim || null
+        filtros.dataFim || null,
+        { tamanho: 10 }
       )
-      setPreview(dados.slice(0, 10)) // Mostrar apenas os primeiros 10 registros
+      setPreview(pagina.itens)
     } catch (error) {
       console.error('Erro ao gerar preview:', error)
       alert('Erro ao gerar preview do relatório.')
@@ -4,9 +4,12 @@ import { Button } from '@/components/ui/button'
 import { Input } from '@/components/ui/input'
 import { turmasAPI } from '../services/api'
 import TurmaModal from './TurmaModal'
+import Paginacao from './Paginacao'
 
 const TurmasPage = () => {
   const [turmas, setTurmas] = useState([])
+  const [pagina, setPagina] = useState(null)
+  const [numeroPagina, setNumeroPagina] = useState(0)
   const [filteredTurmas, setFilteredTurmas] = useState([])
   const [loading, setLoading] = useState(true)
   const [searchTerm, setSearchTerm] = useState('')
@@ -15,10 +18,10 @@ const TurmasPage = () => {
 
   useEffect(() => {
     carregarTurmas()
-  }, [])
+  }, [numeroPagina])
 
   useEffect(() => {
-    // Filtrar turmas baseado no termo de busca
+    // Filtrar as turmas da página atual baseado no termo de busca
     const filtered = turmas.filter(turma =>
       turma.nome.toLowerCase().includes(searchTerm.toLowerCase()) ||
       turma.codigo.toLowerCase().includes(searchTerm.toLowerCase())
@@ -29,8 +32,9 @@ const TurmasPage = () => {
   const carregarTurmas = async () => {
     try {
       setLoading(true)
-      const data = await turmasAPI.listar()
-      setTurmas(data)
+      const data = await turmasAPI.listarPagina({ pagina: numeroPagina })
+      setPagina(data)
+      setTurmas(data.itens)
     } catch (error) {
       console.error('Erro ao carregar turmas:', error)
       alert('Erro ao carregar turmas. Verifique se o backend está rodando.')
@@ -101,7 +105,7 @@ const TurmasPage = () => {
           <Search className="absolute left-3 top-1/2 transform -translate-y-1/2 text-gray-400 h-4 w-4" />
           <Input
             type="text"
-            placeholder="Buscar por nome ou código..."
+            placeholder="Buscar nesta página por nome ou código..."
             value={searchTerm}
             onChange={(e) => setSearchTerm(e.target.value)}
             className="pl-10"
@@ -210,6 +214,7 @@ const TurmasPage = () => {
             </table>
           </div>
         )}
+        <Paginacao pagina={pagina} onMudarPagina={setNumeroPagina} carregando={loading} />
       </div>
 
       {/* Modal para criar/editar turma */}
@@ -34,13 +34,33 @@ const apiRequest = async (endpoint, options = {}) => {
   }
 }
 
+// Monta a query string ignorando parâmetros vazios
+const montarParametros = (parametros = {}) => {
+  const params = new URLSearchParams()
+  Object.entries(parametros).forEach(([chave, valor]) => {
+    if (valor !== undefined && valor !== null && valor !== '') {
+      params.append(chave, valor)
+    }
+  })
+  const query = params.toString()
+  return query ? `?${query}` : ''
+}
+
+// As listagens devolvem páginas: PaginaDTO ({ itens, pagina, tamanho, temMais, totalItens, totalPaginas })
+// para turmas, alunos e mentores, com os parâmetros { pagina, tamanho, ordenacao }, e PaginaCursorDTO
+// ({ itens, proximoCursor, tamanho, temMais }) para presenças, com os parâmetros { cursor, tamanho }.
+// A lista completa (todos=true) fica restrita às listas pequenas usadas em seletores.
+
 // Serviços para Turmas
 export const turmasAPI = {
-  // Listar todas as turmas ativas
-  listar: () => apiRequest('/turmas'),
+  // Lista completa das turmas ativas, para os seletores de turma
+  listar: () => apiRequest('/turmas?todos=true'),
   
-  // Listar todas as turmas (incluindo inativas)
-  listarTodas: () => apiRequest('/turmas/todas'),
+  // Página de turmas ativas
+  listarPagina: (parametros) => apiRequest(`/turmas${montarParametros(parametros)}`),
+  
+  // Página de todas as turmas (incluindo inativas)
+  listarTodas: (parametros) => apiRequest(`/turmas/todas${montarParametros(parametros)}`),
   
   // Buscar turma por ID
   buscarPorId: (id) => apiRequest(`/turmas/${id}`),
@@ -76,14 +96,17 @@ export const turmasAPI = {
 
 // Serviços para Alunos
 export const alunosAPI = {
-  // Listar todos os alunos ativos
-  listar: () => apiRequest('/alunos'),
+  // Página de alunos ativos
+  listar: (parametros) => apiRequest(`/alunos${montarParametros(parametros)}`),
+  
+  // Página de todos os alunos (incluindo inativos)
+  listarTodos: (parametros) => apiRequest(`/alunos/todos${montarParametros(parametros)}`),
   
-  // Listar todos os alunos (incluindo inativos)
-  listarTodos: () => apiRequest('/alunos/todos'),
+  // Página de alunos ativos da turma
+  listarPorTurma: (turmaId, parametros) => apiRequest(`/alunos/turma/${turmaId}${montarParametros(parametros)}`),
   
-  // Listar alunos por turma
-  listarPorTurma: (turmaId) => apiRequest(`/alunos/turma/${turmaId}`),
+  // Lista completa dos alunos ativos da turma, para os seletores de aluno e o registro rápido
+  listarAtivosDaTurma: (turmaId) => apiRequest(`/alunos/turma/${turmaId}?todos=true`),
   
   // Buscar aluno por ID
   buscarPorId: (id) => apiRequest(`/alunos/${id}`),
@@ -125,23 +148,25 @@ export const alunosAPI = {
 
 // Serviços para Presenças
 export const presencasAPI = {
-  // Listar todas as presenças
-  listar: () => apiRequest('/presencas'),
+  // Página de presenças, da mais recente para a mais antiga
+  listar: (parametros) => apiRequest(`/presencas${montarParametros(parametros)}`),
   
-  // Listar presenças por turma
-  listarPorTurma: (turmaId) => apiRequest(`/presencas/turma/${turmaId}`),
+  // Página de presenças por turma
+  listarPorTurma: (turmaId, parametros) => apiRequest(`/presencas/turma/${turmaId}${montarParametros(parametros)}`),
   
-  // Listar presenças por aluno
-  listarPorAluno: (alunoId) => apiRequest(`/presencas/aluno/${alunoId}`),
+  // Página de presenças por aluno
+  listarPorAluno: (alunoId, parametros) => apiRequest(`/presencas/aluno/${alunoId}${montarParametros(parametros)}`),
   
-  // Listar presenças por data
-  listarPorData: (data) => apiRequest(`/presencas/data/${data}`),
+  // Página de presenças por data
+  listarPorData: (data, parametros) => apiRequest(`/presencas/data/${data}${montarParametros(parametros)}`),
   
-  // Listar presenças por turma e data
-  listarPorTurmaEData: (turmaId, data) => apiRequest(`/presencas/turma/${turmaId}/data/${data}`),
+  // Página de presenças por turma e data
+  listarPorTurmaEData: (turmaId, data, parametros) =>
+    apiRequest(`/presencas/turma/${turmaId}/data/${data}${montarParametros(parametros)}`),
   
-  // Listar presenças por período
-  listarPorPeriodo: (dataInicio, dataFim) => apiRequest(`/presencas/periodo?dataInicio=${dataInicio}&dataFim=${dataFim}`),
+  // Página de presenças por período
+  listarPorPeriodo: (dataInicio, dataFim, parametros) =>
+    apiRequest(`/presencas/periodo${montarParametros({ dataInicio, dataFim, ...parametros })}`),
   
   // Buscar presença por ID
   buscarPorId: (id) => apiRequest(`/presencas/${id}`),
@@ -169,15 +194,9 @@ export const presencasAPI = {
     method: 'DELETE',
   }),
   
-  // Gerar relatório
-  gerarRelatorio: (turmaId, dataInicio, dataFim) => {
-    const params = new URLSearchParams()
-    if (turmaId) params.append('turmaId', turmaId)
-    if (dataInicio) params.append('dataInicio', dataInicio)
-    if (dataFim) params.append('dataFim', dataFim)
-    
-    return apiRequest(`/presencas/relatorio?${params.toString()}`)
-  },
+  // Página do relatório de presenças; o relatório completo sai pelas exportações
+  gerarRelatorio: (turmaId, dataInicio, dataFim, parametros) =>
+    apiRequest(`/presencas/relatorio${montarParametros({ turmaId, dataInicio, dataFim, ...parametros })}`),
   
   // Contar presenças por turma
   contarPorTurma: (turmaId) => apiRequest(`/presencas/turma/${turmaId}/contar`),
@@ -304,17 +323,14 @@ export const relatoriosAPI = {
 
 // Serviços para Mentores
 export const mentoresAPI = {
-  // Listar todos os mentores ativos
-  listar: () => apiRequest('/mentores'),
+  // Página de mentores (ativos e inativos)
+  listar: (parametros) => apiRequest(`/mentores${montarParametros(parametros)}`),
   
-  // Listar todos os mentores (incluindo inativos)
-  listarTodos: () => apiRequest('/mentores/todos'),
+  // Lista completa dos mentores ativos, para a chamada de mentores
+  listarAtivos: () => apiRequest('/mentores/ativos?todos=true'),
   
-  // Listar mentores ativos
-  listarAtivos: () => apiRequest('/mentores/ativos'),
-  
-  // Listar mentores por tipo
-  listarPorTipo: (tipo) => apiRequest(`/mentores/tipo/${tipo}`),
+  // Página de mentores ativos do tipo
+  listarPorTipo: (tipo, parametros) => apiRequest(`/mentores/tipo/${tipo}${montarParametros(parametros)}`),
   
   // Buscar mentor por ID
   buscarPorId: (id) => apiRequest(`/mentores/${id}`),
@@ -375,6 +391,12 @@ export const chamadasMentoresAPI = {
   obterEstatisticas: () => apiRequest('/chamadas-mentores/estatisticas'),
 }
 
+// Serviços para o Dashboard
+export const dashboardAPI = {
+  // Totais, presenças do dia e dados dos gráficos calculados no servidor
+  obterResumo: () => apiRequest('/dashboard/resumo'),
+}
+
 // Objeto principal da API para compatibilidade
 export const api = {
   get: (endpoint) => apiRequest(endpoint),
@@ -397,5 +419,6 @@ export const api = {
   mentores: mentoresAPI,
   chamadasMentores: chamadasMentoresAPI,
   relatorios: relatoriosAPI,
+  dashboard: dashboardAPI,
 }
 
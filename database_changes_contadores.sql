@@ -0,0 +1,24 @@
+-- Contadores desnormalizados mantidos pelos services na mesma transação das escritas
+ALTER TABLE turmas ADD COLUMN IF NOT EXISTS total_alunos INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE turmas ADD COLUMN IF NOT EXISTS total_presencas INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE alunos ADD COLUMN IF NOT EXISTS total_presencas INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE chamadas ADD COLUMN IF NOT EXISTS total_presentes INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE chamadas ADD COLUMN IF NOT EXISTS total_faltas INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE chamadas_mentores ADD COLUMN IF NOT EXISTS total_presentes INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE chamadas_mentores ADD COLUMN IF NOT EXISTS total_ausentes INTEGER DEFAULT 0 NOT NULL;
+
+-- Carga inicial dos contadores a partir dos dados existentes
+UPDATE turmas t SET
+    total_alunos = (SELECT COUNT(*) FROM alunos a WHERE a.turma_id = t.id AND a.ativo = TRUE),
+    total_presencas = (SELECT COUNT(*) FROM presencas p WHERE p.turma_id = t.id);
+
+UPDATE alunos a SET
+    total_presencas = (SELECT COUNT(*) FROM presencas p WHERE p.aluno_id = a.id);
+
+UPDATE chamadas c SET
+    total_presentes = (SELECT COUNT(*) FROM chamada_alunos ca WHERE ca.chamada_id = c.id AND ca.presente = TRUE),
+    total_faltas = (SELECT COUNT(*) FROM chamada_alunos ca WHERE ca.chamada_id = c.id AND ca.presente = FALSE);
+
+UPDATE chamadas_mentores cm SET
+    total_presentes = (SELECT COUNT(*) FROM chamada_mentores_participantes p WHERE p.chamada_mentor_id = cm.id AND p.presente = TRUE),
+    total_ausentes = (SELECT COUNT(*) FROM chamada_mentores_participantes p WHERE p.chamada_mentor_id = cm.id AND p.presente = FALSE);
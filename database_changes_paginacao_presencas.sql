@@ -0,0 +1,5 @@
+-- Índices da paginação por cursor das presenças, na ordem (data_presenca, hora_presenca, id) decrescente
+CREATE INDEX IF NOT EXISTS idx_presencas_data_hora_id
+    ON presencas (data_presenca DESC, hora_presenca DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_presencas_turma_data_hora_id
+    ON presencas (turma_id, data_presenca DESC, hora_presenca DESC, id DESC);
@@ -0,0 +1,11 @@
+-- Chamadas, registros de chamada e participantes de chamadas de mentores passam a usar sequências com
+-- otimizador pooled (blocos de 50 IDs), o que permite ao Hibernate inserir os registros em lotes JDBC.
+-- O incremento precisa coincidir com o allocationSize das entidades Chamada, ChamadaAluno e ChamadaMentorParticipante.
+ALTER SEQUENCE chamadas_id_seq INCREMENT BY 50;
+ALTER SEQUENCE chamada_alunos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE chamada_mentores_participantes_id_seq INCREMENT BY 50;
+
+-- Posicionar as sequências de forma que o próximo bloco comece após o maior ID existente
+SELECT setval('chamadas_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM chamadas), 0), 1), true);
+SELECT setval('chamada_alunos_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM chamada_alunos), 0), 1), true);
+SELECT setval('chamada_mentores_participantes_id_seq', GREATEST(COALESCE((SELECT MAX(id) FROM chamada_mentores_participantes), 0), 1), true);
@@ -8,6 +8,7 @@ DROP TABLE IF EXISTS chamada_mentores_participantes CASCADE;
 DROP TABLE IF EXISTS chamadas_mentores CASCADE;
 DROP TABLE IF EXISTS presencas_mentores CASCADE; -- Removendo a tabela antiga de presenças de mentores
 DROP TABLE IF EXISTS mentores CASCADE;
+DROP TABLE IF EXISTS presencas CASCADE;
 DROP TABLE IF EXISTS chamada_alunos CASCADE;
 DROP TABLE IF EXISTS chamadas CASCADE;
 DROP TABLE IF EXISTS alunos CASCADE;
@@ -20,7 +21,9 @@ CREATE TABLE turmas (
     codigo VARCHAR(20) UNIQUE NOT NULL,
     descricao TEXT,
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    ativa BOOLEAN DEFAULT TRUE
+    ativa BOOLEAN DEFAULT TRUE,
+    total_alunos INTEGER DEFAULT 0 NOT NULL, -- Contadores desnormalizados mantidos pelos services
+    total_presencas INTEGER DEFAULT 0 NOT NULL
 );
 
 -- Tabela de Alunos
@@ -32,9 +35,22 @@ CREATE TABLE alunos (
     turma_id BIGINT NOT NULL,
     data_cadastro TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     ativo BOOLEAN DEFAULT TRUE,
+    total_presencas INTEGER DEFAULT 0 NOT NULL,
     CONSTRAINT fk_aluno_turma FOREIGN KEY (turma_id) REFERENCES turmas(id) ON DELETE CASCADE
 );
 
+-- Tabela de Presenças individuais
+CREATE TABLE presencas (
+    id BIGSERIAL PRIMARY KEY,
+    data_presenca DATE NOT NULL,
+    hora_presenca TIME NOT NULL,
+    data_hora_registro TIMESTAMP,
+    observacoes TEXT,
+    aluno_id BIGINT NOT NULL REFERENCES alunos(id),
+    turma_id BIGINT NOT NULL REFERENCES turmas(id),
+    UNIQUE (aluno_id, data_presenca) -- Garante que só há uma presença por aluno por dia
+);
+
 -- Tabela de Chamadas de Aula
 CREATE TABLE chamadas (
     id BIGSERIAL PRIMARY KEY,
@@ -42,6 +58,8 @@ CREATE TABLE chamadas (
     data_chamada DATE NOT NULL,
     observacoes TEXT,
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    total_presentes INTEGER DEFAULT 0 NOT NULL,
+    total_faltas INTEGER DEFAULT 0 NOT NULL,
     UNIQUE (turma_id, data_chamada) -- Garante que só há uma chamada por turma por dia
 );
 
@@ -71,6 +89,8 @@ CREATE TABLE chamadas_mentores (
     data_chamada DATE NOT NULL,
     observacoes TEXT,
     data_criacao TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    total_presentes INTEGER DEFAULT 0 NOT NULL,
+    total_ausentes INTEGER DEFAULT 0 NOT NULL,
     UNIQUE (data_chamada) -- Garante que só há uma chamada de mentor por dia
 );
 
@@ -84,8 +104,16 @@ CREATE TABLE chamada_mentores_participantes (
     UNIQUE (chamada_mentor_id, mentor_id) -- Garante que só há um registro por mentor por chamada
 );
 
+-- As entidades geram os ids dessas tabelas em blocos de 50 (allocationSize = 50),
+-- então as sequências precisam avançar de 50 em 50
+ALTER SEQUENCE chamadas_id_seq INCREMENT BY 50;
+ALTER SEQUENCE chamada_alunos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE chamada_mentores_participantes_id_seq INCREMENT BY 50;
+
 -- Índices para melhor performance
 CREATE INDEX idx_alunos_turma_id ON alunos(turma_id);
+CREATE INDEX idx_presencas_data_hora_id ON presencas (data_presenca DESC, hora_presenca DESC, id DESC);
+CREATE INDEX idx_presencas_turma_data_hora_id ON presencas (turma_id, data_presenca DESC, hora_presenca DESC, id DESC);
 CREATE INDEX idx_chamadas_turma_id ON chamadas(turma_id);
 CREATE INDEX idx_chamadas_data_chamada ON chamadas(data_chamada);
 CREATE INDEX idx_chamada_alunos_chamada_id ON chamada_alunos(chamada_id);
@@ -97,21 +125,25 @@ CREATE INDEX idx_chamada_mentores_participantes_mentor_id ON chamada_mentores_pa
 
 -- Dados de exemplo para teste
 INSERT INTO turmas (nome, codigo, descricao) VALUES 
-("Matemática Básica", "MAT001", "Turma de matemática para iniciantes"),
-("Português Avançado", "POR002", "Turma avançada de língua portuguesa"),
-("História Geral", "HIS003", "Curso de história geral");
+('Matemática Básica', 'MAT001', 'Turma de matemática para iniciantes'),
+('Português Avançado', 'POR002', 'Turma avançada de língua portuguesa'),
+('História Geral', 'HIS003', 'Curso de história geral');
 
 INSERT INTO alunos (nome, matricula, email, turma_id) VALUES 
-("João Silva", "2024001", "joao.silva@email.com", 1),
-("Maria Santos", "2024002", "maria.santos@email.com", 1),
-("Pedro Oliveira", "2024003", "pedro.oliveira@email.com", 2),
-("Ana Costa", "2024004", "ana.costa@email.com", 2),
-("Carlos Ferreira", "2024005", "carlos.ferreira@email.com", 3);
+('João Silva', '2024001', 'joao.silva@email.com', 1),
+('Maria Santos', '2024002', 'maria.santos@email.com', 1),
+('Pedro Oliveira', '2024003', 'pedro.oliveira@email.com', 2),
+('Ana Costa', '2024004', 'ana.costa@email.com', 2),
+('Carlos Ferreira', '2024005', 'carlos.ferreira@email.com', 3);
 
 INSERT INTO mentores (nome, email, tipo_mentor) VALUES
-("Mentor Alpha", "alpha@youxlab.com", "MENTOR"),
-("Mentor Trainee Beta", "beta@youxlab.com", "MENTOR_TRAINEE"),
-("Coordenador Gama", "gama@youxlab.com", "MENTOR_COORDENADOR");
+('Mentor Alpha', 'alpha@youxlab.com', 'MENTOR'),
+('Mentor Trainee Beta', 'beta@youxlab.com', 'MENTOR_TRAINEE'),
+('Coordenador Gama', 'gama@youxlab.com', 'MENTOR_COORDENADOR');
+
+-- Contadores das turmas de exemplo
+UPDATE turmas t SET
+    total_alunos = (SELECT COUNT(*) FROM alunos a WHERE a.turma_id = t.id AND a.ativo = TRUE);
 
 -- Views para relatórios (adaptadas para o novo modelo)
 -- View para relatórios de presença por aluno (baseado em chamada_alunos)